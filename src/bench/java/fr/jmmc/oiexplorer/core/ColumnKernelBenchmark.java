@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core;
+
+import fr.jmmc.oiexplorer.core.function.ColumnKernel;
+import fr.jmmc.oiexplorer.core.function.Converter;
+import fr.jmmc.oiexplorer.core.function.ScalingConverter;
+import java.util.Random;
+
+/**
+ * Micro benchmark (not a unit test) comparing the column kernels (values and errors) with the generic point loop
+ * (former PlotChartPanel.updatePlot loop testing the column dimension and axis options for every point)
+ * for every kernel combination (1D / 2D, log or not, converter or not, error column or not).
+ *
+ * Compiled with the test classes by the benchmark profile only (mvn -Pbenchmark test-compile), then run:
+ * java fr.jmmc.oiexplorer.core.ColumnKernelBenchmark [rows] [waves]
+ *
+ * @author bourgesl
+ */
+public final class ColumnKernelBenchmark {
+
+    /** number of warmup runs */
+    private final static int WARMUP = 20;
+    /** number of measured runs */
+    private final static int RUNS = 20;
+
+    /* members */
+    /** number of rows */
+    private final int nRows;
+    /** number of channels */
+    private final int nWaves;
+    /** 1D column */
+    private final double[] data1D;
+    /** 2D column */
+    private final double[][] data2D;
+    /** 1D error column */
+    private final double[] err1D;
+    /** 2D error column */
+    private final double[][] err2D;
+    /** row buffers */
+    private final double[] values;
+    private final double[] errors;
+
+    /**
+     * Benchmark entry point
+     * @param args optional number of rows and channels
+     */
+    public static void main(final String[] args) {
+        final int nRows = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+        final int nWaves = (args.length > 1) ? Integer.parseInt(args[1]) : 500;
+
+        final ColumnKernelBenchmark bench = new ColumnKernelBenchmark(nRows, nWaves);
+
+        System.out.println("rows: " + nRows + " - waves: " + nWaves);
+        System.out.println(String.format("  %-30s: %10s %10s %8s", "case", "generic", "kernel", "gain"));
+
+        final Converter scale = new ScalingConverter(1e-6d, "M");
+
+        for (int is2D = 0; is2D < 2; is2D++) {
+            for (int useLog = 0; useLog < 2; useLog++) {
+                for (int doScale = 0; doScale < 2; doScale++) {
+                    for (int hasErr = 0; hasErr < 2; hasErr++) {
+                        bench.run(is2D == 1, useLog == 1, (doScale == 1) ? scale : null, hasErr == 1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Private constructor
+     * @param nRows number of rows
+     * @param nWaves number of channels
+     */
+    private ColumnKernelBenchmark(final int nRows, final int nWaves) {
+        this.nRows = nRows;
+        this.nWaves = nWaves;
+        this.data1D = new double[nRows];
+        this.data2D = new double[nRows][nWaves];
+        this.err1D = new double[nRows];
+        this.err2D = new double[nRows][nWaves];
+        this.values = new double[nWaves];
+        this.errors = new double[nWaves];
+
+        final Random random = new Random(0L);
+        for (int i = 0; i < nRows; i++) {
+            data1D[i] = random.nextGaussian();
+            err1D[i] = (i % 7 == 0) ? -1.0 : ((i % 11 == 0) ? Double.NaN : random.nextDouble());
+
+            for (int l = 0; l < nWaves; l++) {
+                data2D[i][l] = (l % 20 == 0) ? Double.NaN : random.nextGaussian();
+                err2D[i][l] = (l % 13 == 0) ? -0.5 : ((l % 17 == 0) ? Double.NaN : random.nextDouble());
+            }
+        }
+    }
+
+    private void run(final boolean is2D, final boolean useLog, final Converter scaling, final boolean hasErr) {
+        final double[] d1D = (is2D) ? null : data1D;
+        final double[][] d2D = (is2D) ? data2D : null;
+        final double[] e1D = (hasErr && !is2D) ? err1D : null;
+        final double[][] e2D = (hasErr && is2D) ? err2D : null;
+
+        final ColumnKernel kernel = ColumnKernel.create(d1D, d2D, e1D, e2D, useLog, scaling);
+
+        double sink = 0.0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += generic(d1D, d2D, e1D, e2D, useLog, scaling);
+            sink += kernel(kernel);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            sink += generic(d1D, d2D, e1D, e2D, useLog, scaling);
+        }
+        final double genericTime = 1e-6 * (System.nanoTime() - start) / RUNS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            sink += kernel(kernel);
+        }
+        final double kernelTime = 1e-6 * (System.nanoTime() - start) / RUNS;
+
+        final String name = ((is2D) ? "2D" : "1D") + ((useLog) ? " log" : "") + ((scaling != null) ? " scale" : "")
+                + ((hasErr) ? " err" : "");
+
+        System.out.println(String.format("  %-30s: %7.3f ms %7.3f ms %7.2f x%s", name, genericTime, kernelTime,
+                genericTime / kernelTime, (Double.isNaN(sink)) ? " (NaN)" : ""));
+    }
+
+    /**
+     * Generic point loop (per point tests of the column dimension and axis options)
+     * @return checksum
+     */
+    private double generic(final double[] d1D, final double[][] d2D, final double[] e1D, final double[][] e2D,
+                           final boolean useLog, final Converter scaling) {
+        final boolean isData2D = (d2D != null);
+        final boolean hasErr = (e1D != null || e2D != null);
+        final boolean doScale = (scaling != null);
+
+        double sum = 0.0;
+        double y, err;
+
+        for (int i = 0; i < nRows; i++) {
+            final boolean flip = (i & 1) != 0;
+
+            for (int l = 0; l < nWaves; l++) {
+                if (isData2D) {
+                    y = d2D[i][l];
+                } else {
+                    y = d1D[i];
+                }
+                if (flip) {
+                    y = -y;
+                }
+                if (useLog && (y <= 0.0)) {
+                    y = Double.NaN;
+                }
+                if (isFinite(y)) {
+                    if (doScale) {
+                        y = scaling.evaluate(y);
+                    }
+                    err = (hasErr) ? ((isData2D) ? e2D[i][l] : e1D[i]) : Double.NaN;
+
+                    if (isFinite(err)) {
+                        if (err >= 0.0) {
+                            if (doScale) {
+                                err = scaling.evaluate(err);
+                            }
+                            sum += err;
+                        }
+                    }
+                    sum += y;
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Kernel loop (row buffers filled by the column kernel)
+     * @return checksum
+     */
+    private double kernel(final ColumnKernel kernel) {
+        final double[] rowValues = this.values;
+        final double[] rowErrors = this.errors;
+
+        double sum = 0.0;
+        double y, err;
+
+        for (int i = 0; i < nRows; i++) {
+            final boolean flip = (i & 1) != 0;
+
+            kernel.fill(i, flip, rowValues, nWaves);
+            kernel.fillError(i, rowErrors, nWaves);
+
+            for (int l = 0; l < nWaves; l++) {
+                y = rowValues[l];
+                if (isFinite(y)) {
+                    err = rowErrors[l];
+                    // valid error only (NaN if undefined, POSITIVE_INFINITY if invalid):
+                    if (err < Double.POSITIVE_INFINITY) {
+                        sum += err;
+                    }
+                    sum += y;
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static boolean isFinite(final double value) {
+        return !(Double.isNaN(value) || Double.isInfinite(value));
+    }
+}
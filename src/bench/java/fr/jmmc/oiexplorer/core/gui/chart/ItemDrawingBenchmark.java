@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.gui.chart;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * Micro benchmark (not a unit test) comparing the item drawing strategies of FastXYLineAndShapeRenderer
+ * and FastXYErrorRenderer: one Graphics2D call per item shape (or error bar line) versus shapes (or lines)
+ * batched into paths.
+ *
+ * Compiled with the test classes by the benchmark profile only (mvn -Pbenchmark test-compile), then run:
+ * java -Djava.awt.headless=true fr.jmmc.oiexplorer.core.gui.chart.ItemDrawingBenchmark [items]
+ *
+ * @author bourgesl
+ */
+public final class ItemDrawingBenchmark {
+
+    /** image width */
+    private final static int WIDTH = 800;
+    /** image height */
+    private final static int HEIGHT = 600;
+    /** number of warmup runs */
+    private final static int WARMUP = 5;
+    /** number of measured runs */
+    private final static int RUNS = 10;
+    /** number of wavelength channels (distinct paints) */
+    private final static int N_CHANNELS = 64;
+    /** maximum number of shapes per batched path */
+    private final static int MAX_BATCH = 16 * 1024;
+    /** point shape (6x6 square as the valid point shape) */
+    private final static Shape SHAPE = new Rectangle(-3, -3, 6, 6);
+    /** error bar stroke */
+    private final static Stroke STROKE = new BasicStroke(1f);
+    /** error bar cap half length */
+    private final static double CAP = 2.0;
+
+    /**
+     * Forbidden constructor
+     */
+    private ItemDrawingBenchmark() {
+        super();
+    }
+
+    /**
+     * Strategy to draw items
+     */
+    private interface Strategy {
+
+        /**
+         * Draw all items
+         * @param g2 graphics
+         * @param x item x coordinates
+         * @param y item y coordinates
+         * @param paints item paints
+         */
+        void draw(final Graphics2D g2, final double[] x, final double[] y, final Paint[] paints);
+    }
+
+    /**
+     * Benchmark entry point
+     * @param args optional number of items
+     */
+    public static void main(final String[] args) {
+        final int n = (args.length != 0) ? Integer.parseInt(args[0]) : 100000;
+
+        final Random random = new Random(0L);
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = WIDTH * random.nextDouble();
+            y[i] = HEIGHT * random.nextDouble();
+        }
+
+        // wavelength range colors (alpha 0.8) varying per consecutive item (channel):
+        final Color[] waveColors = new Color[N_CHANNELS];
+        final Color[] opaqueWaveColors = new Color[N_CHANNELS];
+        for (int i = 0; i < N_CHANNELS; i++) {
+            final Color c = Color.getHSBColor((0.8f * i) / N_CHANNELS, 1f, 1f);
+            waveColors[i] = new Color(c.getRed(), c.getGreen(), c.getBlue(), Math.round(255 * 0.8f));
+            opaqueWaveColors[i] = new Color(c.getRed(), c.getGreen(), c.getBlue());
+        }
+        final Paint[] wavePaints = new Paint[n];
+        final Paint[] opaqueWavePaints = new Paint[n];
+        final Paint[] opaquePaints = new Paint[n];
+        for (int i = 0; i < n; i++) {
+            wavePaints[i] = waveColors[i % N_CHANNELS];
+            opaqueWavePaints[i] = opaqueWaveColors[i % N_CHANNELS];
+            opaquePaints[i] = Color.BLUE;
+        }
+
+        final Strategy perItem = new Strategy() {
+            @Override
+            public void draw(final Graphics2D g2, final double[] x, final double[] y, final Paint[] paints) {
+                final AffineTransform g2AT = g2.getTransform();
+                for (int i = 0; i < x.length; i++) {
+                    g2.translate(x[i], y[i]);
+                    g2.setPaint(paints[i]);
+                    g2.fill(SHAPE);
+                    g2.setTransform(g2AT);
+                }
+            }
+        };
+        final Strategy pathPerItem = new Strategy() {
+            @Override
+            public void draw(final Graphics2D g2, final double[] x, final double[] y, final Paint[] paints) {
+                final AffineTransform at = new AffineTransform();
+                final Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, 256);
+                for (int i = 0; i < x.length; i++) {
+                    at.setToTranslation(x[i], y[i]);
+                    path.append(SHAPE.getPathIterator(at), false);
+                    g2.setPaint(paints[i]);
+                    g2.fill(path);
+                    path.reset();
+                }
+            }
+        };
+        final Strategy batchedPaths = new Strategy() {
+            @Override
+            public void draw(final Graphics2D g2, final double[] x, final double[] y, final Paint[] paints) {
+                // runs of consecutive items sharing the same paint:
+                final AffineTransform at = new AffineTransform();
+                final Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, 256);
+                Paint last = null;
+                int pending = 0;
+                for (int i = 0; i < x.length; i++) {
+                    final Paint paint = paints[i];
+                    if ((pending != 0) && ((paint != last) || (pending == MAX_BATCH))) {
+                        g2.setPaint(last);
+                        g2.fill(path);
+                        path.reset();
+                        pending = 0;
+                    }
+                    at.setToTranslation(x[i], y[i]);
+                    path.append(SHAPE.getPathIterator(at), false);
+                    last = paint;
+                    pending++;
+                }
+                if (pending != 0) {
+                    g2.setPaint(last);
+                    g2.fill(path);
+                }
+            }
+        };
+
+        // error bars (vertical bar and caps per item) using the same paint:
+        final Paint[] errorPaints = new Paint[n];
+        final Paint[] opaqueErrorPaints = new Paint[n];
+        final Color errorColor = new Color(192, 192, 192, 128);
+        for (int i = 0; i < n; i++) {
+            errorPaints[i] = errorColor;
+            opaqueErrorPaints[i] = Color.LIGHT_GRAY;
+        }
+
+        final Strategy linePerSegment = new Strategy() {
+            @Override
+            public void draw(final Graphics2D g2, final double[] x, final double[] y, final Paint[] paints) {
+                final Line2D.Double line = new Line2D.Double();
+                for (int i = 0; i < x.length; i++) {
+                    final double h = getErrorLength(i);
+                    g2.setPaint(paints[i]);
+                    g2.setStroke(STROKE);
+                    line.setLine(x[i], y[i] - h, x[i], y[i] + h);
+                    g2.draw(line);
+                    line.setLine(x[i] - CAP, y[i] - h, x[i] + CAP, y[i] - h);
+                    g2.draw(line);
+                    line.setLine(x[i] - CAP, y[i] + h, x[i] + CAP, y[i] + h);
+                    g2.draw(line);
+                }
+            }
+        };
+        final Strategy pathPerSegment = new Strategy() {
+            @Override
+            public void draw(final Graphics2D g2, final double[] x, final double[] y, final Paint[] paints) {
+                final Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, 256);
+                for (int i = 0; i < x.length; i++) {
+                    final double h = getErrorLength(i);
+                    g2.setPaint(paints[i]);
+                    g2.setStroke(STROKE);
+                    path.moveTo(x[i], y[i] - h);
+                    path.lineTo(x[i], y[i] + h);
+                    g2.draw(path);
+                    path.reset();
+                    path.moveTo(x[i] - CAP, y[i] - h);
+                    path.lineTo(x[i] + CAP, y[i] - h);
+                    g2.draw(path);
+                    path.reset();
+                    path.moveTo(x[i] - CAP, y[i] + h);
+                    path.lineTo(x[i] + CAP, y[i] + h);
+                    g2.draw(path);
+                    path.reset();
+                }
+            }
+        };
+        final Strategy batchedLines = new Strategy() {
+            @Override
+            public void draw(final Graphics2D g2, final double[] x, final double[] y, final Paint[] paints) {
+                final Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, 256);
+                g2.setPaint(paints[0]);
+                g2.setStroke(STROKE);
+                int pending = 0;
+                for (int i = 0; i < x.length; i++) {
+                    final double h = getErrorLength(i);
+                    path.moveTo(x[i], y[i] - h);
+                    path.lineTo(x[i], y[i] + h);
+                    path.moveTo(x[i] - CAP, y[i] - h);
+                    path.lineTo(x[i] + CAP, y[i] - h);
+                    path.moveTo(x[i] - CAP, y[i] + h);
+                    path.lineTo(x[i] + CAP, y[i] + h);
+                    pending += 3;
+                    if (pending >= MAX_BATCH) {
+                        g2.draw(path);
+                        path.reset();
+                        pending = 0;
+                    }
+                }
+                g2.draw(path);
+            }
+        };
+        final Strategy pathBatches = new Strategy() {
+            @Override
+            public void draw(final Graphics2D g2, final double[] x, final double[] y, final Paint[] paints) {
+                // same logic as FastXYErrorRenderer.drawItem (vertical error bars):
+                final PathBatches batches = new PathBatches(g2, true);
+                for (int i = 0; i < x.length; i++) {
+                    final double h = getErrorLength(i);
+                    final Paint paint = paints[i];
+                    batches.setStroke(STROKE);
+                    boolean full = batches.appendLine(paint, x[i], y[i] - h, x[i], y[i] + h);
+                    full |= batches.appendLine(paint, x[i] - CAP, y[i] - h, x[i] + CAP, y[i] - h);
+                    full |= batches.appendLine(paint, x[i] - CAP, y[i] + h, x[i] + CAP, y[i] + h);
+                    if (full) {
+                        batches.flush();
+                    }
+                }
+                batches.flush();
+            }
+        };
+
+        System.out.println("items: " + n + " - image: " + WIDTH + " x " + HEIGHT);
+
+        for (boolean antialiasing : new boolean[]{true, false}) {
+            System.out.println("antialiasing: " + antialiasing);
+
+            run("shapes - translucent paint per channel", antialiasing, x, y, wavePaints,
+                    new String[]{"per item (translate + fill)", "path per item"},
+                    new Strategy[]{perItem, pathPerItem});
+
+            run("shapes - opaque paint per channel", antialiasing, x, y, opaqueWavePaints,
+                    new String[]{"per item (translate + fill)", "batched paths"},
+                    new Strategy[]{perItem, batchedPaths});
+
+            run("shapes - single opaque paint", antialiasing, x, y, opaquePaints,
+                    new String[]{"per item (translate + fill)", "batched paths"},
+                    new Strategy[]{perItem, batchedPaths});
+
+            run("error bars - translucent paint", antialiasing, x, y, errorPaints,
+                    new String[]{"per segment (draw line)", "path per segment", "batched paths", "PathBatches"},
+                    new Strategy[]{linePerSegment, pathPerSegment, batchedLines, pathBatches});
+
+            run("error bars - opaque paint", antialiasing, x, y, opaqueErrorPaints,
+                    new String[]{"per segment (draw line)", "batched paths", "PathBatches"},
+                    new Strategy[]{linePerSegment, batchedLines, pathBatches});
+        }
+    }
+
+    /**
+     * Return the error bar half length of the given item (2 to 21 pixels)
+     * @param i item index
+     * @return error bar half length
+     */
+    private static double getErrorLength(final int i) {
+        return 2.0 + (i % 20);
+    }
+
+    private static void run(final String title, final boolean antialiasing,
+                            final double[] x, final double[] y, final Paint[] paints,
+                            final String[] names, final Strategy[] strategies) {
+        System.out.println("  " + title + ":");
+
+        for (int s = 0; s < strategies.length; s++) {
+            final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+            final Graphics2D g2 = image.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                    (antialiasing) ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+            try {
+                for (int i = 0; i < WARMUP; i++) {
+                    strategies[s].draw(g2, x, y, paints);
+                }
+                final long start = System.nanoTime();
+                for (int i = 0; i < RUNS; i++) {
+                    strategies[s].draw(g2, x, y, paints);
+                }
+                final double elapsed = 1e-6 * (System.nanoTime() - start) / RUNS;
+
+                System.out.println(String.format("    %-30s: %8.2f ms", names[s], elapsed));
+            } finally {
+                g2.dispose();
+            }
+        }
+    }
+}
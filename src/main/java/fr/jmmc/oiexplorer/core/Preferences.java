@@ -9,6 +9,8 @@ import fr.jmmc.jmal.image.ImageUtils;
 import fr.jmmc.jmal.image.ImageUtils.ImageInterpolation;
 import fr.jmmc.jmcs.data.preference.PreferencesException;
 import fr.jmmc.oiexplorer.core.gui.chart.ColorPalette;
+import fr.jmmc.oiexplorer.core.gui.chart.FastXYLineAndShapeRenderer;
+import fr.jmmc.oiexplorer.core.gui.chart.dataset.ColumnarSeriesData;
 import fr.jmmc.oiexplorer.core.model.OIFitsCollectionManager;
 import fr.jmmc.oitools.model.Target;
 import java.util.Observable;
@@ -37,6 +39,12 @@ public abstract class Preferences extends fr.jmmc.jmcs.data.preference.Preferenc
     public final static String MODEL_IMAGE_INTERPOLATION = "model.image.interpolation";
     /** Preference : Color palette to use in the charts / plots */
     public final static String CHART_PALETTE = "chart.palette";
+    /** Preference : number of data points above which plots are painted as density images (0 to disable) */
+    public final static String CHART_DENSITY_THRESHOLD = "chart.density.threshold";
+    /** Preference : store plot data as floats (smaller memory footprint, lower precision) */
+    public final static String CHART_DATASET_FLOAT = "chart.dataset.float";
+    /** Preference : storage of plot data (HEAP, DIRECT or MAPPED ie off-heap buffers for collections larger than the heap) */
+    public final static String CHART_DATASET_STORAGE = "chart.dataset.storage";
     /** Preference : target matcher distance (as) */
     public final static String TARGET_MATCHER_SEPARATION = "target.matcher.sep";
 
@@ -74,6 +82,11 @@ public abstract class Preferences extends fr.jmmc.jmcs.data.preference.Preferenc
         setDefaultPreference(MODEL_IMAGE_INTERPOLATION, ImageInterpolation.Bicubic.toString());
         // Color palette:
         setDefaultPreference(CHART_PALETTE, DEFAULT_COLOR_PALETTE);
+        // Density threshold:
+        setDefaultPreference(CHART_DENSITY_THRESHOLD, Integer.valueOf(FastXYLineAndShapeRenderer.DEFAULT_DENSITY_THRESHOLD));
+        // Dataset precision:
+        setDefaultPreference(CHART_DATASET_FLOAT, Boolean.FALSE);
+        setDefaultPreference(CHART_DATASET_STORAGE, ColumnarSeriesData.Storage.HEAP.toString());
 
         setDefaultPreference(TARGET_MATCHER_SEPARATION, Double.valueOf(1.0));
     }
@@ -106,6 +119,20 @@ public abstract class Preferences extends fr.jmmc.jmcs.data.preference.Preferenc
         return ImageInterpolation.Bicubic;
     }
 
+    /**
+     * Return the plot data storage Preference : use preferences or HEAP if it is undefined
+     * @return plot data storage
+     */
+    public final ColumnarSeriesData.Storage getDatasetStorage() {
+        final String value = getPreference(CHART_DATASET_STORAGE);
+        try {
+            return ColumnarSeriesData.Storage.valueOf(value);
+        } catch (IllegalArgumentException iae) {
+            logger.debug("ignored invalid value: {}", value);
+        }
+        return ColumnarSeriesData.Storage.HEAP;
+    }
+
     private final class PreferenceObserver implements Observer {
 
         @Override
@@ -114,6 +141,11 @@ public abstract class Preferences extends fr.jmmc.jmcs.data.preference.Preferenc
 
             ColorPalette.setColorPalettes(getPreference(CHART_PALETTE));
 
+            FastXYLineAndShapeRenderer.setDensityThreshold(getPreferenceAsInt(CHART_DENSITY_THRESHOLD));
+
+            ColumnarSeriesData.setDefaultFloatStorage(getPreferenceAsBoolean(CHART_DATASET_FLOAT));
+            ColumnarSeriesData.setDefaultStorage(getDatasetStorage());
+
             ImageUtils.setImageInterpolation(getImageInterpolation());
 
             if (Target.MATCHER_LIKE.setSeparationInArcsec(getPreferenceAsDouble(Preferences.TARGET_MATCHER_SEPARATION))) {
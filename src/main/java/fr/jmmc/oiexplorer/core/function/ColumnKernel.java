@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.function;
+
+import java.util.Arrays;
+
+/**
+ * This class extracts the values and errors of a single row of a 1D or 2D column and applies
+ * the value pipeline (orientation, log filter, converter) in bulk on the row buffers.
+ *
+ * The column readers (1D, 2D or missing error column) and the value / error transforms
+ * (log filter, converter) are selected once per column and axis configuration
+ * so that the per-point loops do not test the column dimension or the axis options (JIT friendly).
+ *
+ * Converted errors are encoded as:
+ * - NaN if the error is undefined (missing error column or non finite error value)
+ * - POSITIVE_INFINITY if the error is invalid (negative error value)
+ *
+ * @author bourgesl
+ */
+public final class ColumnKernel {
+
+    /* members */
+    /** value column reader */
+    private final ColumnReader valueReader;
+    /** error column reader */
+    private final ColumnReader errorReader;
+    /** value transform (log filter, converter) */
+    private final RowTransform valueTransform;
+    /** error transform (validity, converter) */
+    private final RowTransform errorTransform;
+
+    /**
+     * Return the kernel for the given column data and axis options
+     * @param data1D 1D column data (or null)
+     * @param data2D 2D column data (or null)
+     * @param err1D 1D error column data (or null)
+     * @param err2D 2D error column data (or null)
+     * @param useLog true to keep only strictly positive values (log axis)
+     * @param scaleConverter optional scaling converter
+     * @return column kernel
+     * @throws IllegalArgumentException if both data1D and data2D are null
+     */
+    public static ColumnKernel create(final double[] data1D, final double[][] data2D,
+                                      final double[] err1D, final double[][] err2D,
+                                      final boolean useLog, final Converter scaleConverter) {
+        final ColumnReader valueReader;
+        if (data2D != null) {
+            valueReader = new Column2DReader(data2D);
+        } else if (data1D != null) {
+            valueReader = new Column1DReader(data1D);
+        } else {
+            throw new IllegalArgumentException("undefined column data");
+        }
+
+        final ColumnReader errorReader;
+        final RowTransform errorTransform;
+        if (err2D != null || err1D != null) {
+            errorReader = (err2D != null) ? new Column2DReader(err2D) : new Column1DReader(err1D);
+            errorTransform = (scaleConverter != null) ? new ScaledErrorTransform(scaleConverter) : ERROR_TRANSFORM;
+        } else {
+            errorReader = MISSING_READER;
+            errorTransform = IDENTITY_TRANSFORM;
+        }
+
+        final RowTransform valueTransform;
+        if (useLog) {
+            valueTransform = (scaleConverter != null) ? new ScaledLogTransform(scaleConverter) : LOG_TRANSFORM;
+        } else {
+            valueTransform = (scaleConverter != null) ? new ScaledTransform(scaleConverter) : IDENTITY_TRANSFORM;
+        }
+        return new ColumnKernel(valueReader, errorReader, valueTransform, errorTransform);
+    }
+
+    /**
+     * Private constructor
+     * @param valueReader value column reader
+     * @param errorReader error column reader
+     * @param valueTransform value transform
+     * @param errorTransform error transform
+     */
+    private ColumnKernel(final ColumnReader valueReader, final ColumnReader errorReader,
+                         final RowTransform valueTransform, final RowTransform errorTransform) {
+        this.valueReader = valueReader;
+        this.errorReader = errorReader;
+        this.valueTransform = valueTransform;
+        this.errorTransform = errorTransform;
+    }
+
+    /**
+     * Fill the given buffer with the converted values of the given row:
+     * value = scale(filterLog(flip ? -raw : raw))
+     * Note: 1D columns give the same value for all channels
+     *
+     * @param row row index
+     * @param flip true to negate raw values (other orientation)
+     * @param dest buffer to fill
+     * @param len number of channels to fill
+     */
+    public void fill(final int row, final boolean flip, final double[] dest, final int len) {
+        this.valueReader.read(row, (flip) ? -1.0 : 1.0, this.valueTransform, dest, len);
+    }
+
+    /**
+     * Fill the given buffer with the converted errors of the given row
+     * (NaN if undefined, POSITIVE_INFINITY if invalid)
+     * Note: 1D columns give the same error for all channels
+     *
+     * @param row row index
+     * @param dest buffer to fill
+     * @param len number of channels to fill
+     */
+    public void fillError(final int row, final double[] dest, final int len) {
+        this.errorReader.read(row, 1.0, this.errorTransform, dest, len);
+    }
+
+    /**
+     * Column reader giving the raw values of a row to the transform (single pass on the row buffer)
+     */
+    private interface ColumnReader {
+
+        /**
+         * Transform the raw values of the given row into the given buffer
+         * @param row row index
+         * @param sign -1 to negate raw values (other orientation) or 1
+         * @param transform transform to apply
+         * @param dest buffer to fill
+         * @param len number of channels to fill
+         */
+        void read(final int row, final double sign, final RowTransform transform, final double[] dest, final int len);
+    }
+
+    /** missing column reader (NaN) */
+    private final static ColumnReader MISSING_READER = new ColumnReader() {
+        @Override
+        public void read(final int row, final double sign, final RowTransform transform, final double[] dest, final int len) {
+            Arrays.fill(dest, 0, len, Double.NaN);
+        }
+    };
+
+    /**
+     * 1D column reader (1 value per row): the value is transformed once
+     */
+    private final static class Column1DReader implements ColumnReader {
+
+        /** 1D column data */
+        private final double[] data;
+
+        Column1DReader(final double[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public void read(final int row, final double sign, final RowTransform transform, final double[] dest, final int len) {
+            Arrays.fill(dest, 0, len, transform.evaluate(sign * this.data[row]));
+        }
+    }
+
+    /**
+     * 2D column reader (1 value per row and channel)
+     */
+    private final static class Column2DReader implements ColumnReader {
+
+        /** 2D column data */
+        private final double[][] data;
+
+        Column2DReader(final double[][] data) {
+            this.data = data;
+        }
+
+        @Override
+        public void read(final int row, final double sign, final RowTransform transform, final double[] dest, final int len) {
+            transform.apply(this.data[row], sign, dest, len);
+        }
+    }
+
+    /**
+     * Transform of raw values into a row buffer
+     */
+    private interface RowTransform {
+
+        /**
+         * Transform the given raw value
+         * @param value raw value (sign applied)
+         * @return transformed value
+         */
+        double evaluate(final double value);
+
+        /**
+         * Transform the given raw values into the given buffer
+         * @param src raw values
+         * @param sign -1 to negate raw values (other orientation) or 1
+         * @param dest buffer to fill
+         * @param len number of values
+         */
+        void apply(final double[] src, final double sign, final double[] dest, final int len);
+    }
+
+    /** identity transform */
+    private final static RowTransform IDENTITY_TRANSFORM = new RowTransform() {
+        @Override
+        public double evaluate(final double value) {
+            return value;
+        }
+
+        @Override
+        public void apply(final double[] src, final double sign, final double[] dest, final int len) {
+            for (int l = 0; l < len; l++) {
+                dest[l] = sign * src[l];
+            }
+        }
+    };
+
+    /**
+     * log filter factors: NaN (non positive values) or 1 (strictly positive values)
+     * Note: multiplying by a factor avoids a branch per value as log axes often filter many values (unpredictable)
+     */
+    private final static double[] LOG_FACTORS = new double[]{Double.NaN, 1.0};
+
+    /** log filter: keep only strictly positive values (NaN otherwise) */
+    private final static RowTransform LOG_TRANSFORM = new RowTransform() {
+        @Override
+        public double evaluate(final double value) {
+            // NaN values are also NaN:
+            return (value > 0.0) ? value : Double.NaN;
+        }
+
+        @Override
+        public void apply(final double[] src, final double sign, final double[] dest, final int len) {
+            final double[] factors = LOG_FACTORS;
+            double v;
+            for (int l = 0; l < len; l++) {
+                v = sign * src[l];
+                // NaN values are also NaN:
+                dest[l] = v * factors[(v > 0.0) ? 1 : 0];
+            }
+        }
+    };
+
+    /** error validity: NaN if undefined (non finite), POSITIVE_INFINITY if invalid (negative) */
+    private final static RowTransform ERROR_TRANSFORM = new RowTransform() {
+        @Override
+        public double evaluate(final double value) {
+            return checkError(value);
+        }
+
+        @Override
+        public void apply(final double[] src, final double sign, final double[] dest, final int len) {
+            for (int l = 0; l < len; l++) {
+                dest[l] = checkError(src[l]);
+            }
+        }
+    };
+
+    /**
+     * Return the encoded error of the given raw error
+     * @param err raw error
+     * @return NaN if undefined (non finite), POSITIVE_INFINITY if invalid (negative) or the raw error
+     */
+    private static double checkError(final double err) {
+        if (Double.isNaN(err) || Double.isInfinite(err)) {
+            return Double.NaN;
+        }
+        return (err >= 0.0) ? err : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Scaling transform
+     */
+    private final static class ScaledTransform implements RowTransform {
+
+        /** scaling converter */
+        private final Converter converter;
+
+        ScaledTransform(final Converter converter) {
+            this.converter = converter;
+        }
+
+        @Override
+        public double evaluate(final double value) {
+            return this.converter.evaluate(value);
+        }
+
+        @Override
+        public void apply(final double[] src, final double sign, final double[] dest, final int len) {
+            final Converter conv = this.converter;
+            for (int l = 0; l < len; l++) {
+                dest[l] = conv.evaluate(sign * src[l]);
+            }
+        }
+    }
+
+    /**
+     * Log filter then scaling transform
+     */
+    private final static class ScaledLogTransform implements RowTransform {
+
+        /** scaling converter */
+        private final Converter converter;
+
+        ScaledLogTransform(final Converter converter) {
+            this.converter = converter;
+        }
+
+        @Override
+        public double evaluate(final double value) {
+            return (value > 0.0) ? this.converter.evaluate(value) : Double.NaN;
+        }
+
+        @Override
+        public void apply(final double[] src, final double sign, final double[] dest, final int len) {
+            final Converter conv = this.converter;
+            final double[] factors = LOG_FACTORS;
+            double v;
+            for (int l = 0; l < len; l++) {
+                v = sign * src[l];
+                dest[l] = conv.evaluate(v) * factors[(v > 0.0) ? 1 : 0];
+            }
+        }
+    }
+
+    /**
+     * Error validity then scaling transform (valid errors only)
+     */
+    private final static class ScaledErrorTransform implements RowTransform {
+
+        /** scaling converter */
+        private final Converter converter;
+
+        ScaledErrorTransform(final Converter converter) {
+            this.converter = converter;
+        }
+
+        @Override
+        public double evaluate(final double value) {
+            final double err = checkError(value);
+            return (err < Double.POSITIVE_INFINITY) ? this.converter.evaluate(err) : err;
+        }
+
+        @Override
+        public void apply(final double[] src, final double sign, final double[] dest, final int len) {
+            final Converter conv = this.converter;
+            double err;
+            for (int l = 0; l < len; l++) {
+                err = checkError(src[l]);
+                dest[l] = (err < Double.POSITIVE_INFINITY) ? conv.evaluate(err) : err;
+            }
+        }
+    }
+}
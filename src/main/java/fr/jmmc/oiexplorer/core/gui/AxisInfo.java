@@ -56,6 +56,24 @@ public final class AxisInfo {
         this.dataErrRange = Range.combine(dataErrRange, src.dataErrRange);
     }
 
+    void mirrorRanges() {
+        // include symmetric data ranges [-max, -min]:
+        if (dataRange != null) {
+            this.dataRange = Range.combine(dataRange, new Range(-dataRange.getUpperBound(), -dataRange.getLowerBound()));
+        }
+        if (dataErrRange != null) {
+            this.dataErrRange = Range.combine(dataErrRange, new Range(-dataErrRange.getUpperBound(), -dataErrRange.getLowerBound()));
+        }
+    }
+
+    void combine(final AxisInfo src) {
+        this.columnMeta = src.columnMeta;
+        this.unit = src.unit;
+        this.useLog = src.useLog;
+        combineRanges(src);
+        this.hasDataError |= src.hasDataError; // logical OR
+    }
+
     public ColumnMeta getColumnMeta() {
         return columnMeta;
     }
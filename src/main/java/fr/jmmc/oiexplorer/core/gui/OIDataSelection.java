@@ -0,0 +1,473 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.gui;
+
+import fr.jmmc.oiexplorer.core.function.ColumnKernel;
+import fr.jmmc.oiexplorer.core.function.Converter;
+import fr.jmmc.oiexplorer.core.function.ConverterFactory;
+import fr.jmmc.oiexplorer.core.model.plot.Axis;
+import fr.jmmc.oiexplorer.core.util.OIDataColumnCache;
+import fr.jmmc.oiexplorer.core.util.OIDataRowIndex;
+import fr.jmmc.oitools.meta.ColumnMeta;
+import fr.jmmc.oitools.model.NightId;
+import fr.jmmc.oitools.model.NightIdMatcher;
+import fr.jmmc.oitools.model.OIData;
+import fr.jmmc.oitools.model.StaNamesDir;
+import fr.jmmc.oitools.model.TargetIdMatcher;
+import fr.jmmc.oitools.model.TargetManager;
+import java.util.BitSet;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Selection of the data cells (row, channel) of a single OIData table shared by all Y axes of a plot:
+ * - rows matching the target and night filters,
+ * - flagged cells (packed bitmask),
+ * - orientation of every row (baseline) relative to the used StaNames,
+ * - X values and errors (orientation, log filter and conversions applied):
+ *   precomputed for the selected rows of 1D and 2D columns (converted once, copied per Y axis).
+ *
+ * This selection is computed once per OIData table and then reused by every Y axis.
+ * The raw X column values are kept so that another X transform (log scale or converter) only converts them again
+ * (see withXAxis).
+ *
+ * @author bourgesl
+ */
+final class OIDataSelection {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(OIDataSelection.class.getName());
+    /** ConverterFactory singleton */
+    private final static ConverterFactory cf = ConverterFactory.getInstance();
+
+    /* members */
+    /** number of rows */
+    final int nRows;
+    /** number of wave channels */
+    final int nWaves;
+    /** selected rows (target and night filters) */
+    final BitSet rowSelected;
+    /** flagged cells (row * nWaves + channel) or null if no flag */
+    final BitSet cellFlagged;
+    /** rows having the other orientation than the used StaNames */
+    final BitSet rowOtherOrientation;
+    /** x column meta data */
+    final ColumnMeta xMeta;
+    /** is x axis using log scale */
+    final boolean xUseLog;
+    /** scaling converter on x axis */
+    final Converter xConverter;
+    /** flag indicating that x data is 2D */
+    final boolean isXData2D;
+    /** flag indicating that x data depends on the baseline orientation */
+    private final boolean isXDataOrDep;
+    /** raw x values (1D) or null */
+    private final double[] xData1D;
+    /** raw x errors (1D) or null */
+    private final double[] xData1DErr;
+    /** raw x values (2D) or null */
+    private final double[][] xData2D;
+    /** raw x errors (2D) or null */
+    private final double[][] xData2DErr;
+    /** x column kernel (orientation, log filter and conversions) */
+    private final ColumnKernel xKernel;
+    /** converted x values (1D) or null */
+    private final double[] xValues1D;
+    /** converted x errors (1D) or null (NaN if undefined, POSITIVE_INFINITY if invalid) */
+    private final double[] xErrors1D;
+    /** converted x values (2D) of the selected rows or null */
+    private final double[][] xValues2D;
+    /** converted x errors (2D) of the selected rows or null if undefined (NaN if undefined, POSITIVE_INFINITY if invalid) */
+    private final double[][] xErrors2D;
+    /** number of rows skipped by the target filter */
+    final int nSkipTarget;
+    /** number of rows skipped by the night filter */
+    final int nSkipNight;
+
+    /**
+     * Create the selection for the given OIData table and X axis
+     * @param oiData OIData table
+     * @param xAxis X axis definition
+     * @param usedStaNamesMap (shared) used StaNames map
+     * @param targetManager target manager
+     * @param filterTargetUID filter target UID
+     * @param filterNightId filter night id or null
+     * @return new selection or null if the X axis is not supported by the given table
+     */
+    static OIDataSelection create(final OIData oiData, final Axis xAxis,
+                                  final Map<String, StaNamesDir> usedStaNamesMap,
+                                  final TargetManager targetManager, final String filterTargetUID,
+                                  final NightId filterNightId) {
+
+        final int nRows = oiData.getNbRows();
+        final int nWaves = oiData.getNWave();
+
+        if (nRows <= 0 || nWaves <= 0) {
+            // bad dimensions
+            return null;
+        }
+
+        final String xAxisName = xAxis.getName();
+        final ColumnMeta xMeta = oiData.getColumnMeta(xAxisName);
+
+        if (xMeta == null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("unsupported xAxis : {} on {}", xAxisName, oiData);
+            }
+            return null;
+        }
+
+        final boolean isXData2D = xMeta.isArray();
+        final double[] xData1D;
+        final double[] xData1DErr;
+        final double[][] xData2D;
+        final double[][] xData2DErr;
+
+        if (isXData2D) {
+            xData1D = null;
+            xData1DErr = null;
+            xData2D = OIDataColumnCache.getColumnAsDoubles(oiData, xAxisName);
+            if (xData2D == null || xData2D.length < nRows || xData2D[0].length < nWaves) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("unsupported xAxis : {} on {}", xAxisName, oiData);
+                }
+                return null;
+            }
+            xData2DErr = OIDataColumnCache.getColumnAsDoubles(oiData, xMeta.getErrorColumnName());
+        } else {
+            xData1D = OIDataColumnCache.getColumnAsDouble(oiData, xAxisName);
+            if (xData1D == null || xData1D.length < nRows) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("unsupported xAxis : {} on {}", xAxisName, oiData);
+                }
+                return null;
+            }
+            xData1DErr = OIDataColumnCache.getColumnAsDouble(oiData, xMeta.getErrorColumnName());
+            xData2D = null;
+            xData2DErr = null;
+        }
+
+        return new OIDataSelection(oiData, nRows, nWaves, xAxis, xMeta,
+                xData1D, xData1DErr, xData2D, xData2DErr,
+                usedStaNamesMap, targetManager, filterTargetUID, filterNightId);
+    }
+
+    /**
+     * Private constructor
+     */
+    private OIDataSelection(final OIData oiData, final int nRows, final int nWaves,
+                            final Axis xAxis, final ColumnMeta xMeta,
+                            final double[] xData1D, final double[] xData1DErr,
+                            final double[][] xData2D, final double[][] xData2DErr,
+                            final Map<String, StaNamesDir> usedStaNamesMap,
+                            final TargetManager targetManager, final String filterTargetUID,
+                            final NightId filterNightId) {
+
+        this.nRows = nRows;
+        this.nWaves = nWaves;
+        this.xMeta = xMeta;
+        this.xUseLog = xAxis.isLogScale();
+        this.xConverter = cf.getDefault(xAxis.getConverter());
+        this.isXData2D = xMeta.isArray();
+        this.isXDataOrDep = xMeta.isOrientationDependent();
+        this.xData1D = xData1D;
+        this.xData1DErr = xData1DErr;
+        this.xData2D = xData2D;
+        this.xData2DErr = xData2DErr;
+
+        // filter targetId on each data row ?
+        final TargetIdMatcher targetIdMatcher;
+        if (oiData.hasSingleTarget()) {
+            // implicitely matching selected target
+            targetIdMatcher = null;
+        } else {
+            // targetID can not be null as the OIData table is supposed to have the target:
+            final TargetIdMatcher matcher = oiData.getTargetIdMatcher(targetManager, filterTargetUID);
+            if (matcher != null) {
+                targetIdMatcher = (matcher.matchAll(oiData.getDistinctTargetId())) ? null : matcher;
+
+                if (logger.isDebugEnabled()) {
+                    logger.debug("targetIdMatcher: {}", targetIdMatcher);
+                }
+            } else {
+                targetIdMatcher = null;
+            }
+        }
+
+        final short[] targetIds = (targetIdMatcher != null) ? oiData.getTargetId() : null;
+
+        // filter nightId on each data row ?
+        final NightIdMatcher nightIdMatcher;
+        if (oiData.hasSingleNight()) {
+            // implicitely matching selected night
+            nightIdMatcher = null;
+        } else {
+            // TODO: reuse ctx.selectorResult.getDistinctNightIds() to use nightIds associated to selected Granules ONLY
+            if (filterNightId != null) {
+                nightIdMatcher = new NightIdMatcher(filterNightId);
+            } else {
+                nightIdMatcher = null;
+            }
+        }
+
+        final int[] nightIds = (nightIdMatcher != null) ? oiData.getNightId() : null;
+
+        // selected rows:
+        this.rowSelected = new BitSet(nRows);
+
+        int nSkipTargetRows = 0, nSkipNightRows = 0;
+
+        for (int i = 0; i < nRows; i++) {
+            if ((targetIdMatcher != null) && !targetIdMatcher.match(targetIds[i])) {
+                // data row does not correspond to current target so skip it:
+                nSkipTargetRows++;
+                continue;
+            }
+            if ((nightIdMatcher != null) && !nightIdMatcher.match(nightIds[i])) {
+                // data row does not correspond to current night so skip it:
+                nSkipNightRows++;
+                continue;
+            }
+            this.rowSelected.set(i);
+        }
+        this.nSkipTarget = nSkipTargetRows;
+        this.nSkipNight = nSkipNightRows;
+
+        // flagged cells:
+        if (oiData.getNFlagged() > 0) {
+            final boolean[][] flags = oiData.getFlag();
+
+            this.cellFlagged = new BitSet(nRows * nWaves);
+
+            for (int i = this.rowSelected.nextSetBit(0); i >= 0; i = this.rowSelected.nextSetBit(i + 1)) {
+                final boolean[] rowFlags = flags[i];
+                for (int l = 0, offset = i * nWaves; l < nWaves; l++) {
+                    if (rowFlags[l]) {
+                        this.cellFlagged.set(offset + l);
+                    }
+                }
+            }
+        } else {
+            this.cellFlagged = null;
+        }
+
+        // row orientation (per baseline):
+        this.rowOtherOrientation = new BitSet(nRows);
+
+        final short[][] distinctStaIndexes = oiData.getDistinctStaIndexes();
+        final OIDataRowIndex rowIndex = OIDataRowIndex.getInstance(oiData);
+
+        for (int k = 0, nStaIndexes = distinctStaIndexes.length; k < nStaIndexes; k++) {
+            // resolve sorted StaNames (reference) to get its orientation:
+            final StaNamesDir sortedStaNamesDir = oiData.getSortedStaNamesDir(distinctStaIndexes[k]);
+
+            if (sortedStaNamesDir != null) {
+                // find the previous (real) baseline corresponding to the sorted StaNames (stable):
+                final StaNamesDir refStaNamesDir = usedStaNamesMap.get(sortedStaNamesDir.getStaNames());
+
+                if ((refStaNamesDir != null) && (refStaNamesDir.isOrientation() != sortedStaNamesDir.isOrientation())) {
+                    for (int i : rowIndex.getStaIndexRows(k)) {
+                        this.rowOtherOrientation.set(i);
+                    }
+                }
+            }
+        }
+
+        // converted x values:
+        // kernel selected once (1D/2D, log, converters):
+        this.xKernel = ColumnKernel.create(xData1D, xData2D, xData1DErr, xData2DErr, this.xUseLog, this.xConverter);
+
+        if (this.isXData2D) {
+            // 2D rows are converted once for all Y axes (see fillX and fillXErr):
+            this.xValues1D = null;
+            this.xErrors1D = null;
+            this.xValues2D = new double[nRows][];
+            this.xErrors2D = (xData2DErr != null) ? new double[nRows][] : null;
+            convertX2D();
+        } else {
+            this.xValues1D = new double[nRows];
+            this.xErrors1D = new double[nRows];
+            this.xValues2D = null;
+            this.xErrors2D = null;
+            convertX1D();
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("OIDataSelection[{}]: selected rows = {} / {}", oiData, this.rowSelected.cardinality(), nRows);
+        }
+    }
+
+    /**
+     * Private constructor sharing the selected rows, flags, orientations and raw x values of the given selection
+     * and converting x values using the given X axis (log scale, converter)
+     * @param src selection to share
+     * @param xAxis X axis definition (same column)
+     */
+    private OIDataSelection(final OIDataSelection src, final Axis xAxis) {
+        this.nRows = src.nRows;
+        this.nWaves = src.nWaves;
+        this.rowSelected = src.rowSelected;
+        this.cellFlagged = src.cellFlagged;
+        this.rowOtherOrientation = src.rowOtherOrientation;
+        this.nSkipTarget = src.nSkipTarget;
+        this.nSkipNight = src.nSkipNight;
+        this.xMeta = src.xMeta;
+        this.xUseLog = xAxis.isLogScale();
+        this.xConverter = cf.getDefault(xAxis.getConverter());
+        this.isXData2D = src.isXData2D;
+        this.isXDataOrDep = src.isXDataOrDep;
+        this.xData1D = src.xData1D;
+        this.xData1DErr = src.xData1DErr;
+        this.xData2D = src.xData2D;
+        this.xData2DErr = src.xData2DErr;
+
+        // only the x transform is computed again:
+        this.xKernel = ColumnKernel.create(this.xData1D, this.xData2D, this.xData1DErr, this.xData2DErr,
+                this.xUseLog, this.xConverter);
+
+        if (this.isXData2D) {
+            this.xValues1D = null;
+            this.xErrors1D = null;
+            this.xValues2D = new double[this.nRows][];
+            this.xErrors2D = (this.xData2DErr != null) ? new double[this.nRows][] : null;
+            convertX2D();
+        } else {
+            this.xValues1D = new double[this.nRows];
+            this.xErrors1D = new double[this.nRows];
+            this.xValues2D = null;
+            this.xErrors2D = null;
+            convertX1D();
+        }
+    }
+
+    /**
+     * Return the selection using the given X axis (same column): this selection if the X transform is the same
+     * or a new selection sharing the selected rows, flags, orientations and raw x values (only x values are converted again)
+     * @param xAxis X axis definition (same column)
+     * @return selection using the given X axis
+     */
+    OIDataSelection withXAxis(final Axis xAxis) {
+        if ((this.xUseLog == xAxis.isLogScale()) && (this.xConverter == cf.getDefault(xAxis.getConverter()))) {
+            return this;
+        }
+        return new OIDataSelection(this, xAxis);
+    }
+
+    /**
+     * Convert the 1D x values and errors of the selected rows
+     */
+    private void convertX1D() {
+        final double[] cell = new double[1];
+
+        for (int i = this.rowSelected.nextSetBit(0); i >= 0; i = this.rowSelected.nextSetBit(i + 1)) {
+            this.xKernel.fill(i, this.isXDataOrDep && this.rowOtherOrientation.get(i), cell, 1);
+            this.xValues1D[i] = cell[0];
+
+            this.xKernel.fillError(i, cell, 1);
+            this.xErrors1D[i] = cell[0];
+        }
+    }
+
+    /**
+     * Convert the 2D x values and errors of the selected rows
+     */
+    private void convertX2D() {
+        final int len = this.nWaves;
+
+        for (int i = this.rowSelected.nextSetBit(0); i >= 0; i = this.rowSelected.nextSetBit(i + 1)) {
+            final double[] values = new double[len];
+            this.xKernel.fill(i, this.isXDataOrDep && this.rowOtherOrientation.get(i), values, len);
+            this.xValues2D[i] = values;
+
+            if (this.xErrors2D != null) {
+                final double[] errors = new double[len];
+                this.xKernel.fillError(i, errors, len);
+                this.xErrors2D[i] = errors;
+            }
+        }
+    }
+
+    /**
+     * Return the estimated memory footprint of the raw and converted x values (bytes)
+     * Note: raw values are shared with the column cache
+     * @return estimated memory footprint in bytes
+     */
+    long getWeight() {
+        long weight = 0l;
+        if (this.isXData2D) {
+            weight += OIDataColumnCache.getWeight(this.xData2D) + OIDataColumnCache.getWeight(this.xValues2D);
+            if (this.xData2DErr != null) {
+                weight += OIDataColumnCache.getWeight(this.xData2DErr) + OIDataColumnCache.getWeight(this.xErrors2D);
+            }
+        } else {
+            weight += OIDataColumnCache.getWeight(this.xData1D) + OIDataColumnCache.getWeight(this.xValues1D)
+                    + OIDataColumnCache.getWeight(this.xErrors1D);
+            if (this.xData1DErr != null) {
+                weight += OIDataColumnCache.getWeight(this.xData1DErr);
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Return true if the given cell is flagged
+     * @param row row index
+     * @param col channel index
+     * @return true if the given cell is flagged
+     */
+    boolean isFlagged(final int row, final int col) {
+        return (this.cellFlagged != null) && this.cellFlagged.get(row * this.nWaves + col);
+    }
+
+    /**
+     * Return true if there is any flagged data
+     * @return true if there is any flagged data
+     */
+    boolean hasFlaggedData() {
+        return (this.cellFlagged != null) && !this.cellFlagged.isEmpty();
+    }
+
+    /**
+     * Fill the given buffer with the converted x values of the given row
+     * Note: 1D columns give the same value for all channels
+     * @param row row index (selected row)
+     * @param dest buffer to fill
+     * @param len number of channels to fill
+     */
+    void fillX(final int row, final double[] dest, final int len) {
+        if (this.isXData2D) {
+            System.arraycopy(this.xValues2D[row], 0, dest, 0, len);
+        } else {
+            fillRow(this.xValues1D[row], dest, len);
+        }
+    }
+
+    /**
+     * Fill the given buffer with the converted x errors of the given row
+     * (NaN if undefined, POSITIVE_INFINITY if invalid)
+     * Note: 1D columns give the same error for all channels
+     * @param row row index (selected row)
+     * @param dest buffer to fill
+     * @param len number of channels to fill
+     */
+    void fillXErr(final int row, final double[] dest, final int len) {
+        if (this.isXData2D) {
+            if (this.xErrors2D != null) {
+                System.arraycopy(this.xErrors2D[row], 0, dest, 0, len);
+            } else {
+                // undefined errors:
+                fillRow(Double.NaN, dest, len);
+            }
+        } else {
+            fillRow(this.xErrors1D[row], dest, len);
+        }
+    }
+
+    private static void fillRow(final double value, final double[] dest, final int len) {
+        for (int l = 0; l < len; l++) {
+            dest[l] = value;
+        }
+    }
+}
@@ -6,6 +6,9 @@ package fr.jmmc.oiexplorer.core.gui;
 import fr.jmmc.jmal.image.ColorModels;
 import fr.jmmc.jmal.image.ColorScale;
 import fr.jmmc.jmal.image.ImageUtils;
+import fr.jmmc.jmcs.gui.task.Task;
+import fr.jmmc.jmcs.gui.task.TaskSwingWorker;
+import fr.jmmc.jmcs.gui.task.TaskSwingWorkerExecutor;
 import fr.jmmc.jmcs.gui.util.EDTDelayedEventHandler;
 import fr.jmmc.jmcs.gui.util.SwingUtils;
 import fr.jmmc.jmcs.util.NumberUtils;
@@ -13,6 +16,7 @@ import fr.jmmc.jmcs.util.ObjectUtils;
 import fr.jmmc.jmcs.util.StringUtils;
 import fr.jmmc.oiexplorer.core.export.DocumentExportable;
 import fr.jmmc.oiexplorer.core.export.DocumentOptions;
+import fr.jmmc.oiexplorer.core.function.ColumnKernel;
 import fr.jmmc.oiexplorer.core.function.Converter;
 import fr.jmmc.oiexplorer.core.function.ConverterFactory;
 import fr.jmmc.oiexplorer.core.gui.action.ExportDocumentAction;
@@ -23,9 +27,14 @@ import fr.jmmc.oiexplorer.core.gui.chart.ChartUtils;
 import fr.jmmc.oiexplorer.core.gui.chart.ColorModelPaintScale;
 import fr.jmmc.oiexplorer.core.gui.chart.CombinedCrosshairOverlay;
 import fr.jmmc.oiexplorer.core.gui.chart.EnhancedChartMouseListener;
+import fr.jmmc.oiexplorer.core.gui.chart.EnhancedChartPanel;
 import fr.jmmc.oiexplorer.core.gui.chart.EnhancedCombinedDomainXYPlot;
 import fr.jmmc.oiexplorer.core.gui.chart.FastXYErrorRenderer;
+import fr.jmmc.oiexplorer.core.gui.chart.IndexedPaints;
 import fr.jmmc.oiexplorer.core.gui.chart.SelectionOverlay;
+import fr.jmmc.oiexplorer.core.gui.chart.dataset.ColumnarSeriesData;
+import fr.jmmc.oiexplorer.core.gui.chart.dataset.DatasetPointIndex;
+import fr.jmmc.oiexplorer.core.gui.chart.dataset.DatasetSpatialIndex;
 import fr.jmmc.oiexplorer.core.gui.chart.dataset.FastIntervalXYDataset;
 import fr.jmmc.oiexplorer.core.gui.chart.dataset.OITableSerieKey;
 import fr.jmmc.oiexplorer.core.gui.chart.dataset.SharedSeriesAttributes;
@@ -37,7 +46,9 @@ import fr.jmmc.oiexplorer.core.model.OIFitsCollectionManager;
 import fr.jmmc.oiexplorer.core.model.OIFitsCollectionManagerEvent;
 import fr.jmmc.oiexplorer.core.model.OIFitsCollectionManagerEventListener;
 import fr.jmmc.oiexplorer.core.model.OIFitsCollectionManagerEventType;
+import fr.jmmc.oiexplorer.core.model.oi.Identifiable;
 import fr.jmmc.oiexplorer.core.model.oi.Plot;
+import fr.jmmc.oiexplorer.core.model.oi.SubsetDefinition;
 import fr.jmmc.oiexplorer.core.model.plot.Axis;
 import fr.jmmc.oiexplorer.core.model.plot.AxisRangeMode;
 import fr.jmmc.oiexplorer.core.model.plot.ColorMapping;
@@ -47,22 +58,22 @@ import static fr.jmmc.oiexplorer.core.model.plot.ColorMapping.STATION_INDEX;
 import static fr.jmmc.oiexplorer.core.model.plot.ColorMapping.WAVELENGTH_RANGE;
 import fr.jmmc.oiexplorer.core.model.plot.PlotDefinition;
 import fr.jmmc.oiexplorer.core.util.Constants;
+import fr.jmmc.oiexplorer.core.util.LRUCache;
+import fr.jmmc.oiexplorer.core.util.OIDataColumnCache;
 import fr.jmmc.oiexplorer.core.util.OIDataListHelper;
+import fr.jmmc.oiexplorer.core.util.OIDataRowIndex;
 import fr.jmmc.oitools.OIFitsConstants;
 import fr.jmmc.oitools.meta.ColumnMeta;
 import fr.jmmc.oitools.meta.DataRange;
 import fr.jmmc.oitools.meta.Units;
 import fr.jmmc.oitools.model.NightId;
-import fr.jmmc.oitools.model.NightIdMatcher;
 import fr.jmmc.oitools.model.OIData;
 import fr.jmmc.oitools.model.OIFitsFile;
 import fr.jmmc.oitools.model.StaNamesDir;
-import fr.jmmc.oitools.model.TargetIdMatcher;
 import fr.jmmc.oitools.model.TargetManager;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.Paint;
 import java.awt.Point;
 import java.awt.Polygon;
 import java.awt.Rectangle;
@@ -74,6 +85,8 @@ import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
@@ -81,6 +94,11 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.jfree.chart.ChartColor;
 import org.jfree.chart.ChartMouseEvent;
 import org.jfree.chart.ChartPanel;
@@ -100,7 +118,6 @@ import org.jfree.chart.plot.PlotRenderingInfo;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.title.PaintScaleLegend;
 import org.jfree.data.Range;
-import org.jfree.data.xy.XYDataset;
 import org.jfree.chart.ui.Drawable;
 import org.jfree.chart.ui.Layer;
 import org.jfree.chart.ui.RectangleEdge;
@@ -138,6 +155,26 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
     /** double formatter for other values */
     private final static NumberFormat df2 = new DecimalFormat("0.00");
     public final static double LAMBDA_EPSILON = 1e-10; // 0.1 nm
+    /** plot task prefix 'updatePlotChart-' */
+    private static final String PREFIX_PLOT_TASK = "updatePlotChart-";
+    /** global panel counter */
+    private final static AtomicInteger panelCounter = new AtomicInteger(1);
+    /** flag to extract OIData tables in parallel (fork/join) */
+    private final static boolean USE_PARALLEL_EXTRACTION = true;
+    /** fork/join pool used to extract OIData tables in parallel */
+    private final static ForkJoinPool extractPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    /** maximum number of cached plot chart data (all panels) */
+    private final static int MAX_CACHED_CHART_DATA = 16;
+    /** maximum weight of cached plot chart data (all panels) as a fraction of the heap */
+    private final static double MAX_CACHED_CHART_DATA_WEIGHT = 0.1;
+    /** LRU cache of plot chart data keyed by panel, subset and plot definition versions, OIData tables,
+    column data version and dataset storage (single memory budget shared by all panels;
+    entries are not shared between panels as datasets and plot informations are attached to the panel's plots) */
+    private final static LRUCache<PlotDataKey, PlotChartData> chartDataCache
+            = new LRUCache<PlotDataKey, PlotChartData>("PlotChartData", MAX_CACHED_CHART_DATA,
+                    LRUCache.getMaxWeight(MAX_CACHED_CHART_DATA_WEIGHT));
+    /** estimated memory footprint per data point in bytes (color index) in addition to the columnar data */
+    private final static int BYTES_PER_DATA_POINT = 2;
 
     /* shared point shapes */
     private static final Shape shapePointValid;
@@ -194,9 +231,15 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
 
     /** OIFitsCollectionManager singleton */
     private final static OIFitsCollectionManager ocm = OIFitsCollectionManager.getInstance();
-    /* members */
     /** ConverterFactory singleton */
-    private final ConverterFactory cf = ConverterFactory.getInstance();
+    private final static ConverterFactory cf = ConverterFactory.getInstance();
+    /* members */
+    /** panel identifier (unique) */
+    private final int panelId;
+    /** plot data task (dataset creation) */
+    private final Task task;
+    /** last computed plot data (used by the EDT only) */
+    private PlotChartData lastChartData = null;
     /** plot identifier */
     private String plotId = null;
     /** plot object reference (read only) */
@@ -218,6 +261,10 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
     private Map<Integer, XYPlot> plotIndexMapping = new HashMap<Integer, XYPlot>();
     /** chart panel */
     private ChartPanel chartPanel;
+    /** dataset storage of the cached plot chart data */
+    private ColumnarSeriesData.Storage cachedStorage = null;
+    /** dataset float storage flag of the cached plot chart data */
+    private boolean cachedFloatStorage = false;
     /** crosshair overlay */
     private CombinedCrosshairOverlay crosshairOverlay = null;
     /** selection overlay */
@@ -237,6 +284,10 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
      * Constructor
      */
     public PlotChartPanel() {
+        this.panelId = panelCounter.getAndIncrement();
+        this.task = new Task(PREFIX_PLOT_TASK + this.panelId);
+
+        ocm.bindCollectionChangedEvent(this);
         ocm.getPlotChangedEventNotifier().register(this);
         ocm.getSelectionChangedEventNotifier().register(this);
 
@@ -253,7 +304,27 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         if (logger.isDebugEnabled()) {
             logger.debug("dispose: {}", ObjectUtils.getObjectInfo(this));
         }
+        // Cancel any running task:
+        TaskSwingWorkerExecutor.cancelTask(this.task);
+
         ocm.unbind(this);
+
+        clearChartDataCache();
+    }
+
+    /**
+     * Clear the cached plot chart data of this panel (loaded files or dataset storage preferences changed)
+     */
+    private void clearChartDataCache() {
+        logger.debug("clearChartDataCache");
+        final int id = this.panelId;
+
+        chartDataCache.removeAll(new LRUCache.KeyFilter<PlotDataKey>() {
+            @Override
+            public boolean accept(final PlotDataKey key) {
+                return key.panelId == id;
+            }
+        });
     }
 
     /**
@@ -575,6 +646,10 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         this.chart = ChartUtils.createChart(null, this.combinedXYPlot, true);
         this.chart.addProgressListener(this);
         this.chartPanel = ChartUtils.createChartPanel(this.chart, false);
+        // restored data layers (panel resized back) give rendered item counts without chart progress event:
+        if (this.chartPanel instanceof EnhancedChartPanel) {
+            ((EnhancedChartPanel) this.chartPanel).setDataLayerListener(this);
+        }
 
         // enable mouse wheel:
         this.chartPanel.setMouseWheelEnabled(true);
@@ -685,6 +760,11 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         renderer.setShapesFilled(true);
         renderer.setDrawOutlines(false);
 
+        // decimate items of very long series (line, shape and error envelopes per pixel column):
+        renderer.setUseDecimation(true);
+        // paint a density image for huge datasets (see Preferences.CHART_DENSITY_THRESHOLD):
+        renderer.setUseDensity(true);
+
         // define error bar settings:
         renderer.setErrorStroke(ChartUtils.DEFAULT_STROKE);
         renderer.setCapLength(0d);
@@ -964,11 +1044,18 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         logger.debug("mouseSelected: rectangle {}", selection);
 
         // TODO: determine which plot to use ?
-        // find data points:
-        final List<Point2D> points = findDataPoints(plot, selection);
+        // find data points and keep data selection (pointer to real data):
+        final List<DataPointer> dataPointers = new ArrayList<DataPointer>();
+        final List<Point2D> points = findDataPoints(plot, selection, dataPointers);
 
         // push data points to overlay for rendering:
         this.selectionOverlay.setPoints(points);
+
+        if (!dataPointers.isEmpty()) {
+            // show the first selected data point (dataset order) in crosshairs
+            // and share it as the current selection (table browser):
+            refreshCrosshairs(dataPointers.get(0));
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -994,50 +1081,22 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
 
                 final FastIntervalXYDataset<OITableSerieKey, OITableSerieKey> dataset = getDataset(xyPlot);
                 if (dataset != null) {
-                    int nMatchs = 0;
-                    XYPlotPoint pt1 = null;
-                    XYPlotPoint pt2 = null;
-
-                    for (int serie = 0, seriesCount = dataset.getSeriesCount(), item, itemCount, row, col; serie < seriesCount; serie++) {
-                        final OITableSerieKey serieKey = (OITableSerieKey) dataset.getSeriesKey(serie);
+                    // reverse index (oidata, row, col) built once per dataset in background (see PlotChartData.buildSpatialIndexes):
+                    final long match = dataset.getPointIndex().find(selPtr.getOiData(), mRow, mCol);
 
-                        // check oidata pointer (OIData) and column index (wavelength ?)
-                        if (serieKey.getDataPointer().equals(selPtr)) {
-                            itemCount = dataset.getItemCount(serie);
+                    if (match != DatasetPointIndex.NOT_FOUND) {
+                        final int serie = DatasetPointIndex.getSeries(match);
+                        final int item = DatasetPointIndex.getItem(match);
 
-                            for (item = 0; item < itemCount; item++) {
-                                row = dataset.getDataRow(serie, item);
+                        logger.debug("matching point: serie={} item={}", serie, item);
 
-                                if (row == mRow) {
-                                    col = dataset.getDataCol(serie, item);
+                        final PlotInfo info = getPlotInfos().get(this.plotMapping.get(xyPlot).intValue());
 
-                                    if (col == mCol) {
-                                        // matching
-                                        logger.debug("matching point: serie={} item={}", serie, item);
+                        final XYPlotPoint pt1 = createDataPoint(info, dataset, serie, item);
+                        // symmetric point (virtual series):
+                        final XYPlotPoint pt2 = (dataset.isSymmetric())
+                                ? createDataPoint(info, dataset, dataset.getSymmetricSeriesIndex(serie), item) : null;
 
-                                        if (++nMatchs > 2) {
-                                            logger.info("Too much matching items for ptr: {}", selPtr);
-                                            break;
-                                        }
-
-                                        final XYPlotPoint pt = createDataPoint(
-                                                getPlotInfos().get(this.plotMapping.get(xyPlot).intValue()),
-                                                dataset, serie, item);
-
-                                        if (pt1 == null) {
-                                            pt1 = pt;
-                                        } else if (pt2 == null) {
-                                            pt2 = pt;
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-
-                    logger.debug("matching points: {}", nMatchs);
-
-                    if (nMatchs != 0) {
                         dataPoints.put(xyPlot, new XYPlotPoint[]{pt1, pt2});
                     }
                 }
@@ -1069,35 +1128,15 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         final FastIntervalXYDataset<OITableSerieKey, OITableSerieKey> dataset = getDataset(xyPlot);
 
         if (dataset != null) {
-            // TODO: move such code elsewhere : ChartUtils or XYDataSetUtils ?
             final long startTime = System.nanoTime();
 
-            double minDistance = Double.POSITIVE_INFINITY;
-            double x, y, dx, dy, distance;
-
-            // NOTE: not optimized
-            // standard case - plain XYDataset
-            for (int serie = 0, seriesCount = dataset.getSeriesCount(), item, itemCount; serie < seriesCount; serie++) {
-                itemCount = dataset.getItemCount(serie);
-
-                for (item = 0; item < itemCount; item++) {
-                    x = dataset.getXValue(serie, item);
-                    y = dataset.getYValue(serie, item);
+            // spatial index (grid) built once per dataset in background (see PlotChartData.buildSpatialIndexes):
+            final DatasetSpatialIndex index = dataset.getSpatialIndex();
 
-                    if (!Double.isNaN(x) && !Double.isNaN(y)) {
-                        // converted in pixels:
-                        dx = (x - anchorX) * xRatio;
-                        dy = (y - anchorY) * yRatio;
-
-                        distance = dx * dx + dy * dy;
-
-                        if (distance < minDistance) {
-                            minDistance = distance;
-                            matchSerie = serie;
-                            matchItem = item;
-                        }
-                    }
-                }
+            final int match = index.findNearest(dataset, anchorX, anchorY, xRatio, yRatio);
+            if (match != -1) {
+                matchSerie = index.getSeries(match);
+                matchItem = index.getItem(match);
             }
 
             if (logger.isDebugEnabled()) {
@@ -1159,51 +1198,65 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
     }
 
     /**
-     * Find data points inside the given Shape (data coordinates)
+     * Find data points inside the given Shape (data coordinates) using the dataset spatial index
      * @param plot
      * @param shape shape to use
+     * @param dataPointers optional list to store the data pointers (real data) of the found data points (symmetric points merged)
      * @return found list of Point2D (data coordinates) or empty list
      */
-    private static List<Point2D> findDataPoints(final XYPlot plot, final Shape shape) {
-        final List<Point2D> points = new ArrayList<Point2D>();
+    private static List<Point2D> findDataPoints(final XYPlot plot, final Shape shape, final List<DataPointer> dataPointers) {
+        final FastIntervalXYDataset<OITableSerieKey, OITableSerieKey> dataset = (plot != null) ? getDataset(plot) : null;
 
-        final XYDataset dataset = (plot != null) ? plot.getDataset() : null;
+        if (dataset == null) {
+            return Collections.emptyList();
+        }
+        final long startTime = System.nanoTime();
 
-        if (dataset != null) {
-            // TODO: move such code elsewhere : ChartUtils or XYDataSetUtils ?
+        final DatasetSpatialIndex index = dataset.getSpatialIndex();
+        final int[] matches = index.findInside(dataset, shape);
 
-            final long startTime = System.nanoTime();
-            /*
-             int matchSerie = -1;
-             int matchItem = -1;
-             */
-            double x, y;
-
-            // NOTE: not optimized
-            // standard case - plain XYDataset
-            for (int serie = 0, seriesCount = dataset.getSeriesCount(), item, itemCount; serie < seriesCount; serie++) {
-                itemCount = dataset.getItemCount(serie);
-                for (item = 0; item < itemCount; item++) {
-                    x = dataset.getXValue(serie, item);
-                    y = dataset.getYValue(serie, item);
-
-                    if (!Double.isNaN(x) && !Double.isNaN(y)) {
-
-                        if (shape.contains(x, y)) {
-                            // TODO: keep data selection (pointer to real data)
-                            /*
-                             matchSerie = serie;
-                             matchItem = item;
-                             */
-                            points.add(new Point2D.Double(x, y));
-                        }
+        final List<Point2D> points = new ArrayList<Point2D>(matches.length);
+
+        int serie, item;
+        for (int i = 0; i < matches.length; i++) {
+            serie = index.getSeries(matches[i]);
+            item = index.getItem(matches[i]);
+            points.add(new Point2D.Double(dataset.getXValue(serie, item), dataset.getYValue(serie, item)));
+        }
+
+        if (dataPointers != null && matches.length != 0) {
+            // packed (source series, item) sorted to merge symmetric points and preserve dataset order:
+            final long[] sourceItems = new long[matches.length];
+            for (int i = 0; i < matches.length; i++) {
+                serie = dataset.getSourceSeriesIndex(index.getSeries(matches[i]));
+                sourceItems[i] = (((long) serie) << 32) | index.getItem(matches[i]);
+            }
+            Arrays.sort(sourceItems);
+
+            OITableSerieKey serieKey = null;
+            int lastSerie = -1;
+            long last = -1L;
+
+            for (int i = 0; i < sourceItems.length; i++) {
+                if (sourceItems[i] != last) {
+                    last = sourceItems[i];
+                    serie = (int) (last >>> 32);
+                    item = (int) last;
+
+                    if (serie != lastSerie) {
+                        lastSerie = serie;
+                        serieKey = (OITableSerieKey) dataset.getSeriesKey(serie);
                     }
+                    dataPointers.add(new DataPointer(serieKey.getDataPointer(),
+                            dataset.getDataRow(serie, item), dataset.getDataCol(serie, item)));
                 }
             }
+        }
 
-            if (logger.isDebugEnabled()) {
-                logger.debug("findDataPoints: duration = {} ms.", 1e-6d * (System.nanoTime() - startTime));
-            }
+        if (logger.isDebugEnabled()) {
+            logger.debug("findDataPoints: {} points ({} data pointers) in {} items: duration = {} ms.",
+                    points.size(), (dataPointers != null) ? dataPointers.size() : 0,
+                    index.getSize(), 1e-6d * (System.nanoTime() - startTime));
         }
         return points;
     }
@@ -1221,6 +1274,9 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
      * Reset plot
      */
     private void resetPlot() {
+        // clear computed data:
+        this.lastChartData = null;
+
         // clear plot informations
         getPlotInfos().clear();
 
@@ -1275,44 +1331,457 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
     }
 
     /**
-     * Refresh the plot using chart data.
+     * Refresh the plot using a SwingWorker to create datasets in the background.
      * This code is executed by the Swing Event Dispatcher thread (EDT)
      */
     private void updatePlot() {
         // check subset:
         if (getOiFitsSubset() == null || getPlotDefinition() == null) {
+            // Cancel any running task:
+            TaskSwingWorkerExecutor.cancelTask(this.task);
+
             resetPlot();
             return;
         }
 
-        final long start = System.nanoTime();
+        final PlotContext ctx = createPlotContext();
 
-        // clear plot informations
-        getPlotInfos().clear();
+        // presentation-only changes (axis range mode, range or include zero): reuse computed datasets:
+        final PlotChartData lastData = this.lastChartData;
 
-        // disable chart & plot notifications:
-        this.chart.setNotify(false);
-        for (int i = 0, len = this.xyPlotList.size(); i < len; i++) {
-            final XYPlot xyPlot = this.xyPlotList.get(i);
-            xyPlot.setNotify(false);
+        if ((lastData != null) && lastData.ctx.isSameData(ctx)) {
+            logger.debug("updatePlot: reuse computed datasets");
+
+            // Cancel any running task:
+            TaskSwingWorkerExecutor.cancelTask(this.task);
+
+            // only adjust axis bounds and ranges:
+            updatePlot(new PlotChartData(ctx, lastData));
+            return;
         }
 
-        try {
-            // title :
-            ChartUtils.clearTextSubTitle(this.chart);
+        // dataset storage preferences changed: cached datasets are obsolete:
+        if ((ctx.cacheKey.storage != this.cachedStorage) || (ctx.cacheKey.floatStorage != this.cachedFloatStorage)) {
+            clearChartDataCache();
+            this.cachedStorage = ctx.cacheKey.storage;
+            this.cachedFloatStorage = ctx.cacheKey.floatStorage;
+        }
 
-            removeAllSubPlots();
+        // recently viewed subset and plot definition versions:
+        final PlotChartData cachedData = chartDataCache.get(ctx.cacheKey);
 
-            // computed data are valid :
-            // TODO: externalize dataset creation using SwingWorker to be able to
-            // - cancel long data processing task
-            // - do not block EDT !
-            updateChart();
+        if (cachedData != null) {
+            logger.debug("updatePlot: use cached datasets for {}", ctx.cacheKey);
 
-            final boolean hasData = isHasData();
+            // Cancel any running task:
+            TaskSwingWorkerExecutor.cancelTask(this.task);
 
-            if (hasData) {
-                refreshCrosshairs(ocm.getSelection());
+            updatePlot(new PlotChartData(ctx, cachedData));
+            return;
+        }
+
+        // Create plot data task worker (only new OIData tables are extracted):
+        // Cancel other tasks and execute this new task:
+        new PlotChartSwingWorker(this, ctx, lastData).executeTask();
+    }
+
+    /**
+     * Return a new plot context (snapshot of the current plot state) used to compute datasets in the background
+     * This code is executed by the Swing Event Dispatcher thread (EDT)
+     * @return new plot context
+     */
+    private PlotContext createPlotContext() {
+        final OIFitsFile oiFitsSubset = getOiFitsSubset();
+        final List<OIData> oiDataList = new ArrayList<OIData>(oiFitsSubset.getOiDataList());
+
+        final int columnVersion = ocm.getColumnVersion();
+
+        final PlotDataKey cacheKey = new PlotDataKey(this.panelId, getPlot().getSubsetDefinition(), getPlotDefinition(), oiDataList,
+                columnVersion, ColumnarSeriesData.getDefaultStorage(), ColumnarSeriesData.isDefaultFloatStorage());
+
+        return new PlotContext(this.plotId, cacheKey,
+                // copy plot definition to be thread-safe:
+                Identifiable.clone(getPlotDefinition()),
+                oiDataList,
+                oiFitsSubset.getUsedStaNamesMap(),
+                getTargetManager(), getFilterTargetUID(), getFilterNightID(),
+                this.colorModel, columnVersion);
+    }
+
+    /**
+     * TaskSwingWorker child class to compute the plot datasets from the given plot context
+     */
+    private final static class PlotChartSwingWorker extends TaskSwingWorker<PlotChartData> {
+
+        /* members */
+        /** plot chart panel used for refreshUI callback */
+        private final PlotChartPanel chartPanel;
+        /** plot context */
+        private final PlotContext ctx;
+        /** previous plot chart data (tables to reuse) or null */
+        private final PlotChartData previous;
+
+        /**
+         * Hidden constructor
+         *
+         * @param chartPanel plot chart panel
+         * @param ctx plot context
+         * @param previous previous plot chart data (tables to reuse) or null
+         */
+        private PlotChartSwingWorker(final PlotChartPanel chartPanel, final PlotContext ctx, final PlotChartData previous) {
+            super(chartPanel.task);
+            this.chartPanel = chartPanel;
+            this.ctx = ctx;
+            this.previous = previous;
+        }
+
+        /**
+         * Compute the plot datasets in background
+         * This code is executed by a Worker thread (Not Swing EDT)
+         * @return computed plot data or null if cancelled
+         */
+        @Override
+        public PlotChartData computeInBackground() {
+            final long start = System.nanoTime();
+
+            final PlotChartData chartData = computePlotData(this.ctx, this.previous);
+
+            if (chartData != null) {
+                logger.info("compute[PlotChartData]: duration = {} ms.", 1e-6d * (System.nanoTime() - start));
+
+                // build spatial and point indexes (mouse hover, crosshair) in background instead of the EDT on first use:
+                chartData.buildSpatialIndexes();
+
+                chartDataCache.put(this.ctx.cacheKey, chartData, chartData.getWeight());
+            }
+            return chartData;
+        }
+
+        /**
+         * Refresh the plot using the computed datasets.
+         * This code is executed by the Swing Event Dispatcher thread (EDT)
+         * @param chartData computed plot data
+         */
+        @Override
+        public void refreshUI(final PlotChartData chartData) {
+            // Refresh the GUI using coherent data:
+            if (chartData != null) {
+                this.chartPanel.updatePlot(chartData);
+            }
+        }
+
+        /**
+         * Handle the execution exception that occured in the compute operation @see #computeInBackground()
+         * This implementation resets the plot and opens a message dialog or the feedback report depending on the cause.
+         *
+         * @param ee execution exception
+         */
+        @Override
+        public void handleException(final ExecutionException ee) {
+            this.chartPanel.resetPlot();
+            super.handleException(ee);
+        }
+    }
+
+    /**
+     * Plot context: immutable snapshot of the plot state (subset, plot definition, filters)
+     * used to compute datasets in the background
+     */
+    private final static class PlotContext {
+
+        /* members */
+        /** plot identifier */
+        final String plotId;
+        /** cache key (subset and plot definition versions) */
+        final PlotDataKey cacheKey;
+        /** plot definition (copy) */
+        final PlotDefinition plotDef;
+        /** selected OIData tables matching filters (copy) */
+        final List<OIData> oiDataList;
+        /** used StaNames map */
+        final Map<String, StaNamesDir> usedStaNamesMap;
+        /** target manager */
+        final TargetManager targetManager;
+        /** filter target UID */
+        final String filterTargetUID;
+        /** filter night id */
+        final NightId filterNightId;
+        /** color model used for wavelength colors */
+        final IndexColorModel colorModel;
+        /** column data version (expression columns) */
+        final int columnVersion;
+        /** flag indicating that the extraction was cancelled (polled by extraction tasks) */
+        private volatile boolean cancelled = false;
+
+        /**
+         * Protected constructor
+         * @param plotId plot identifier
+         * @param cacheKey cache key (subset and plot definition versions, dataset storage)
+         * @param plotDef plot definition (copy)
+         * @param oiDataList selected OIData tables (copy)
+         * @param usedStaNamesMap used StaNames map
+         * @param targetManager target manager
+         * @param filterTargetUID filter target UID
+         * @param filterNightId filter night id
+         * @param colorModel color model used for wavelength colors
+         * @param columnVersion column data version (expression columns)
+         */
+        PlotContext(final String plotId, final PlotDataKey cacheKey, final PlotDefinition plotDef,
+                    final List<OIData> oiDataList, final Map<String, StaNamesDir> usedStaNamesMap,
+                    final TargetManager targetManager, final String filterTargetUID, final NightId filterNightId,
+                    final IndexColorModel colorModel, final int columnVersion) {
+            this.plotId = plotId;
+            this.cacheKey = cacheKey;
+            this.plotDef = plotDef;
+            this.oiDataList = oiDataList;
+            this.usedStaNamesMap = usedStaNamesMap;
+            this.targetManager = targetManager;
+            this.filterTargetUID = filterTargetUID;
+            this.filterNightId = filterNightId;
+            this.colorModel = colorModel;
+            this.columnVersion = columnVersion;
+        }
+
+        /**
+         * Cancel the extraction using this context
+         */
+        void cancel() {
+            this.cancelled = true;
+        }
+
+        /**
+         * Return true if the extraction using this context was cancelled
+         * or if the current thread was interrupted (sequential extraction in the worker thread)
+         * @return true if the extraction was cancelled
+         */
+        boolean isCancelled() {
+            if (!this.cancelled && Thread.currentThread().isInterrupted()) {
+                // stop pending and running tasks:
+                this.cancelled = true;
+            }
+            return this.cancelled;
+        }
+
+        /**
+         * Return true if the given context gives the same datasets as this context
+         * ie only axis presentation settings (range mode, range, include zero) differ
+         * and columns were not modified (expression columns)
+         * @param other other plot context
+         * @return true if the given context gives the same datasets
+         */
+        boolean isSameData(final PlotContext other) {
+            return (this.columnVersion == other.columnVersion)
+                    && (this.usedStaNamesMap == other.usedStaNamesMap)
+                    && this.oiDataList.equals(other.oiDataList)
+                    && isSameTableData(other);
+        }
+
+        /**
+         * Return true if the given context gives the same series for any OIData table as this context
+         * ie only the selected OIData tables (and axis presentation settings) differ
+         * @param other other plot context
+         * @return true if the given context gives the same series for any OIData table
+         */
+        boolean isSameTableData(final PlotContext other) {
+            return isSameTables(other, true);
+        }
+
+        /**
+         * Return true if the given context uses the same selection and columns for any OIData table as this context
+         * ie only the selected OIData tables, axis transforms (log scale, converter) and presentation settings differ
+         * @param other other plot context
+         * @return true if the given context uses the same selection and columns for any OIData table
+         */
+        boolean isSameTableColumns(final PlotContext other) {
+            return isSameTables(other, false);
+        }
+
+        /**
+         * Return true if the given context gives the same series (or the same selection and columns) for any OIData table
+         * @param other other plot context
+         * @param checkAxisData true to compare axis transforms (log scale, converter) too
+         * @return true if the given context gives the same series (or the same selection and columns) for any OIData table
+         */
+        private boolean isSameTables(final PlotContext other, final boolean checkAxisData) {
+            if (!ObjectUtils.areEquals(this.plotId, other.plotId)
+                    || (this.targetManager != other.targetManager)
+                    || (this.colorModel != other.colorModel)
+                    || !ObjectUtils.areEquals(this.filterTargetUID, other.filterTargetUID)
+                    || !ObjectUtils.areEquals(this.filterNightId, other.filterNightId)) {
+                return false;
+            }
+            // baseline orientations of previous tables must be preserved:
+            if (this.usedStaNamesMap != other.usedStaNamesMap) {
+                for (Map.Entry<String, StaNamesDir> e : this.usedStaNamesMap.entrySet()) {
+                    if (!ObjectUtils.areEquals(e.getValue(), other.usedStaNamesMap.get(e.getKey()))) {
+                        return false;
+                    }
+                }
+            }
+            final PlotDefinition def = this.plotDef;
+            final PlotDefinition otherDef = other.plotDef;
+
+            if ((def.isSkipFlaggedData() != otherDef.isSkipFlaggedData())
+                    || (def.isDrawLine() != otherDef.isDrawLine())
+                    || (def.getColorMapping() != otherDef.getColorMapping())
+                    || !isSameAxis(def.getXAxis(), otherDef.getXAxis(), checkAxisData)
+                    || (def.getYAxes().size() != otherDef.getYAxes().size())) {
+                return false;
+            }
+            for (int i = 0, len = def.getYAxes().size(); i < len; i++) {
+                if (!isSameAxis(def.getYAxes().get(i), otherDef.getYAxes().get(i), checkAxisData)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Return true if the given axes use the same column (and give the same data if checkAxisData is true)
+         * @param axis axis
+         * @param other other axis
+         * @param checkAxisData true to compare axis transforms (log scale, converter) too
+         * @return true if the given axes use the same column (and give the same data)
+         */
+        private static boolean isSameAxis(final Axis axis, final Axis other, final boolean checkAxisData) {
+            return (checkAxisData) ? isSameData(axis, other) : ObjectUtils.areEquals(axis.getName(), other.getName());
+        }
+
+        /**
+         * Return true if the given axes give the same data (column, log scale, converter)
+         * @param axis axis
+         * @param other other axis
+         * @return true if the given axes give the same data
+         */
+        private static boolean isSameData(final Axis axis, final Axis other) {
+            return ObjectUtils.areEquals(axis.getName(), other.getName())
+                    && (axis.isLogScale() == other.isLogScale())
+                    && ObjectUtils.areEquals(axis.getConverter(), other.getConverter());
+        }
+    }
+
+    /**
+     * Plot data computed for a single Y axis: dataset (with item flags), item paints (per serie) and plot information
+     */
+    private final static class PlotData {
+
+        /* members */
+        /** plot information */
+        final PlotInfo info;
+        /** dataset */
+        final FastIntervalXYDataset<OITableSerieKey, OITableSerieKey> dataset;
+        /** item paints per serie (color indexes and shared palette) */
+        final List<IndexedPaints> itemPaints = new ArrayList<IndexedPaints>();
+
+        /**
+         * Protected constructor
+         * @param info plot information to fill
+         */
+        PlotData(final PlotInfo info) {
+            this.info = info;
+            this.dataset = new FastIntervalXYDataset<OITableSerieKey, OITableSerieKey>();
+        }
+
+        /**
+         * Define the item paints for the given serie
+         * @param series the series index (zero-based)
+         * @param paints item paints
+         */
+        void setItemAttributes(final int series, final IndexedPaints paints) {
+            while (series >= this.itemPaints.size()) {
+                this.itemPaints.add(null);
+            }
+            this.itemPaints.set(series, paints);
+        }
+
+        /**
+         * Append the given (private) plot data: series, item attributes and plot information
+         * @param src plot data to append
+         */
+        void add(final PlotData src) {
+            if (src.info.hasPlotData) {
+                final int offset = this.dataset.getSeriesCount();
+
+                this.dataset.addSeries(src.dataset);
+
+                for (int n = 0, len = src.dataset.getSeriesCount(); n < len; n++) {
+                    setItemAttributes(offset + n, src.itemPaints.get(n));
+                }
+                this.info.combine(src.info);
+            }
+        }
+    }
+
+    /**
+     * Plot chart data computed in the background for all Y axes
+     */
+    private final static class PlotChartData {
+
+        /* members */
+        /** plot context used to compute data */
+        final PlotContext ctx;
+        /** distinct station indexes from OIFits subset (not filtered) */
+        final List<String> distinctStaIndexNames;
+        /** distinct station configurations from OIFits subset (not filtered) */
+        final List<String> distinctStaConfNames;
+        /** wavelength range */
+        final Range waveLengthRange;
+        /** plot data per Y axis (null if no data) */
+        final PlotData[] plotDataArray;
+        /** plot data per OIData table (same ordering as ctx.oiDataList) */
+        final List<TableData> tables;
+        /** cached chart subtitles (lazy) */
+        String[] subTitles = null;
+
+        /**
+         * Protected constructor
+         * @param ctx plot context
+         * @param distinctStaIndexNames distinct station indexes
+         * @param distinctStaConfNames distinct station configurations
+         * @param waveLengthRange wavelength range
+         * @param plotDataArray plot data per Y axis
+         * @param tables plot data per OIData table
+         */
+        PlotChartData(final PlotContext ctx,
+                      final List<String> distinctStaIndexNames, final List<String> distinctStaConfNames,
+                      final Range waveLengthRange, final PlotData[] plotDataArray,
+                      final List<TableData> tables) {
+            this.ctx = ctx;
+            this.distinctStaIndexNames = distinctStaIndexNames;
+            this.distinctStaConfNames = distinctStaConfNames;
+            this.waveLengthRange = waveLengthRange;
+            this.plotDataArray = plotDataArray;
+            this.tables = tables;
+        }
+
+        /**
+         * Protected constructor using the computed data of the given plot chart data
+         * @param ctx (new) plot context
+         * @param src plot chart data to reuse
+         */
+        PlotChartData(final PlotContext ctx, final PlotChartData src) {
+            this(ctx, src.distinctStaIndexNames, src.distinctStaConfNames, src.waveLengthRange, src.plotDataArray, src.tables);
+            // same subset version and target filter (same data):
+            this.subTitles = src.subTitles;
+        }
+
+        /**
+         * Return the chart subtitles (arrays, instruments, wavelength ranges, configurations, dates and target)
+         * computed once and shared by copies of this computed data (same subset and plot definition versions)
+         * This code is executed by the Swing Event Dispatcher thread (EDT)
+         * @return chart subtitles
+         */
+        String[] getSubTitles() {
+            if (this.subTitles == null) {
+                final long start = System.nanoTime();
+
+                // same plot informations as shown plots:
+                final List<PlotInfo> plotInfos = new ArrayList<PlotInfo>(this.plotDataArray.length);
+                for (PlotData plotData : this.plotDataArray) {
+                    if (plotData != null && plotData.info.hasPlotData) {
+                        plotInfos.add(plotData.info);
+                    }
+                }
 
                 final Set<String> distinct = new LinkedHashSet<String>();
 
@@ -1323,7 +1792,7 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
 
                 // Add distinct arrNames:
                 distinct.clear();
-                for (PlotInfo info : getPlotInfos()) {
+                for (PlotInfo info : plotInfos) {
                     OIDataListHelper.getDistinct(info.oidataList, distinct, OIDataListHelper.GET_ARR_NAME);
                 }
                 if (!distinct.isEmpty()) {
@@ -1334,7 +1803,7 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
 
                 // Add unique insNames:
                 distinct.clear();
-                for (PlotInfo info : getPlotInfos()) {
+                for (PlotInfo info : plotInfos) {
                     OIDataListHelper.getDistinct(info.oidataList, distinct, OIDataListHelper.GET_INS_NAME);
                 }
                 if (!distinct.isEmpty()) {
@@ -1345,7 +1814,7 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
 
                 // Add wavelength ranges:
                 distinct.clear();
-                for (PlotInfo info : getPlotInfos()) {
+                for (PlotInfo info : plotInfos) {
                     OIDataListHelper.getDistinctWaveLengthRange(info.oidataList, distinct);
                 }
                 if (!distinct.isEmpty()) {
@@ -1356,14 +1825,14 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
 
                 // Add unique configurations (FILTERED):
                 distinct.clear();
-                for (PlotInfo info : getPlotInfos()) {
+                for (PlotInfo info : plotInfos) {
                     distinct.addAll(info.usedStaConfNames);
                 }
                 if (!distinct.isEmpty()) {
                     OIDataListHelper.toString(distinct, sb, " ", " / ", 3, "MULTI CONFIGURATION");
                 }
 
-                ChartUtils.addSubtitle(this.chart, sb.toString());
+                final String subTitle = sb.toString();
 
                 // date - Source:
                 sb.setLength(0);
@@ -1371,16 +1840,392 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
 
                 // Add unique dateObs:
                 distinct.clear();
-                for (PlotInfo info : getPlotInfos()) {
+                for (PlotInfo info : plotInfos) {
                     OIDataListHelper.getDistinct(info.oidataList, distinct, OIDataListHelper.GET_DATE_OBS);
                 }
                 if (!distinct.isEmpty()) {
                     OIDataListHelper.toString(distinct, sb, " ", " / ", 3, "MULTI DATE");
                 }
 
-                sb.append(" - Source: ").append(getFilterTargetUID());
+                sb.append(" - Source: ").append(this.ctx.filterTargetUID);
+
+                this.subTitles = new String[]{subTitle, sb.toString()};
+
+                if (logger.isDebugEnabled()) {
+                    logger.debug("getSubTitles: duration = {} ms.", 1e-6d * (System.nanoTime() - start));
+                }
+            }
+            return this.subTitles;
+        }
+
+        /**
+         * Build the spatial indexes (used by mouse hover) and the reverse point indexes (used by crosshair)
+         * of the datasets per Y axis
+         * This code is executed by a Worker thread (Not Swing EDT)
+         */
+        void buildSpatialIndexes() {
+            final long start = System.nanoTime();
+
+            for (PlotData plotData : this.plotDataArray) {
+                if (plotData != null && plotData.info.hasPlotData) {
+                    plotData.dataset.getSpatialIndex();
+                    plotData.dataset.getPointIndex();
+                }
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("buildSpatialIndexes: duration = {} ms.", 1e-6d * (System.nanoTime() - start));
+            }
+        }
+
+        /**
+         * Return the estimated memory footprint of the computed datasets (bytes):
+         * columnar data of every table (shared by the combined datasets) including values stored outside of the heap
+         * (direct or memory-mapped buffers), color indexes and raw column values kept by every table
+         * @return estimated memory footprint in bytes
+         */
+        long getWeight() {
+            long weight = 0l;
+            for (TableData tableData : this.tables) {
+                for (PlotData plotData : tableData.results) {
+                    weight += plotData.dataset.getDataFootprint();
+                }
+                weight += tableData.getColumnWeight();
+            }
+            for (PlotData plotData : this.plotDataArray) {
+                if (plotData != null) {
+                    // symmetric points are virtual:
+                    weight += BYTES_PER_DATA_POINT
+                            * ((plotData.dataset.isSymmetric()) ? plotData.info.nDataPoints / 2 : plotData.info.nDataPoints);
+                }
+            }
+            return weight;
+        }
+    }
+
+    /**
+     * Plot chart data cache key: panel, subset and plot definition identifiers and versions,
+     * selected OIData tables (compared by identity as tables are replaced when files are reloaded),
+     * column data version (expression columns) and dataset storage
+     */
+    private final static class PlotDataKey {
+
+        /* members */
+        /** panel identifier (owner) */
+        private final int panelId;
+        /** subset definition identifier */
+        private final String subsetId;
+        /** subset definition version */
+        private final int subsetVersion;
+        /** plot definition identifier */
+        private final String plotDefId;
+        /** plot definition version */
+        private final int plotDefVersion;
+        /** selected OIData tables (copy) */
+        private final List<OIData> oiDataList;
+        /** column data version (expression columns) */
+        private final int columnVersion;
+        /** dataset storage */
+        final ColumnarSeriesData.Storage storage;
+        /** true if dataset values are stored as floats */
+        final boolean floatStorage;
+        /** cached hash code */
+        private final int hash;
+
+        /**
+         * Protected constructor
+         * @param panelId panel identifier (owner)
+         * @param subsetDef subset definition
+         * @param plotDef plot definition
+         * @param oiDataList selected OIData tables (copy)
+         * @param columnVersion column data version (expression columns)
+         * @param storage dataset storage
+         * @param floatStorage true if dataset values are stored as floats
+         */
+        PlotDataKey(final int panelId, final SubsetDefinition subsetDef, final PlotDefinition plotDef,
+                    final List<OIData> oiDataList, final int columnVersion,
+                    final ColumnarSeriesData.Storage storage, final boolean floatStorage) {
+            this.panelId = panelId;
+            this.subsetId = subsetDef.getId();
+            this.subsetVersion = subsetDef.getVersion();
+            this.plotDefId = plotDef.getId();
+            this.plotDefVersion = plotDef.getVersion();
+            this.oiDataList = oiDataList;
+            this.columnVersion = columnVersion;
+            this.storage = storage;
+            this.floatStorage = floatStorage;
+
+            int h = panelId;
+            h = 31 * h + this.columnVersion;
+            h = 31 * h + ((this.subsetId != null) ? this.subsetId.hashCode() : 0);
+            h = 31 * h + this.subsetVersion;
+            h = 31 * h + ((this.plotDefId != null) ? this.plotDefId.hashCode() : 0);
+            h = 31 * h + this.plotDefVersion;
+            for (int i = 0, len = oiDataList.size(); i < len; i++) {
+                h = 31 * h + System.identityHashCode(oiDataList.get(i));
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final PlotDataKey other = (PlotDataKey) obj;
+            if (this.hash != other.hash || this.panelId != other.panelId || this.columnVersion != other.columnVersion
+                    || this.subsetVersion != other.subsetVersion || this.plotDefVersion != other.plotDefVersion
+                    || this.storage != other.storage || this.floatStorage != other.floatStorage
+                    || !ObjectUtils.areEquals(this.subsetId, other.subsetId) || !ObjectUtils.areEquals(this.plotDefId, other.plotDefId)) {
+                return false;
+            }
+            final int len = this.oiDataList.size();
+            if (len != other.oiDataList.size()) {
+                return false;
+            }
+            for (int i = 0; i < len; i++) {
+                if (this.oiDataList.get(i) != other.oiDataList.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "PlotDataKey{panel=" + this.panelId + ", columns@" + this.columnVersion + ", subset=" + this.subsetId + '@' + this.subsetVersion
+                    + ", plotDef=" + this.plotDefId + '@' + this.plotDefVersion
+                    + ", tables=" + this.oiDataList.size() + ", storage=" + this.storage
+                    + ((this.floatStorage) ? " (float)" : "") + '}';
+        }
+    }
+
+    /**
+     * Plot data extracted from a single OIData table for all Y axes.
+     * It is reused while the table remains in the subset (append-only updates).
+     * The selection (rows, flags, orientations and raw x values) and raw y column values are kept
+     * so that axis transform changes (log scale, converter) only convert them again (no selection nor column read).
+     */
+    private final static class TableData {
+
+        /* members */
+        /** OIData table */
+        final OIData oiData;
+        /** table index to ensure serie uniqueness among collection */
+        final int tableIndex;
+        /** private plot data per Y axis */
+        final PlotData[] results;
+        /** raw y column values per Y axis (null if not extracted or unsupported) */
+        final ColumnData[] yColumns;
+        /** shared selection (null if not extracted or unsupported x axis) */
+        OIDataSelection selection = null;
+
+        /**
+         * Protected constructor
+         * @param oiData OIData table
+         * @param tableIndex table index to ensure serie uniqueness among collection
+         * @param nYaxes number of Y axes
+         * @param distinctStaIndexNames distinct station indexes (not filtered)
+         * @param distinctStaConfNames distinct station configurations (not filtered)
+         * @param waveLengthRange wavelength range (not filtered)
+         */
+        TableData(final OIData oiData, final int tableIndex, final int nYaxes,
+                  final List<String> distinctStaIndexNames, final List<String> distinctStaConfNames,
+                  final Range waveLengthRange) {
+            this.oiData = oiData;
+            this.tableIndex = tableIndex;
+
+            this.results = new PlotData[nYaxes];
+            for (int i = 0; i < nYaxes; i++) {
+                this.results[i] = new PlotData(createPlotInfo(distinctStaIndexNames, distinctStaConfNames, waveLengthRange));
+            }
+            this.yColumns = new ColumnData[nYaxes];
+        }
+
+        /**
+         * Return the estimated memory footprint of the kept raw column values (bytes)
+         * Note: raw values are shared with the column cache and other table data of the same table
+         * @return estimated memory footprint in bytes
+         */
+        long getColumnWeight() {
+            long weight = (this.selection != null) ? this.selection.getWeight() : 0l;
+            for (ColumnData column : this.yColumns) {
+                if (column != null) {
+                    weight += column.getWeight();
+                }
+            }
+            return weight;
+        }
+    }
+
+    /**
+     * Raw column values (1D or 2D values and errors) of a single OIData table and column (shared with the column cache)
+     */
+    private final static class ColumnData {
+
+        /* members */
+        /** column name */
+        final String name;
+        /** column meta data (identity) */
+        final ColumnMeta meta;
+        /** raw values (1D) or null */
+        final double[] data1D;
+        /** raw errors (1D) or null */
+        final double[] data1DErr;
+        /** raw values (2D) or null */
+        final double[][] data2D;
+        /** raw errors (2D) or null */
+        final double[][] data2DErr;
+
+        /**
+         * Return the raw column values of the given OIData table and column
+         * @param oiData OIData table
+         * @param name column name
+         * @return raw column values or null if the column is not supported by the given table
+         */
+        static ColumnData get(final OIData oiData, final String name) {
+            final ColumnMeta meta = oiData.getColumnMeta(name);
+
+            if (meta == null) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("unsupported column : {} on {}", name, oiData);
+                }
+                return null;
+            }
+
+            final int nRows = oiData.getNbRows();
 
-                ChartUtils.addSubtitle(this.chart, sb.toString());
+            if (meta.isArray()) {
+                final double[][] data2D = OIDataColumnCache.getColumnAsDoubles(oiData, name);
+                if (data2D == null || data2D.length < nRows || data2D[0].length < oiData.getNWave()) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("unsupported column : {} on {}", name, oiData);
+                    }
+                    return null;
+                }
+                return new ColumnData(name, meta, null, null, data2D,
+                        OIDataColumnCache.getColumnAsDoubles(oiData, meta.getErrorColumnName()));
+            }
+            final double[] data1D = OIDataColumnCache.getColumnAsDouble(oiData, name);
+            if (data1D == null || data1D.length < nRows) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("unsupported column : {} on {}", name, oiData);
+                }
+                return null;
+            }
+            return new ColumnData(name, meta, data1D,
+                    OIDataColumnCache.getColumnAsDouble(oiData, meta.getErrorColumnName()), null, null);
+        }
+
+        /**
+         * Private constructor
+         * @param name column name
+         * @param meta column meta data
+         * @param data1D raw values (1D) or null
+         * @param data1DErr raw errors (1D) or null
+         * @param data2D raw values (2D) or null
+         * @param data2DErr raw errors (2D) or null
+         */
+        private ColumnData(final String name, final ColumnMeta meta,
+                           final double[] data1D, final double[] data1DErr,
+                           final double[][] data2D, final double[][] data2DErr) {
+            this.name = name;
+            this.meta = meta;
+            this.data1D = data1D;
+            this.data1DErr = data1DErr;
+            this.data2D = data2D;
+            this.data2DErr = data2DErr;
+        }
+
+        /**
+         * Return true if these values are still valid for the given OIData table and column
+         * ie same column name and descriptor (expression columns may be modified)
+         * @param oiData OIData table
+         * @param name column name
+         * @return true if these values are still valid
+         */
+        boolean isValid(final OIData oiData, final String name) {
+            return this.name.equals(name) && (oiData.getColumnMeta(name) == this.meta);
+        }
+
+        /**
+         * Return the column kernel for the given axis transform
+         * @param useLog true to keep only strictly positive values (log axis)
+         * @param converter optional scaling converter
+         * @return column kernel
+         */
+        ColumnKernel createKernel(final boolean useLog, final Converter converter) {
+            return ColumnKernel.create(this.data1D, this.data2D, this.data1DErr, this.data2DErr, useLog, converter);
+        }
+
+        /**
+         * Return the estimated memory footprint of these values (bytes)
+         * @return estimated memory footprint in bytes
+         */
+        long getWeight() {
+            long weight = 0l;
+            if (this.data2D != null) {
+                weight += OIDataColumnCache.getWeight(this.data2D);
+            }
+            if (this.data2DErr != null) {
+                weight += OIDataColumnCache.getWeight(this.data2DErr);
+            }
+            if (this.data1D != null) {
+                weight += OIDataColumnCache.getWeight(this.data1D);
+            }
+            if (this.data1DErr != null) {
+                weight += OIDataColumnCache.getWeight(this.data1DErr);
+            }
+            return weight;
+        }
+    }
+
+    /**
+     * Refresh the plot using the given chart data.
+     * This code is executed by the Swing Event Dispatcher thread (EDT)
+     * @param chartData computed plot data
+     */
+    private void updatePlot(final PlotChartData chartData) {
+        // keep computed data for presentation-only changes:
+        this.lastChartData = chartData;
+
+        final long start = System.nanoTime();
+
+        // clear plot informations
+        getPlotInfos().clear();
+
+        // disable chart & plot notifications:
+        this.chart.setNotify(false);
+        for (int i = 0, len = this.xyPlotList.size(); i < len; i++) {
+            final XYPlot xyPlot = this.xyPlotList.get(i);
+            xyPlot.setNotify(false);
+        }
+
+        try {
+            // title :
+            ChartUtils.clearTextSubTitle(this.chart);
+
+            removeAllSubPlots();
+
+            // computed data are valid :
+            updateChart(chartData);
+
+            final boolean hasData = isHasData();
+
+            if (hasData) {
+                refreshCrosshairs(ocm.getSelection());
+
+                // subtitles computed once per subset (and plot definition) version:
+                for (String subTitle : chartData.getSubTitles()) {
+                    ChartUtils.addSubtitle(this.chart, subTitle);
+                }
 
                 org.jfree.chart.ChartUtils.applyCurrentTheme(this.chart);
             }
@@ -1436,33 +2281,24 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
     }
 
     /**
-     * Update the datasets
+     * Compute the plot datasets for all Y axes using the given plot context
+     * This code is executed by a Worker thread (Not Swing EDT)
+     * @param ctx plot context
+     * @param previous previous plot chart data (tables to reuse) or null
+     * @return computed plot data or null if the current thread was interrupted
      */
-    private void updateChart() {
-        logger.debug("updateChart: plot {}", this.plotId);
+    private static PlotChartData computePlotData(final PlotContext ctx, final PlotChartData previous) {
+        logger.debug("computePlotData: plot {}", ctx.plotId);
 
         // selected OIData tables matching filters
         // TODO: preserve selection results in SelectorResult (data structures) ...
-        final List<OIData> oiDataList = getOiFitsSubset().getOiDataList();
-        final Map<String, StaNamesDir> usedStaNamesMap = getOiFitsSubset().getUsedStaNamesMap();
+        final List<OIData> oiDataList = ctx.oiDataList;
 
-        final PlotDefinition plotDef = getPlotDefinition();
+        final PlotDefinition plotDef = ctx.plotDef;
         final Axis xAxis = plotDef.getXAxis();
 
-        // Get Global SharedSeriesAttributes:
-        final SharedSeriesAttributes oixpAttrs = SharedSeriesAttributes.INSTANCE_OIXP;
-
-        if (true) {
-            // TODO: handle reset (depending on the previous view usages)
-            // use case: consistent colors accross views (muti-view with UV plane + V2/T3PHI 
-            // => same baseline should have matching colors)
-            oixpAttrs.reset();
-        }
-
-        logger.debug("updateChart: plot {} oixpAttrs: {} IN", this.plotId, oixpAttrs);
-
         // Get distinct station indexes from OIFits subset (not filtered):
-        final List<String> distinctStaIndexNames = OIDataListHelper.getDistinctStaNames(oiDataList, usedStaNamesMap);
+        final List<String> distinctStaIndexNames = OIDataListHelper.getDistinctStaNames(oiDataList, ctx.usedStaNamesMap);
 
         // Get distinct station configuration from OIFits subset (not filtered):
         final List<String> distinctStaConfNames = OIDataListHelper.getDistinctStaConfs(oiDataList);
@@ -1473,12 +2309,342 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         logger.debug("distinctStaConfNames: {}", distinctStaConfNames);
         logger.debug("waveLengthRange: {}", waveLengthRange);
 
-        Range viewBounds, viewRange;
+        final int nYaxes = plotDef.getYAxes().size();
+        final PlotData[] plotDataArray = new PlotData[nYaxes];
 
-        // Global converter (symmetry)
-        Converter xConverter = null, yConverter = null;
+        final int nTables = oiDataList.size();
+        final List<TableData> tables = new ArrayList<TableData>(nTables);
 
-        final int nYaxes = plotDef.getYAxes().size();
+        if (nTables != 0) {
+            final boolean drawLines = plotDef.isDrawLine();
+
+            // Use symmetry for coordinates:
+            final boolean useSymmetryX = useSymmetry(xAxis);
+
+            // previous tables still in the subset are reused (append-only update):
+            final Map<OIData, TableData> reusableTables = getReusableTables(ctx, previous, waveLengthRange);
+
+            // axis transforms (log scale, converter) changed: previous tables are converted again (same selection and columns):
+            final boolean convertTables = !reusableTables.isEmpty() && !previous.ctx.isSameTableData(ctx);
+
+            int nextTableIndex = 0;
+            for (TableData table : reusableTables.values()) {
+                nextTableIndex = Math.max(nextTableIndex, table.tableIndex + 1);
+            }
+
+            // 1 task per new (or converted) OIData table (all Y axes) using private plot data:
+            // note: OIData column caches are not thread-safe so a table is only processed by a single thread
+            final List<ExtractTableTask> taskList = new ArrayList<ExtractTableTask>(nTables);
+
+            for (int t = 0; t < nTables; t++) {
+                final OIData oiData = oiDataList.get(t);
+
+                TableData table = reusableTables.get(oiData);
+                if (table == null) {
+                    table = new TableData(oiData, nextTableIndex++, nYaxes,
+                            distinctStaIndexNames, distinctStaConfNames, waveLengthRange);
+
+                    taskList.add(new ExtractTableTask(ctx, table, drawLines, null, null));
+                } else if (convertTables) {
+                    final TableData prevTable = table;
+                    // same table index (serie keys):
+                    table = new TableData(oiData, prevTable.tableIndex, nYaxes,
+                            distinctStaIndexNames, distinctStaConfNames, waveLengthRange);
+
+                    taskList.add(new ExtractTableTask(ctx, table, drawLines, previous.ctx, prevTable));
+                }
+                tables.add(table);
+            }
+
+            final ExtractTableTask[] tasks = taskList.toArray(new ExtractTableTask[taskList.size()]);
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("computePlotData: {} tables to extract ({}), {} tables reused", tasks.length,
+                        (convertTables) ? "converted" : "new", nTables - tasks.length);
+            }
+
+            if (USE_PARALLEL_EXTRACTION && (tasks.length > 1)) {
+                final ForkJoinTask<?> root = extractPool.submit(new RecursiveAction() {
+                    /** default serial UID for Serializable interface */
+                    private static final long serialVersionUID = 1;
+
+                    @Override
+                    protected void compute() {
+                        invokeAll(tasks);
+                    }
+                });
+                try {
+                    // interruptible wait:
+                    root.get();
+                } catch (InterruptedException ie) {
+                    logger.debug("computePlotData: interrupted");
+                    // stop pending and running tasks:
+                    ctx.cancel();
+                    // wait for running tasks as a table must not be processed by concurrent computations:
+                    root.quietlyJoin();
+                    // restore interrupted flag:
+                    Thread.currentThread().interrupt();
+                    return null;
+                } catch (ExecutionException ee) {
+                    if (ee.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) ee.getCause();
+                    }
+                    throw new IllegalStateException("computePlotData: failure", ee.getCause());
+                }
+            } else {
+                for (ExtractTableTask task : tasks) {
+                    // fast interrupt (also polled in the baseline loop by ctx.isCancelled()):
+                    if (Thread.currentThread().isInterrupted()) {
+                        ctx.cancel();
+                    }
+                    if (ctx.isCancelled()) {
+                        return null;
+                    }
+                    task.extract();
+                }
+                if (ctx.isCancelled()) {
+                    // partially extracted table:
+                    return null;
+                }
+            }
+
+            // Merge private plot data in a fixed order (deterministic output):
+            for (int i = 0; i < nYaxes; i++) {
+                final PlotData plotData = new PlotData(createPlotInfo(distinctStaIndexNames, distinctStaConfNames, waveLengthRange));
+
+                for (int t = 0; t < nTables; t++) {
+                    plotData.add(tables.get(t).results[i]);
+                }
+
+                final PlotInfo info = plotData.info;
+
+                if (info.hasPlotData) {
+                    // spatial index grid along log axes:
+                    plotData.dataset.setLogScale(xAxis.isLogScale(), plotDef.getYAxes().get(i).isLogScale());
+
+                    // Use symmetry for coordinates:
+                    if (useSymmetryX && useSymmetry(plotDef.getYAxes().get(i))) {
+                        // virtual symmetric points (-u, -v) computed from the same data arrays:
+                        plotData.dataset.setSymmetric(true);
+
+                        info.nDataPoints *= 2;
+                        info.xAxisInfo.mirrorRanges();
+                        info.yAxisInfo.mirrorRanges();
+                    }
+
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("xyPlotPlot[{}]: nData = {}", i, info.nDataPoints);
+                        logger.debug("xyPlotPlot[{}]: nbSeries = {}", i, plotData.dataset.getSeriesCount());
+                    }
+                    plotDataArray[i] = plotData;
+                }
+            } // loop on y axes
+        }
+
+        // fast interrupt :
+        if (Thread.currentThread().isInterrupted()) {
+            return null;
+        }
+
+        return new PlotChartData(ctx, distinctStaIndexNames, distinctStaConfNames, waveLengthRange, plotDataArray, tables);
+    }
+
+    /**
+     * Return the table data of the previous plot chart data that can be reused by the given plot context
+     * ie tables still present in the subset and extracted using the same settings
+     * (except axis transforms: log scale and converter, see PlotContext.isSameTableColumns)
+     * and the same column data version (expression columns)
+     * @param ctx plot context
+     * @param previous previous plot chart data or null
+     * @param waveLengthRange wavelength range (not filtered)
+     * @return reusable table data keyed by OIData table (may be empty)
+     */
+    private static Map<OIData, TableData> getReusableTables(final PlotContext ctx, final PlotChartData previous,
+                                                            final Range waveLengthRange) {
+        if ((previous == null) || previous.tables.isEmpty() || !previous.ctx.isSameTableColumns(ctx)) {
+            return Collections.emptyMap();
+        }
+        // expression columns modified in place (same tables, column names and possibly descriptors):
+        if (previous.ctx.columnVersion != ctx.columnVersion) {
+            return Collections.emptyMap();
+        }
+        // wavelength colors depend on the wavelength range of the whole subset:
+        if ((ctx.plotDef.getColorMapping() == WAVELENGTH_RANGE) && !ObjectUtils.areEquals(waveLengthRange, previous.waveLengthRange)) {
+            return Collections.emptyMap();
+        }
+
+        final Map<OIData, TableData> reusableTables = new IdentityHashMap<OIData, TableData>(previous.tables.size());
+        for (TableData table : previous.tables) {
+            reusableTables.put(table.oiData, table);
+        }
+        // removed tables are simply not merged:
+        return reusableTables;
+    }
+
+    /**
+     * Create a new plot information
+     * @param distinctStaIndexNames distinct station indexes (not filtered)
+     * @param distinctStaConfNames distinct station configurations (not filtered)
+     * @param waveLengthRange wavelength range (not filtered)
+     * @return new plot information
+     */
+    private static PlotInfo createPlotInfo(final List<String> distinctStaIndexNames,
+                                           final List<String> distinctStaConfNames,
+                                           final Range waveLengthRange) {
+        final PlotInfo info = new PlotInfo();
+        info.distinctStaIndexNames = distinctStaIndexNames;
+        info.distinctStaConfNames = distinctStaConfNames;
+        info.waveLengthRange = waveLengthRange;
+        return info;
+    }
+
+    /**
+     * Fork/Join task extracting a single OIData table for all Y axes into private plot data
+     */
+    private final static class ExtractTableTask extends RecursiveAction {
+
+        /** default serial UID for Serializable interface */
+        private static final long serialVersionUID = 1;
+        /* members */
+        /** plot context */
+        private final transient PlotContext ctx;
+        /** table data to fill */
+        private final transient TableData table;
+        /** flag indicating to build series for line representation */
+        private final boolean drawLines;
+        /** previous plot context (other axis transforms) or null */
+        private final transient PlotContext prevCtx;
+        /** previous table data (same selection and columns) to convert again or null */
+        private final transient TableData prevTable;
+
+        /**
+         * Protected constructor
+         * @param ctx plot context
+         * @param table table data to fill
+         * @param drawLines flag indicating to build series for line representation
+         * @param prevCtx previous plot context (other axis transforms) or null
+         * @param prevTable previous table data (same selection and columns) to convert again or null
+         */
+        ExtractTableTask(final PlotContext ctx, final TableData table, final boolean drawLines,
+                         final PlotContext prevCtx, final TableData prevTable) {
+            this.ctx = ctx;
+            this.table = table;
+            this.drawLines = drawLines;
+            this.prevCtx = prevCtx;
+            this.prevTable = prevTable;
+        }
+
+        @Override
+        protected void compute() {
+            extract();
+        }
+
+        /**
+         * Extract the OIData table for all Y axes
+         */
+        void extract() {
+            final PlotContext plotCtx = this.ctx;
+            final TableData tableData = this.table;
+
+            if (plotCtx.isCancelled()) {
+                return;
+            }
+
+            final OIData oiData = tableData.oiData;
+            final Axis xAxis = plotCtx.plotDef.getXAxis();
+            final TableData previous = this.prevTable;
+
+            OIDataSelection selection = null;
+
+            if ((previous != null) && (previous.selection != null)
+                    && (oiData.getColumnMeta(xAxis.getName()) == previous.selection.xMeta)) {
+                // same selection and x column: only x values are converted again if the x transform changed:
+                selection = previous.selection.withXAxis(xAxis);
+            }
+            if (selection == null) {
+                // shared selection (computed once for all Y axes):
+                selection = OIDataSelection.create(oiData, xAxis,
+                        plotCtx.usedStaNamesMap, plotCtx.targetManager, plotCtx.filterTargetUID, plotCtx.filterNightId);
+
+                if (selection == null) {
+                    // unsupported x axis or bad dimensions:
+                    return;
+                }
+            }
+            tableData.selection = selection;
+
+            // same x values: series of unchanged Y axes are reused:
+            final boolean sameX = (previous != null) && (selection == previous.selection);
+
+            final List<Axis> yAxes = plotCtx.plotDef.getYAxes();
+
+            for (int i = 0, nYaxes = tableData.results.length; i < nYaxes; i++) {
+                if (plotCtx.isCancelled()) {
+                    return;
+                }
+                final Axis yAxis = yAxes.get(i);
+
+                ColumnData column = null;
+
+                if (previous != null) {
+                    column = previous.yColumns[i];
+
+                    if ((column != null) && !column.isValid(oiData, yAxis.getName())) {
+                        // column modified:
+                        column = null;
+                    } else if (sameX && PlotContext.isSameData(this.prevCtx.plotDef.getYAxes().get(i), yAxis)) {
+                        // same series (unsupported y axis or same y transform):
+                        tableData.yColumns[i] = column;
+                        tableData.results[i] = previous.results[i];
+                        continue;
+                    }
+                }
+                if (column == null) {
+                    column = ColumnData.get(oiData, yAxis.getName());
+
+                    if (column == null) {
+                        // unsupported y axis:
+                        continue;
+                    }
+                }
+                tableData.yColumns[i] = column;
+
+                // only the y transform and bounds pass are computed for reused columns:
+                updatePlot(plotCtx, tableData.results[i], oiData, selection, column, tableData.tableIndex, i, this.drawLines);
+            }
+        }
+    }
+
+    /**
+     * Update the chart (plots, axes, renderers and legend) using the given computed datasets
+     * This code is executed by the Swing Event Dispatcher thread (EDT)
+     * @param chartData computed plot data
+     */
+    private void updateChart(final PlotChartData chartData) {
+        logger.debug("updateChart: plot {}", this.plotId);
+
+        final PlotContext ctx = chartData.ctx;
+        final Map<String, StaNamesDir> usedStaNamesMap = ctx.usedStaNamesMap;
+
+        final PlotDefinition plotDef = ctx.plotDef;
+        final Axis xAxis = plotDef.getXAxis();
+
+        final ColorMapping colorMapping = (plotDef.getColorMapping() != null) ? plotDef.getColorMapping() : ColorMapping.WAVELENGTH_RANGE;
+
+        // Get Global SharedSeriesAttributes:
+        final SharedSeriesAttributes oixpAttrs = SharedSeriesAttributes.INSTANCE_OIXP;
+
+        oixpAttrs.reset();
+
+        logger.debug("updateChart: plot {} oixpAttrs: {} IN", this.plotId, oixpAttrs);
+
+        final List<String> distinctStaIndexNames = chartData.distinctStaIndexNames;
+        final List<String> distinctStaConfNames = chartData.distinctStaConfNames;
+        final Range waveLengthRange = chartData.waveLengthRange;
+
+        Range viewBounds, viewRange;
+
+        final int nYaxes = chartData.plotDataArray.length;
 
         // ensure enough plots:
         while (nYaxes > this.xyPlotList.size()) {
@@ -1500,132 +2666,128 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         for (int i = 0; i < nYaxes; i++) {
             final Axis yAxis = plotDef.getYAxes().get(i);
             final XYPlot xyPlot = this.xyPlotList.get(i);
+            final PlotData plotData = chartData.plotDataArray[i];
 
             boolean showPlot = false;
-            final PlotInfo info;
+            final PlotInfo info = (plotData != null) ? plotData.info : null;
 
-            if (oiDataList.isEmpty()) {
-                info = null;
-            } else {
-                final FastIntervalXYDataset<OITableSerieKey, OITableSerieKey> dataset = new FastIntervalXYDataset<OITableSerieKey, OITableSerieKey>();
+            if (info != null && info.hasPlotData) {
+                final FastIntervalXYDataset<OITableSerieKey, OITableSerieKey> dataset = plotData.dataset;
 
-                info = new PlotInfo();
-                info.distinctStaIndexNames = distinctStaIndexNames;
-                info.distinctStaConfNames = distinctStaConfNames;
-                info.waveLengthRange = waveLengthRange;
+                showPlot = true;
 
-                int tableIndex = 0;
+                boolean yUseLog = false;
+                ColumnMeta yMeta = null;
+                String yUnit = null;
 
-                // Use symmetry for coordinates:
-                final boolean useSymmetryX = useSymmetry(xAxis);
-                final boolean useSymmetryY = useSymmetry(yAxis);
-
-                if (useSymmetryX && useSymmetryY) {
-                    xConverter = (useSymmetryX) ? ConverterFactory.CONVERTER_REFLECT : null;
-                    yConverter = (useSymmetryY) ? ConverterFactory.CONVERTER_REFLECT : null;
-
-                    for (OIData oiData : oiDataList) {
-                        // process data and add data series into given dataset:
-                        updatePlot(xyPlot, info, oiData, tableIndex, usedStaNamesMap, plotDef, i, dataset, xConverter, yConverter, drawLines);
-
-                        tableIndex++;
-                    }
-                    xConverter = yConverter = null;
+                // update Y axis information:
+                if (info.yAxisInfo.columnMeta != null) {
+                    yUseLog = info.yAxisInfo.useLog;
+                    yMeta = info.yAxisInfo.columnMeta;
+                    yUnit = info.yAxisInfo.unit;
                 }
 
-                for (OIData oiData : oiDataList) {
-                    // process data and add data series into given dataset:
-                    updatePlot(xyPlot, info, oiData, tableIndex, usedStaNamesMap, plotDef, i, dataset, xConverter, yConverter, drawLines);
+                // adjust bounds & view range:
+                adjustAxisRanges(yAxis, info.yAxisInfo);
 
-                    tableIndex++;
-                }
+                viewBounds = info.yAxisInfo.viewBounds;
+                viewRange = info.yAxisInfo.viewRange;
 
-                if (info.hasPlotData) {
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("xyPlotPlot[{}]: nData = {}", i, info.nDataPoints);
-                        logger.debug("xyPlotPlot[{}]: nbSeries = {}", i, dataset.getSeriesCount());
+                // Update Y axis:
+                if (yUseLog) {
+                    if (!(xyPlot.getRangeAxis() instanceof BoundedLogAxis)) {
+                        xyPlot.setRangeAxis(new BoundedLogAxis(""));
                     }
-
-                    showPlot = true;
-
-                    boolean yUseLog = false;
-                    ColumnMeta yMeta = null;
-                    String yUnit = null;
-
-                    // update Y axis information:
-                    if (info.yAxisInfo.columnMeta != null) {
-                        yUseLog = info.yAxisInfo.useLog;
-                        yMeta = info.yAxisInfo.columnMeta;
-                        yUnit = info.yAxisInfo.unit;
+                    final BoundedLogAxis axis = (BoundedLogAxis) xyPlot.getRangeAxis();
+                    axis.setBounds(viewBounds);
+                    axis.setInitial(viewRange);
+                    axis.setRange(viewRange);
+                } else {
+                    if (!(xyPlot.getRangeAxis() instanceof BoundedNumberAxis)) {
+                        xyPlot.setRangeAxis(ChartUtils.createAxis(""));
                     }
+                    final BoundedNumberAxis axis = (BoundedNumberAxis) xyPlot.getRangeAxis();
+                    axis.setBounds(viewBounds);
+                    axis.setInitial(viewRange);
+                    axis.setRange(viewRange);
+                }
 
-                    // adjust bounds & view range:
-                    adjustAxisRanges(yAxis, info.yAxisInfo);
-
-                    viewBounds = info.yAxisInfo.viewBounds;
-                    viewRange = info.yAxisInfo.viewRange;
-
-                    // Update Y axis:
-                    if (yUseLog) {
-                        if (!(xyPlot.getRangeAxis() instanceof BoundedLogAxis)) {
-                            xyPlot.setRangeAxis(new BoundedLogAxis(""));
-                        }
-                        final BoundedLogAxis axis = (BoundedLogAxis) xyPlot.getRangeAxis();
-                        axis.setBounds(viewBounds);
-                        axis.setInitial(viewRange);
-                        axis.setRange(viewRange);
-                    } else {
-                        if (!(xyPlot.getRangeAxis() instanceof BoundedNumberAxis)) {
-                            xyPlot.setRangeAxis(ChartUtils.createAxis(""));
-                        }
-                        final BoundedNumberAxis axis = (BoundedNumberAxis) xyPlot.getRangeAxis();
-                        axis.setBounds(viewBounds);
-                        axis.setInitial(viewRange);
-                        axis.setRange(viewRange);
+                // update Y axis Label:
+                String label = (yUseLog) ? "log " : "";
+                if (yMeta != null) {
+                    label += yMeta.getName();
+                    if (yUnit != null) {
+                        label += " (" + yUnit + ")";
+                    } else if (yMeta.getUnits() != Units.NO_UNIT) {
+                        label += " (" + yMeta.getUnits().getStandardRepresentation() + ")";
                     }
+                    xyPlot.getRangeAxis().setLabel(label);
+                }
 
-                    // update Y axis Label:
-                    String label = (yUseLog) ? "log " : "";
-                    if (yMeta != null) {
-                        label += yMeta.getName();
-                        if (yUnit != null) {
-                            label += " (" + yUnit + ")";
-                        } else if (yMeta.getUnits() != Units.NO_UNIT) {
-                            label += " (" + yMeta.getUnits().getStandardRepresentation() + ")";
-                        }
-                        xyPlot.getRangeAxis().setLabel(label);
+                // adjust arrows:
+                ChartUtils.defineAxisArrows(xyPlot.getRangeAxis());
+                // tick color:
+                xyPlot.getRangeAxis().setTickMarkPaint(Color.BLACK);
+
+                // update plot's renderer before dataset (avoid notify events):
+                final FastXYErrorRenderer renderer = (FastXYErrorRenderer) xyPlot.getRenderer();
+
+                // apply item paints per serie:
+                final int seriesCount = dataset.getSeriesCount();
+                renderer.ensureCapacity(seriesCount);
+
+                for (int serie = 0; serie < seriesCount; serie++) {
+                    final OITableSerieKey serieKey = (OITableSerieKey) dataset.getSeriesKey(serie);
+
+                    // Use special fields into dataset to encode color mapping (color value as double ?)
+                    // use colormapping enum:
+                    switch (colorMapping) {
+                        case WAVELENGTH_RANGE:
+                        // wavelength is default:
+                        case OBSERVATION_DATE:
+                        // not implemented still
+                        default:
+                            // use item paints instead
+                            renderer.setSeriesPaint(serie, null, false);
+                            break;
+                        case CONFIGURATION:
+                            oixpAttrs.addLabel(serieKey.getStaConfName());
+                            break;
+                        case STATION_INDEX:
+                            oixpAttrs.addLabel(serieKey.getStaIndexName());
+                            break;
                     }
 
-                    // adjust arrows:
-                    ChartUtils.defineAxisArrows(xyPlot.getRangeAxis());
-                    // tick color:
-                    xyPlot.getRangeAxis().setTickMarkPaint(Color.BLACK);
+                    // virtual symmetric series share the item attributes of their real series:
+                    final int sourceSerie = dataset.getSourceSeriesIndex(serie);
 
-                    // update plot's renderer before dataset (avoid notify events):
-                    final FastXYErrorRenderer renderer = (FastXYErrorRenderer) xyPlot.getRenderer();
+                    // define paint per item in serie:
+                    renderer.setItemPaints(serie, plotData.itemPaints.get(sourceSerie)); // null if no item paints
+                }
 
-                    // enable/disable X error rendering (performance):
-                    renderer.setDrawXError(info.xAxisInfo.hasDataError);
+                // enable/disable X error rendering (performance):
+                renderer.setDrawXError(info.xAxisInfo.hasDataError);
 
-                    // enable/disable Y error rendering (performance):
-                    renderer.setDrawYError(info.yAxisInfo.hasDataError);
+                // enable/disable Y error rendering (performance):
+                renderer.setDrawYError(info.yAxisInfo.hasDataError);
 
-                    // use deprecated method but defines shape once for ALL series (performance):
-                    // define base shape as valid point (fallback):
-                    renderer.setDefaultShape(shapePointValid, false);
+                // use deprecated method but defines shape once for ALL series (performance):
+                // define base shape as valid point (fallback):
+                renderer.setDefaultShape(shapePointValid, false);
+                // invalid shape for flagged items or invalid error values (dataset item flags):
+                renderer.setInvalidItemShape(shapePointInvalid);
 
 // TODO: if only 1 channel: it is not possible to draw lines (nothing shown) => switch back to shapes ?
-                    final boolean useDrawLines = drawLines && info.useWaveLengths;
+                final boolean useDrawLines = drawLines && info.useWaveLengths;
 
-                    renderer.setShapesVisible(!useDrawLines);
-                    renderer.setLinesVisible(useDrawLines);
-                    if (useDrawLines) {
-                        renderer.setUseStepLine(useStepLine);
-                    }
-
-                    // update plot's dataset (notify events):
-                    xyPlot.setDataset(dataset);
+                renderer.setShapesVisible(!useDrawLines);
+                renderer.setLinesVisible(useDrawLines);
+                if (useDrawLines) {
+                    renderer.setUseStepLine(useStepLine);
                 }
+
+                // update plot's dataset (notify events):
+                xyPlot.setDataset(dataset);
             }
 
             if (showPlot) {
@@ -2016,33 +3178,31 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         final FastXYErrorRenderer renderer = (FastXYErrorRenderer) plot.getRenderer();
         // reset colors :
         renderer.clearSeriesPaints(false);
-
-        // reset item shapes:
-        renderer.clearItemShapes();
     }
 
     /**
-     * Update the plot (dataset, axis ranges ...) using the given OIData table
+     * Update the plot data (dataset, item paints, axis ranges ...) using the given OIData table
+     * This code is executed by a Worker thread (Not Swing EDT)
      * TODO use column names and virtual columns (spatial ...)
-     * @param plot XYPlot to update (dataset, renderer, axes)
+     * @param ctx plot context (plot definition, filters ...)
+     * @param plotData plot data to fill (dataset, item paints, plot information)
      * @param oiData OIData table to use as data source
+     * @param selection shared selection (rows, flags, converted x values) of the given OIData table
+     * @param yColumn raw y column values of the given OIData table
      * @param tableIndex table index to ensure serie uniqueness among collection
-     * @param usedStaNamesMap (shared) used StaNames map
-     * @param plotDef plot definition to use
      * @param yAxisIndex yAxis index to use in plot definition
-     * @param dataset FastIntervalXYDataset to fill
-     * @param initialXConverter converter to use first on x axis
-     * @param initialYConverter converter to use first on Y axis
-     * @param info plot information to update
      * @param drawLines flag indicating to build series for line representation (along wavelength axis)
      */
-    private void updatePlot(final XYPlot plot, final PlotInfo info,
-                            final OIData oiData, final int tableIndex,
-                            final Map<String, StaNamesDir> usedStaNamesMap,
-                            final PlotDefinition plotDef, final int yAxisIndex,
-                            final FastIntervalXYDataset<OITableSerieKey, OITableSerieKey> dataset,
-                            final Converter initialXConverter, final Converter initialYConverter,
-                            final boolean drawLines) {
+    private static void updatePlot(final PlotContext ctx, final PlotData plotData,
+                                   final OIData oiData, final OIDataSelection selection,
+                                   final ColumnData yColumn,
+                                   final int tableIndex, final int yAxisIndex,
+                                   final boolean drawLines) {
+
+        final PlotInfo info = plotData.info;
+        final FastIntervalXYDataset<OITableSerieKey, OITableSerieKey> dataset = plotData.dataset;
+        final Map<String, StaNamesDir> usedStaNamesMap = ctx.usedStaNamesMap;
+        final PlotDefinition plotDef = ctx.plotDef;
 
         final boolean isLogDebug = logger.isDebugEnabled();
 
@@ -2058,188 +3218,63 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
             return;
         }
 
-        // Get yAxis data:
+        // Get yAxis data (raw column values):
         final Axis yAxis = plotDef.getYAxes().get(yAxisIndex);
-        final String yAxisName = yAxis.getName();
 
-        final ColumnMeta yMeta = oiData.getColumnMeta(yAxisName);
+        final ColumnMeta yMeta = yColumn.meta;
 
-        if (yMeta == null) {
-            if (isLogDebug) {
-                logger.debug("unsupported yAxis : {} on {}", yAxis.getName(), oiData);
-            }
-            return;
-        }
         if (isLogDebug) {
             logger.debug("yMeta:{}", yMeta);
         }
 
         final boolean yUseLog = yAxis.isLogScale();
-        final boolean doConvertY = (initialYConverter != null);
 
         final Converter yConverter = cf.getDefault(yAxis.getConverter());
         final boolean doScaleY = (yConverter != null);
 
         final boolean isYData2D = yMeta.isArray();
         final boolean isYDataOrDep = yMeta.isOrientationDependent();
-        final double[] yData1D;
-        final double[] yData1DErr;
-        final double[][] yData2D;
-        final double[][] yData2DErr;
-
-        if (isYData2D) {
-            yData1D = null;
-            yData1DErr = null;
-            yData2D = oiData.getColumnAsDoubles(yAxisName);
-            if (yData2D == null || yData2D.length < nRows || yData2D[0].length < nWaves) {
-                if (isLogDebug) {
-                    logger.debug("unsupported yAxis : {} on {}", yAxis.getName(), oiData);
-                }
-                return;
-            }
-            yData2DErr = oiData.getColumnAsDoubles(yMeta.getErrorColumnName());
-        } else {
-            yData1D = oiData.getColumnAsDouble(yAxisName);
-            if (yData1D == null || yData1D.length < nRows) {
-                if (isLogDebug) {
-                    logger.debug("unsupported yAxis : {} on {}", yAxis.getName(), oiData);
-                }
-                return;
-            }
-            yData1DErr = oiData.getColumnAsDouble(yMeta.getErrorColumnName());
-            yData2D = null;
-            yData2DErr = null;
-        }
-
-        final boolean hasErrY = (yData2DErr != null) || (yData1DErr != null);
-
-        // Get xAxis data:
-        final Axis xAxis = plotDef.getXAxis();
-        final String xAxisName = xAxis.getName();
 
-        final ColumnMeta xMeta = oiData.getColumnMeta(xAxisName);
+        // Y kernel selected once (1D/2D values and errors, log, converter):
+        final ColumnKernel yKernel = yColumn.createKernel(yUseLog, yConverter);
 
-        if (xMeta == null) {
-            if (isLogDebug) {
-                logger.debug("unsupported xAxis : {} on {}", xAxis.getName(), oiData);
-            }
-            return;
-        }
-        if (isLogDebug) {
-            logger.debug("yMeta:{}", yMeta);
-        }
+        // Get xAxis data (shared selection):
+        final ColumnMeta xMeta = selection.xMeta;
 
-        final boolean xUseLog = xAxis.isLogScale();
-        final boolean doConvertX = (initialXConverter != null);
+        final boolean xUseLog = selection.xUseLog;
 
-        final Converter xConverter = cf.getDefault(xAxis.getConverter());
+        final Converter xConverter = selection.xConverter;
         final boolean doScaleX = (xConverter != null);
 
-        final boolean isXData2D = xMeta.isArray();
-        final boolean isXDataOrDep = xMeta.isOrientationDependent();
-        final double[] xData1D;
-        final double[] xData1DErr;
-        final double[][] xData2D;
-        final double[][] xData2DErr;
-
-        if (isXData2D) {
-            xData1D = null;
-            xData1DErr = null;
-            xData2D = oiData.getColumnAsDoubles(xAxisName);
-            if (xData2D == null || xData2D.length < nRows || xData2D[0].length < nWaves) {
-                if (isLogDebug) {
-                    logger.debug("unsupported xAxis : {} on {}", xAxis.getName(), oiData);
-                }
-                return;
-            }
-            xData2DErr = oiData.getColumnAsDoubles(xMeta.getErrorColumnName());
-        } else {
-            xData1D = oiData.getColumnAsDouble(xAxisName);
-            if (xData1D == null || xData1D.length < nRows) {
-                if (isLogDebug) {
-                    logger.debug("unsupported xAxis : {} on {}", xAxis.getName(), oiData);
-                }
-                return;
-            }
-            xData1DErr = oiData.getColumnAsDouble(xMeta.getErrorColumnName());
-            xData2D = null;
-            xData2DErr = null;
-        }
-
-        final boolean hasErrX = (xData2DErr != null) || (xData1DErr != null);
+        final boolean isXData2D = selection.isXData2D;
 
         final boolean skipFlaggedData = plotDef.isSkipFlaggedData();
 
         final ColorMapping colorMapping = (plotDef.getColorMapping() != null) ? plotDef.getColorMapping() : ColorMapping.WAVELENGTH_RANGE;
 
         // standard columns:
-        final short[][] staIndexes = oiData.getStaIndex();
         final short[][] staConfs = oiData.getStaConf();
 
-        // Use staIndex (baseline or triplet) on each data row ?
+        // Use staIndex (baseline or triplet) on each data row:
         final int nStaIndexes = oiData.getDistinctStaIndexCount();
-        final boolean checkStaIndex = nStaIndexes > 1;
 
         if (isLogDebug) {
             logger.debug("nStaIndexes: {}", nStaIndexes);
-            logger.debug("checkStaIndex: {}", checkStaIndex);
         }
 
-        // anyway (color mapping or check sta index):
+        // anyway (color mapping or sta index rows):
         final short[][] distinctStaIndexes = oiData.getDistinctStaIndexes();
 
+        // cached row indexes per baseline (avoid scanning all rows per baseline):
+        final OIDataRowIndex rowIndex = OIDataRowIndex.getInstance(oiData);
+
         // Use flags on every 2D data ?
-        final int nFlagged = oiData.getNFlagged();
-        final boolean checkFlaggedData = (nFlagged > 0) && (isXData2D || isYData2D);
+        final boolean checkFlaggedData = selection.hasFlaggedData() && (isXData2D || isYData2D);
 
         if (isLogDebug) {
-            logger.debug("nFlagged: {}", nFlagged);
             logger.debug("checkFlaggedData: {}", checkFlaggedData);
         }
 
-        final boolean[][] flags = (checkFlaggedData) ? oiData.getFlag() : null;
-
-        // filter targetId on each data row ?
-        final TargetIdMatcher targetIdMatcher;
-        if (oiData.hasSingleTarget()) {
-            // implicitely matching selected target
-            targetIdMatcher = null;
-        } else {
-            // targetID can not be null as the OIData table is supposed to have the target:
-            final TargetIdMatcher matcher = oiData.getTargetIdMatcher(getTargetManager(), getFilterTargetUID());
-            if (matcher != null) {
-                targetIdMatcher = (matcher.matchAll(oiData.getDistinctTargetId())) ? null : matcher;
-
-                if (isLogDebug) {
-                    logger.debug("targetIdMatcher: {}", targetIdMatcher);
-                }
-            } else {
-                targetIdMatcher = null;
-            }
-        }
-
-        final short[] targetIds = (targetIdMatcher != null) ? oiData.getTargetId() : null;
-
-        // filter nightId on each data row ?
-        final NightIdMatcher nightIdMatcher;
-        if (oiData.hasSingleNight()) {
-            // implicitely matching selected night
-            nightIdMatcher = null;
-        } else {
-            // TODO: reuse ctx.selectorResult.getDistinctNightIds() to use nightIds associated to selected Granules ONLY
-            final NightId filterNightId = getFilterNightID();
-            if (filterNightId != null) {
-                nightIdMatcher = new NightIdMatcher(filterNightId);
-            } else {
-                nightIdMatcher = null;
-            }
-        }
-
-        final int[] nightIds = (nightIdMatcher != null) ? oiData.getNightId() : null;
-
-        // Get Global SharedSeriesAttributes:
-        final SharedSeriesAttributes oixpAttrs = SharedSeriesAttributes.INSTANCE_OIXP;
-
         // Color mapping:
         // Station configurations:
         // Use staConf (configuration) on each data row ?
@@ -2267,6 +3302,7 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
                 Arrays.fill(mappingWaveLengthColors, Color.BLACK);
             } else {
                 final double lower = info.waveLengthRange.getLowerBound();
+                final IndexColorModel colorModel = ctx.colorModel;
                 final int iMaxColor = colorModel.getMapSize() - 1;
 
                 final float[] effWaves = oiData.getOiWavelength().getEffWave();
@@ -2286,9 +3322,6 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
             mappingWaveLengthColors = null;
         }
 
-        // TODO: adjust renderer settings per Serie (color, shape ...) per series and item at higher level using dataset fields
-        final FastXYErrorRenderer renderer = (FastXYErrorRenderer) plot.getRenderer();
-
         if (isLogDebug) {
             logger.debug("nbSeries to create : {}", nStaIndexes);
         }
@@ -2296,7 +3329,6 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         // Prepare data models to contain 1 serie per baseline:
         final int maxSeriesCount = dataset.getSeriesCount() + nStaIndexes;
         dataset.ensureCapacity(maxSeriesCount);
-        renderer.ensureCapacity(maxSeriesCount);
 
         // flag indicating that this table has data to plot:
         boolean hasPlotData = false;
@@ -2317,22 +3349,43 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         double minYe = Double.POSITIVE_INFINITY;
         double maxYe = Double.NEGATIVE_INFINITY;
 
-        int[] iRows, iCols;
-        double[] xValues, xLowers, xUppers, yValues, yLowers, yUppers;
-        Shape[] itemShapes;
-        Paint[] itemPaints;
-
-        boolean recycleArray = false;
-        final int[][] arrayIntPool = new int[2][];
-        final double[][] arrayDblPool = new double[6][];
-        Shape[] shapePool = null;
-        Paint[] paintPool = null;
         // mul 2 for cut-off points (NaN)
         // add 1 for cut-off points (rows)
-        final int poolCapacity = nRows * 2 * (nWaveChannels + 1);
+        // use the largest baseline (rows):
+        final int poolCapacity = rowIndex.getMaxStaIndexRows() * 2 * (nWaveChannels + 1);
+
+        // serie buffers reused for all baselines (copied into the table columnar data):
+        final int[] iRows = new int[poolCapacity];
+        final int[] iCols = new int[poolCapacity];
+        final double[] xValues = new double[poolCapacity];
+        final double[] xLowers = new double[poolCapacity];
+        final double[] xUppers = new double[poolCapacity];
+        final double[] yValues = new double[poolCapacity];
+        final double[] yLowers = new double[poolCapacity];
+        final double[] yUppers = new double[poolCapacity];
+        final short[] itemColors = (mappingWaveLengthColors != null) ? new short[poolCapacity] : null;
+        final BitSet itemFlags = new BitSet();
+        boolean hasItemFlags = false;
+        IndexedPaints itemPaints;
+
+        // all series of this table are packed into contiguous buffers
+        // (symmetric errors: single error per value, optional float precision and off-heap storage):
+        final ColumnarSeriesData columnarData = new ColumnarSeriesData(poolCapacity, ctx.cacheKey.storage,
+                ctx.cacheKey.floatStorage, true);
+        columnarData.setLowerPositive(xUseLog, yUseLog);
 
         double x, xErr, y, yErr;
 
+        // converted X / Y values and errors for the current row:
+        final double[] xRow = new double[nWaveChannels];
+        final double[] xErrRow = new double[nWaveChannels];
+        final double[] yRow = new double[nWaveChannels];
+        final double[] yErrRow = new double[nWaveChannels];
+
+        // lower bound limits (log axis): (lower <= NaN) is always false:
+        final double xLowerLimit = (xUseLog) ? 0.0 : Double.NaN;
+        final double yLowerLimit = (yUseLog) ? 0.0 : Double.NaN;
+
         int serieIdx;
         OITableSerieKey serieKey;
 
@@ -2344,7 +3397,7 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
 
         String staIndexName, staConfName;
 
-        int nSkipFlag = 0, nSkipTarget = 0, nSkipNight = 0;
+        int nSkipFlag = 0;
         boolean isFlag, isXErrValid, isYErrValid, useXErrInBounds, useYErrInBounds;
 
         int nData = 0;
@@ -2358,6 +3411,11 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         // Iterate on baselines (k):
         for (int k = 0, idx, nCut, prevL; k < nStaIndexes; k++) {
 
+            // fast cancel (parallel or sequential extraction):
+            if (ctx.isCancelled()) {
+                return;
+            }
+
             // get the sta index array:
             currentStaIndex = distinctStaIndexes[k];
             currentStaConf = null;
@@ -2380,66 +3438,40 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
             }
 
             // 1 serie per baseline and per spectral channel:
-            if (recycleArray) {
-                recycleArray = false;
-                iRows = arrayIntPool[0];
-                iCols = arrayIntPool[1];
-                xValues = arrayDblPool[0];
-                xLowers = arrayDblPool[1];
-                xUppers = arrayDblPool[2];
-                yValues = arrayDblPool[3];
-                yLowers = arrayDblPool[4];
-                yUppers = arrayDblPool[5];
-                itemShapes = shapePool;
-                itemPaints = paintPool;
-            } else {
-                iRows = new int[poolCapacity];
-                iCols = new int[poolCapacity];
-                xValues = new double[poolCapacity];
-                xLowers = new double[poolCapacity];
-                xUppers = new double[poolCapacity];
-                yValues = new double[poolCapacity];
-                yLowers = new double[poolCapacity];
-                yUppers = new double[poolCapacity];
-                itemShapes = new Shape[poolCapacity];
-                itemPaints = new Paint[poolCapacity];
-            }
-
             idx = 0;
             nCut = 0;
+            // reset item flags (all items valid):
+            if (hasItemFlags) {
+                itemFlags.clear();
+            }
+            hasItemFlags = false;
 
-            // Iterate on table rows (i):
-            for (int i = 0; i < nRows; i++) {
-
-                // check sta indexes ?
-                if (checkStaIndex) {
-                    // note: sta indexes are compared using pointer comparison:
-                    if (currentStaIndex != staIndexes[i]) {
-                        // data row does not correspond to current baseline so skip it:
-                        continue;
-                    }
-                }
+            // get the data rows corresponding to the current baseline:
+            final int[] staIndexRows = rowIndex.getStaIndexRows(k);
 
-                if ((targetIdMatcher != null) && !targetIdMatcher.match(targetIds[i])) {
-                    // data row does not correspond to current target so skip it:
-                    nSkipTarget++;
-                    continue;
-                }
+            // Iterate on table rows (i) of the current baseline:
+            for (int j = 0, nStaIndexRows = staIndexRows.length, i; j < nStaIndexRows; j++) {
+                i = staIndexRows[j];
 
-                if ((nightIdMatcher != null) && !nightIdMatcher.match(nightIds[i])) {
-                    // data row does not correspond to current night so skip it:
-                    nSkipNight++;
+                if (!selection.rowSelected.get(i)) {
+                    // data row does not correspond to current target or night so skip it:
                     continue;
                 }
 
                 // previous channel index:
                 prevL = -1;
 
+                // Process X / Y values and errors of the current row (orientation, log filter and conversions):
+                yKernel.fill(i, isYDataOrDep && isOtherOrientation, yRow, nWaveChannels);
+                yKernel.fillError(i, yErrRow, nWaveChannels);
+                selection.fillX(i, xRow, nWaveChannels);
+                selection.fillXErr(i, xErrRow, nWaveChannels);
+
                 // Iterate on wave channels (l):
                 for (int l = 0; l < nWaveChannels; l++) {
 
                     isFlag = false;
-                    if (checkFlaggedData && flags[i][l]) {
+                    if (checkFlaggedData && selection.isFlagged(i, l)) {
                         if (skipFlaggedData) {
                             // data point is flagged so skip it:
                             nSkipFlag++;
@@ -2454,50 +3486,12 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
 
                     // TODO: filter data (wavelength, baseline, configuration, time ...)
                     // TODO: support function (min, max, mean) applied to array data (2D)
-                    // Idea: use custom data consumer (2D, 1D, log or not, error or not)
-                    // it will reduce the number of if statements => better performance and simpler code
-                    // such data stream could also perform conversion on the fly
-                    // and maybe handle symetry (u, -u) (v, -v) ...
-                    // Process Y value if not yData is not null:
-                    if (isYData2D) {
-                        y = yData2D[i][l];
-                    } else {
-                        y = yData1D[i];
-                    }
-
-                    if (isYDataOrDep && isOtherOrientation) {
-                        y = -y;
-                    }
-
-                    if (yUseLog && (y <= 0.0)) {
-                        // keep only strictly positive data:
-                        y = NaN;
-                    }
+                    // Process Y value (orientation, log filter and conversions already applied):
+                    y = yRow[l];
 
                     if (NumberUtils.isFinite(y)) {
-                        // convert y value:
-                        if (doConvertY) {
-                            y = initialYConverter.evaluate(y);
-                        }
-                        if (doScaleY) {
-                            y = yConverter.evaluate(y);
-                        }
-
-                        // Process X value:
-                        if (isXData2D) {
-                            x = xData2D[i][l];
-                        } else {
-                            x = xData1D[i];
-                        }
-
-                        if (isXDataOrDep && isOtherOrientation) {
-                            x = -x;
-                        }
-
-                        if (xUseLog && (x <= 0.0)) {
-                            // keep only strictly positive data:
-                            x = NaN;
-                        }
+                        // Process X value (orientation, log filter and conversions already applied):
+                        x = xRow[l];
 
                         if (NumberUtils.isFinite(x)) {
                             // insert cut-off for data lines of non contiguous items (NaN)
@@ -2509,50 +3503,30 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
                                 }
                             }
 
-                            // convert x value:
-                            if (doConvertX) {
-                                x = initialXConverter.evaluate(x);
-                            }
-                            if (doScaleX) {
-                                x = xConverter.evaluate(x);
-                            }
-
-                            // Process X / Y Errors:
-                            yErr = (hasErrY) ? ((isYData2D) ? yData2DErr[i][l] : yData1DErr[i]) : NaN;
-                            xErr = (hasErrX) ? ((isXData2D) ? xData2DErr[i][l] : xData1DErr[i]) : NaN;
+                            // Process X / Y Errors (converted, NaN if undefined, POSITIVE_INFINITY if invalid):
+                            yErr = yErrRow[l];
+                            xErr = xErrRow[l];
 
                             // Define Y data:
-                            isYErrValid = true;
-                            useYErrInBounds = false;
+                            yValues[idx] = y;
 
-                            if (!NumberUtils.isFinite(yErr)) {
-                                yValues[idx] = y;
+                            if (Double.isNaN(yErr)) {
+                                isYErrValid = true;
+                                useYErrInBounds = false;
                                 yLowers[idx] = NaN;
                                 yUppers[idx] = NaN;
                             } else {
                                 hasDataErrorY = true;
 
                                 // ensure error is valid ie positive:
-                                if (yErr >= 0.0) {
-                                    // convert yErr value:
-                                    if (doConvertY) {
-                                        yErr = initialYConverter.evaluate(yErr);
-                                    }
-                                    if (doScaleY) {
-                                        yErr = yConverter.evaluate(yErr);
-                                    }
-                                    useYErrInBounds = true;
-                                } else {
-                                    yErr = Double.POSITIVE_INFINITY;
-                                    isYErrValid = false;
-                                }
+                                isYErrValid = (yErr != Double.POSITIVE_INFINITY);
+                                useYErrInBounds = isYErrValid;
 
-                                yValues[idx] = y;
                                 yLowers[idx] = y - yErr;
                                 yUppers[idx] = y + yErr;
 
                                 // useLog: check if (y - err) <= 0:
-                                if (yUseLog && (yLowers[idx] <= 0.0)) {
+                                if (yLowers[idx] <= yLowerLimit) {
                                     yLowers[idx] = Double.MIN_VALUE;
                                     useYErrInBounds = false;
                                 }
@@ -2576,37 +3550,25 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
                             }
 
                             // Define X data:
-                            isXErrValid = true;
-                            useXErrInBounds = false;
+                            xValues[idx] = x;
 
-                            if (!NumberUtils.isFinite(xErr)) {
-                                xValues[idx] = x;
+                            if (Double.isNaN(xErr)) {
+                                isXErrValid = true;
+                                useXErrInBounds = false;
                                 xLowers[idx] = NaN;
                                 xUppers[idx] = NaN;
                             } else {
                                 hasDataErrorX = true;
 
                                 // ensure error is valid ie positive:
-                                if (xErr >= 0.0) {
-                                    // convert xErr value:
-                                    if (doConvertX) {
-                                        xErr = initialXConverter.evaluate(xErr);
-                                    }
-                                    if (doScaleX) {
-                                        xErr = xConverter.evaluate(xErr);
-                                    }
-                                    useXErrInBounds = true;
-                                } else {
-                                    xErr = Double.POSITIVE_INFINITY;
-                                    isXErrValid = false;
-                                }
+                                isXErrValid = (xErr != Double.POSITIVE_INFINITY);
+                                useXErrInBounds = isXErrValid;
 
-                                xValues[idx] = x;
                                 xLowers[idx] = x - xErr;
                                 xUppers[idx] = x + xErr;
 
                                 // useLog: check if (x - err) <= 0:
-                                if (xUseLog && (xLowers[idx] <= 0.0)) {
+                                if (xLowers[idx] <= xLowerLimit) {
                                     xLowers[idx] = Double.MIN_VALUE;
                                     useXErrInBounds = false;
                                 }
@@ -2631,13 +3593,21 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
 
                             // TODO: adjust renderer settings per Serie (color, shape, shape size, outline ....) !
                             // ~ new custom axis (color, size, shape)
-                            // Define item shape:
-                            // invalid shape if flagged or invalid error value
-                            itemShapes[idx] = getPointShape(isYErrValid && isXErrValid && !isFlag);
+                            // Define item flags (invalid shape if flagged or invalid error value):
+                            if (isFlag || !(isYErrValid && isXErrValid)) {
+                                hasItemFlags = true;
+                                if (isFlag) {
+                                    itemFlags.set(idx * FastIntervalXYDataset.FLAG_BITS_PER_ITEM + FastIntervalXYDataset.FLAG_FLAGGED);
+                                }
+                                if (!(isYErrValid && isXErrValid)) {
+                                    itemFlags.set(idx * FastIntervalXYDataset.FLAG_BITS_PER_ITEM + FastIntervalXYDataset.FLAG_INVALID_ERROR);
+                                }
+                            }
 
                             // TODO: adjust renderer settings per Serie (color, shape ...) per series and item at higher level using dataset fields
-                            if (mappingWaveLengthColors != null) {
-                                itemPaints[idx] = mappingWaveLengthColors[l];
+                            if (itemColors != null) {
+                                // color index in the wavelength palette:
+                                itemColors[idx] = (short) l;
                             }
 
                             // Define row / col indices:
@@ -2666,32 +3636,6 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
                 hasPlotData = true;
                 nData += (idx - nCut);
 
-                // crop data arrays:
-                if (idx < poolCapacity) {
-                    recycleArray = true;
-                    arrayIntPool[0] = iRows;
-                    arrayIntPool[1] = iCols;
-                    arrayDblPool[0] = xValues;
-                    arrayDblPool[1] = xLowers;
-                    arrayDblPool[2] = xUppers;
-                    arrayDblPool[3] = yValues;
-                    arrayDblPool[4] = yLowers;
-                    arrayDblPool[5] = yUppers;
-                    shapePool = itemShapes;
-                    paintPool = itemPaints;
-
-                    iRows = extract(iRows, idx);
-                    iCols = extract(iCols, idx);
-                    xValues = extract(xValues, idx);
-                    xLowers = extract(xLowers, idx);
-                    xUppers = extract(xUppers, idx);
-                    yValues = extract(yValues, idx);
-                    yLowers = extract(yLowers, idx);
-                    yUppers = extract(yUppers, idx);
-                    itemShapes = extract(itemShapes, idx);
-                    itemPaints = extract(itemPaints, idx);
-                }
-
                 if (refStaNamesDir != null) {
                     staIndexName = refStaNamesDir.getStaNames();
                 } else {
@@ -2701,37 +3645,18 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
                 serieKey = new OITableSerieKey(tableIndex, ptr, k, staIndexName, staConfName); // baselines (k)
 
                 // Avoid any key conflict:
-                dataset.addSeries(serieKey,
-                        new int[][]{iRows, iCols},
-                        new double[][]{xValues, xLowers, xUppers, yValues, yLowers, yUppers}
+                dataset.addSeries(serieKey, columnarData,
+                        columnarData.addSeries(iRows, iCols, xValues, xLowers, xUppers, yValues, yLowers, yUppers,
+                                idx, (hasItemFlags) ? itemFlags : null)
                 );
 
                 serieIdx = dataset.indexOf(serieKey);
 
-                // Use special fields into dataset to encode color mapping (color value as double ?)
-                // use colormapping enum:
-                switch (colorMapping) {
-                    case WAVELENGTH_RANGE:
-                    // wavelength is default:
-                    case OBSERVATION_DATE:
-                    // not implemented still
-                    default:
-                        // use item paints instead
-                        renderer.setSeriesPaint(serieIdx, null, false);
-                        break;
-                    case CONFIGURATION:
-                        oixpAttrs.addLabel(staConfName);
-                        break;
-                    case STATION_INDEX:
-                        oixpAttrs.addLabel(staIndexName);
-                        break;
-                }
-
-                // define shape per item in serie:
-                renderer.setItemShapes(serieIdx, itemShapes);
-
-                // define paint per item in serie:
-                renderer.setItemPaints(serieIdx, itemPaints); // TODO: check is null
+                // define paint per item in serie (applied to renderer later in EDT):
+                // wavelength colors: color index per item and shared palette (per table):
+                itemPaints = (itemColors != null) ? new IndexedPaints(mappingWaveLengthColors, extract(itemColors, idx)) : null;
+
+                plotData.setItemAttributes(serieIdx, itemPaints);
 
                 // Add staIndex into the unique used station indexes anyway:
                 info.usedStaIndexNames.add(staIndexName);
@@ -2742,6 +3667,9 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
 
         } // iterate on baselines
 
+        // release unused capacity:
+        columnarData.trimToSize();
+
         if (!hasPlotData) {
             return;
         }
@@ -2750,11 +3678,11 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
             if (nSkipFlag != 0) {
                 logger.debug("Nb SkipFlag: {}", nSkipFlag);
             }
-            if (nSkipTarget != 0) {
-                logger.debug("Nb SkipTarget: {}", nSkipTarget);
+            if (selection.nSkipTarget != 0) {
+                logger.debug("Nb SkipTarget (rows): {}", selection.nSkipTarget);
             }
-            if (nSkipNight != 0) {
-                logger.debug("Nb SkipNight: {}", nSkipNight);
+            if (selection.nSkipNight != 0) {
+                logger.debug("Nb SkipNight (rows): {}", selection.nSkipNight);
             }
         }
 
@@ -2810,35 +3738,8 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         axisInfo.hasDataError |= hasDataErrorY; // logical OR
     }
 
-    private int[] extract(final int[] input, final int len) {
-        final int[] output = new int[len];
-        // manual array copy is faster on recent machine (64bits / hotspot server compiler)
-        for (int i = 0; i < len; i++) {
-            output[i] = input[i];
-        }
-        return output;
-    }
-
-    private double[] extract(final double[] input, final int len) {
-        final double[] output = new double[len];
-        // manual array copy is faster on recent machine (64bits / hotspot server compiler)
-        for (int i = 0; i < len; i++) {
-            output[i] = input[i];
-        }
-        return output;
-    }
-
-    private Shape[] extract(final Shape[] input, final int len) {
-        final Shape[] output = new Shape[len];
-        // manual array copy is faster on recent machine (64bits / hotspot server compiler)
-        for (int i = 0; i < len; i++) {
-            output[i] = input[i];
-        }
-        return output;
-    }
-
-    private Paint[] extract(final Paint[] input, final int len) {
-        final Paint[] output = new Paint[len];
+    private static short[] extract(final short[] input, final int len) {
+        final short[] output = new short[len];
         // manual array copy is faster on recent machine (64bits / hotspot server compiler)
         for (int i = 0; i < len; i++) {
             output[i] = input[i];
@@ -3010,15 +3911,6 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         }
     }
 
-    /**
-     * Return the shape used to represent points on the plot
-     * @param valid flag indicating if the the point is valid
-     * @return shape
-     */
-    private static Shape getPointShape(final boolean valid) {
-        return (valid) ? shapePointValid : shapePointInvalid;
-    }
-
     /* Plot information */
     /**
      * TODO: make PlotInfo public !!
@@ -3117,6 +4009,8 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
     @Override
     public String getSubjectId(final OIFitsCollectionManagerEventType type) {
         switch (type) {
+            case COLLECTION_CHANGED:
+                return null;
             case PLOT_CHANGED:
                 return plotId;
             default:
@@ -3133,6 +4027,11 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
         logger.debug("onProcess {}", event);
 
         switch (event.getType()) {
+            case COLLECTION_CHANGED:
+                // loaded files changed (reset, load or remove): cached and last computed datasets are obsolete:
+                clearChartDataCache();
+                this.lastChartData = null;
+                break;
             case PLOT_CHANGED:
                 /* store plot instance (reference) */
                 plot = event.getPlot();
@@ -3152,7 +4051,7 @@ public final class PlotChartPanel extends javax.swing.JPanel implements ChartPro
      * @param axis x axis
      * @return true (use symmetry) if given axis 'is' spatial frequencies
      */
-    private boolean useSymmetry(final Axis axis) {
+    private static boolean useSymmetry(final Axis axis) {
         if (true) {
             return COLUMNS_SYMETRY.contains(axis.getName());
         }
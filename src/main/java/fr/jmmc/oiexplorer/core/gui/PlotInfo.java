@@ -52,4 +52,23 @@ public final class PlotInfo {
         yAxisInfo = new AxisInfo();
     }
 
+    /**
+     * Combine the given plot information (partial results) into this instance
+     * @param src plot information to combine
+     */
+    void combine(final PlotInfo src) {
+        if (src.hasPlotData) {
+            hasPlotData = true;
+            useWaveLengths |= src.useWaveLengths; // logical OR
+            nDataPoints += src.nDataPoints;
+            hasDataFlag |= src.hasDataFlag; // logical OR
+            yAxisIndex = src.yAxisIndex;
+            oidataList.addAll(src.oidataList);
+            usedStaIndexNames.addAll(src.usedStaIndexNames);
+            usedStaConfNames.addAll(src.usedStaConfNames);
+            xAxisInfo.combine(src.xAxisInfo);
+            yAxisInfo.combine(src.yAxisInfo);
+        }
+    }
+
 }
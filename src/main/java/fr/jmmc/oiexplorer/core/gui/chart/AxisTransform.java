@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.gui.chart;
+
+import java.awt.geom.Rectangle2D;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.ui.RectangleEdge;
+
+/**
+ * Transform from axis values to Java2D coordinates derived once from the axis (range, data area and edge):
+ * linear for linear axes, log-linear for EnhancedLogarithmicAxis or ValueAxis.valueToJava2D() for other axes.
+ *
+ * @author bourgesl
+ */
+public final class AxisTransform {
+
+    /** maximum relative error to accept the derived transform */
+    private final static double EPSILON = 1e-9;
+
+    /* members */
+    /** axis */
+    private final ValueAxis axis;
+    /** data area */
+    private final Rectangle2D area;
+    /** axis edge */
+    private final RectangleEdge edge;
+    /** log axis (log-linear transform) or null */
+    private final EnhancedLogarithmicAxis logAxis;
+    /** true if the linear (or log-linear) transform is used */
+    private final boolean fast;
+    /** scale factor */
+    private final double scale;
+    /** offset */
+    private final double offset;
+
+    /**
+     * Public constructor
+     * @param axis axis
+     * @param area data area
+     * @param edge axis edge
+     */
+    public AxisTransform(final ValueAxis axis, final Rectangle2D area, final RectangleEdge edge) {
+        this.axis = axis;
+        this.area = area;
+        this.edge = edge;
+
+        final EnhancedLogarithmicAxis log = (axis instanceof EnhancedLogarithmicAxis) ? (EnhancedLogarithmicAxis) axis : null;
+
+        final double lower = axis.getLowerBound();
+        final double upper = axis.getUpperBound();
+
+        double a = Double.NaN;
+        double b = Double.NaN;
+        boolean valid = false;
+
+        if (upper > lower) {
+            final double j0 = axis.valueToJava2D(lower, area, edge);
+            final double j1 = axis.valueToJava2D(upper, area, edge);
+            final double v0 = (log != null) ? log.switchedLog10(lower) : lower;
+            final double v1 = (log != null) ? log.switchedLog10(upper) : upper;
+
+            if (v1 != v0) {
+                a = (j1 - j0) / (v1 - v0);
+                b = j0 - a * v0;
+
+                // check the derived transform inside and outside the axis range:
+                final double mid = lower + (upper - lower) / 3.0;
+                final double out = upper + (upper - lower);
+                valid = !Double.isNaN(a) && !Double.isInfinite(a)
+                        && isClose(axis.valueToJava2D(mid, area, edge), a * ((log != null) ? log.switchedLog10(mid) : mid) + b)
+                        && isClose(axis.valueToJava2D(out, area, edge), a * ((log != null) ? log.switchedLog10(out) : out) + b);
+            }
+        }
+        this.fast = valid;
+        this.logAxis = log;
+        this.scale = a;
+        this.offset = b;
+    }
+
+    /**
+     * Converts a data value to a coordinate in Java2D space
+     * @param value the data value
+     * @return The Java2D coordinate
+     */
+    public double toJava2D(final double value) {
+        if (this.fast) {
+            if (this.logAxis != null) {
+                return this.scale * this.logAxis.switchedLog10(value) + this.offset;
+            }
+            return this.scale * value + this.offset;
+        }
+        return this.axis.valueToJava2D(value, this.area, this.edge);
+    }
+
+    private static boolean isClose(final double expected, final double value) {
+        return Math.abs(expected - value) <= EPSILON * (1.0 + Math.abs(expected));
+    }
+}
@@ -5,24 +5,36 @@ package fr.jmmc.oiexplorer.core.gui.chart;
 
 import fr.jmmc.jmcs.util.IntrospectionUtils;
 import java.awt.Graphics;
+import java.awt.Image;
 import java.awt.Insets;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 import org.jfree.chart.ChartMouseEvent;
 import org.jfree.chart.ChartMouseListener;
 import org.jfree.chart.ChartPanel;
+import org.jfree.chart.ChartRenderingInfo;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.entity.ChartEntity;
 import org.jfree.chart.entity.EntityCollection;
+import org.jfree.chart.event.ChartChangeEvent;
+import org.jfree.chart.event.ChartProgressEvent;
+import org.jfree.chart.event.ChartProgressListener;
+import org.jfree.chart.plot.CombinedDomainXYPlot;
+import org.jfree.chart.plot.CombinedRangeXYPlot;
 import org.jfree.chart.plot.Plot;
+import org.jfree.chart.plot.PlotRenderingInfo;
 import org.jfree.chart.plot.XYPlot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This enhanced ChartPanel customizes the mouse listener support
+ * and keeps the data layer (chart buffer) rendered at the previous panel size
+ * to avoid re-rendering the chart when the panel size toggles (crosshair information panel)
  * @author bourgesl
  */
 public class EnhancedChartPanel extends ChartPanel {
@@ -35,12 +47,32 @@ public class EnhancedChartPanel extends ChartPanel {
     public static final boolean DEBUG_PAINT = false;
     /** ChartPanel.mouseWheelHandler Field */
     private static final Field mwhField = getMouseWheelHandlerField();
+    /** ChartPanel.chartBuffer Field */
+    private static final Field bufferField = getChartPanelField("chartBuffer");
+    /** ChartPanel.chartBufferWidth Field */
+    private static final Field bufferWidthField = getChartPanelField("chartBufferWidth");
+    /** ChartPanel.chartBufferHeight Field */
+    private static final Field bufferHeightField = getChartPanelField("chartBufferHeight");
+    /** flag to enable the data layer cache (ChartPanel buffer fields are available) */
+    private static final boolean USE_DATA_LAYER_CACHE = (bufferField != null && bufferWidthField != null && bufferHeightField != null);
 
     /* members */
+    /** data layer version incremented on any chart change (dataset, axis, renderer ...) */
+    private int layerVersion = 0;
+    /** data layer version of the chart buffer */
+    private int bufferVersion = -1;
+    /** panel width (available) of the chart buffer */
+    private int bufferPanelWidth = -1;
+    /** panel height (available) of the chart buffer */
+    private int bufferPanelHeight = -1;
+    /** data layer rendered at the previous panel size */
+    private transient DataLayer spareLayer = null;
     /** flag to redirect zoom action */
     private boolean redirectZoomEvent = false;
     /** ChartMouseSelectionListener which handles rectangular mouse selection event */
     private ChartMouseSelectionListener mouseRectangularSelectionEventListener = null;
+    /** optional listener notified (DRAWING_FINISHED) when a data layer is restored (chart not drawn) */
+    private ChartProgressListener dataLayerListener = null;
 
     /**
      * Constructs an enhanced JFreeChart panel.
@@ -91,8 +123,27 @@ public class EnhancedChartPanel extends ChartPanel {
     public final void paintComponent(final Graphics g) {
         final long startTime = System.nanoTime();
 
+        final boolean useLayer = USE_DATA_LAYER_CACHE && (getChart() != null) && !getRefreshBuffer()
+                && (getChartRenderingInfo() != null) && (getChartRenderingInfo().getEntityCollection() == null);
+
+        final Insets insets = getInsets();
+        final int panelWidth = getWidth() - insets.left - insets.right;
+        final int panelHeight = getHeight() - insets.top - insets.bottom;
+
+        if (useLayer && (panelWidth != this.bufferPanelWidth || panelHeight != this.bufferPanelHeight)) {
+            swapDataLayer(panelWidth, panelHeight);
+        }
+
+        // chart changes during the rendering give a new version (stale buffer):
+        final int version = this.layerVersion;
+
         super.paintComponent(g);
 
+        // the chart buffer is up-to-date (rendered or reused):
+        this.bufferVersion = version;
+        this.bufferPanelWidth = panelWidth;
+        this.bufferPanelHeight = panelHeight;
+
         if (logger.isDebugEnabled()) {
             logger.debug("Paint chart time = {} ms.", 1e-6d * (System.nanoTime() - startTime));
         }
@@ -101,6 +152,130 @@ public class EnhancedChartPanel extends ChartPanel {
         }
     }
 
+    /**
+     * Receives notification of changes to the chart (dataset, axis, renderer ...):
+     * the data layers are stale and the chart must be rendered again.
+     *
+     * @param event  details of the chart change event.
+     */
+    @Override
+    public void chartChanged(final ChartChangeEvent event) {
+        this.layerVersion++;
+        this.spareLayer = null;
+
+        super.chartChanged(event);
+    }
+
+    /**
+     * Swap the chart buffer with the spare data layer if it was rendered for the given panel size
+     * and the same chart state; the current chart buffer becomes the spare data layer.
+     * @param panelWidth available panel width
+     * @param panelHeight available panel height
+     */
+    private void swapDataLayer(final int panelWidth, final int panelHeight) {
+        try {
+            final Image buffer = (Image) bufferField.get(this);
+
+            DataLayer current = null;
+            if (buffer != null && this.bufferVersion == this.layerVersion) {
+                current = new DataLayer(getChart(), this.layerVersion, this.bufferPanelWidth, this.bufferPanelHeight,
+                        buffer, bufferWidthField.getInt(this), bufferHeightField.getInt(this),
+                        new AreaInfo(getChartRenderingInfo()), getRenderedItemCounts(getChart()));
+            }
+
+            final DataLayer layer = this.spareLayer;
+            if (layer != null && layer.matches(getChart(), this.layerVersion, panelWidth, panelHeight)) {
+                bufferField.set(this, layer.buffer);
+                bufferWidthField.setInt(this, layer.bufferWidth);
+                bufferHeightField.setInt(this, layer.bufferHeight);
+                layer.areaInfo.restore(getChartRenderingInfo());
+                restoreRenderedItemCounts(getChart(), layer.renderedItemCounts);
+
+                logger.debug("swapDataLayer: reuse data layer [{} x {}]", panelWidth, panelHeight);
+
+                // no chart progress event as the chart is not drawn:
+                if (this.dataLayerListener != null) {
+                    this.dataLayerListener.chartProgress(
+                            new ChartProgressEvent(this, getChart(), ChartProgressEvent.DRAWING_FINISHED, 100));
+                }
+            }
+            this.spareLayer = current;
+
+        } catch (IllegalAccessException iae) {
+            logger.error("unable to access ChartPanel.chartBuffer", iae);
+            this.spareLayer = null;
+        } catch (IllegalArgumentException iae) {
+            logger.error("unable to access ChartPanel.chartBuffer", iae);
+            this.spareLayer = null;
+        }
+    }
+
+    /**
+     * Define the optional listener notified (DRAWING_FINISHED) when a data layer is restored instead of drawing the chart
+     * (rendered item counts of FastXYLineAndShapeRenderer are restored)
+     * @param listener chart progress listener or null
+     */
+    public final void setDataLayerListener(final ChartProgressListener listener) {
+        this.dataLayerListener = listener;
+    }
+
+    /**
+     * Return the rendered item counts of all FastXYLineAndShapeRenderer instances of the given chart
+     * @param chart chart
+     * @return rendered item counts
+     */
+    private static int[] getRenderedItemCounts(final JFreeChart chart) {
+        final List<FastXYLineAndShapeRenderer> renderers = getRenderers(chart);
+        final int[] counts = new int[renderers.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = renderers.get(i).getRenderedItemCount();
+        }
+        return counts;
+    }
+
+    /**
+     * Restore the rendered item counts of all FastXYLineAndShapeRenderer instances of the given chart
+     * @param chart chart
+     * @param counts rendered item counts
+     */
+    private static void restoreRenderedItemCounts(final JFreeChart chart, final int[] counts) {
+        final List<FastXYLineAndShapeRenderer> renderers = getRenderers(chart);
+        // same chart version (same renderers):
+        for (int i = 0, len = Math.min(counts.length, renderers.size()); i < len; i++) {
+            renderers.get(i).setRenderedItemCount(counts[i]);
+        }
+    }
+
+    /**
+     * Return all FastXYLineAndShapeRenderer instances of the given chart (subplots included)
+     * @param chart chart
+     * @return FastXYLineAndShapeRenderer instances
+     */
+    private static List<FastXYLineAndShapeRenderer> getRenderers(final JFreeChart chart) {
+        final List<FastXYLineAndShapeRenderer> renderers = new ArrayList<FastXYLineAndShapeRenderer>(4);
+        final Plot plot = chart.getPlot();
+        if (plot instanceof CombinedDomainXYPlot) {
+            for (Object subPlot : ((CombinedDomainXYPlot) plot).getSubplots()) {
+                addRenderers((XYPlot) subPlot, renderers);
+            }
+        } else if (plot instanceof CombinedRangeXYPlot) {
+            for (Object subPlot : ((CombinedRangeXYPlot) plot).getSubplots()) {
+                addRenderers((XYPlot) subPlot, renderers);
+            }
+        } else if (plot instanceof XYPlot) {
+            addRenderers((XYPlot) plot, renderers);
+        }
+        return renderers;
+    }
+
+    private static void addRenderers(final XYPlot plot, final List<FastXYLineAndShapeRenderer> renderers) {
+        for (int i = 0, len = plot.getRendererCount(); i < len; i++) {
+            if (plot.getRenderer(i) instanceof FastXYLineAndShapeRenderer) {
+                renderers.add((FastXYLineAndShapeRenderer) plot.getRenderer(i));
+            }
+        }
+    }
+
     /**
      * Enables or disables mouse wheel support for the panel.
      * Note that this method does nothing when running JFreeChart on JRE 1.3.1,
@@ -144,6 +319,19 @@ public class EnhancedChartPanel extends ChartPanel {
     }
 
 
+    private static Field getChartPanelField(final String name) {
+        final Field field = IntrospectionUtils.getField(ChartPanel.class, name);
+        if (field != null) {
+            try {
+                field.setAccessible(true);
+            } catch (SecurityException se) {
+                logger.error("unable to call Field.setAccessible() for ChartPanel.{}", name, se);
+                return null;
+            }
+        }
+        return field;
+    }
+
     /* MouseListener implementation */
     /**
      * Receives notification of mouse clicks on the panel (pressed and released).
@@ -366,4 +554,106 @@ public class EnhancedChartPanel extends ChartPanel {
             this.mouseRectangularSelectionEventListener = null;
         }
     }
+
+    /**
+     * Data layer = chart buffer rendered for a given chart state and panel size
+     */
+    private final static class DataLayer {
+
+        /** chart */
+        final JFreeChart chart;
+        /** data layer version */
+        final int version;
+        /** available panel width */
+        final int panelWidth;
+        /** available panel height */
+        final int panelHeight;
+        /** chart buffer */
+        final Image buffer;
+        /** chart buffer width */
+        final int bufferWidth;
+        /** chart buffer height */
+        final int bufferHeight;
+        /** rendering areas */
+        final AreaInfo areaInfo;
+        /** rendered item counts (FastXYLineAndShapeRenderer instances) */
+        final int[] renderedItemCounts;
+
+        DataLayer(final JFreeChart chart, final int version, final int panelWidth, final int panelHeight,
+                  final Image buffer, final int bufferWidth, final int bufferHeight, final AreaInfo areaInfo,
+                  final int[] renderedItemCounts) {
+            this.chart = chart;
+            this.version = version;
+            this.panelWidth = panelWidth;
+            this.panelHeight = panelHeight;
+            this.buffer = buffer;
+            this.bufferWidth = bufferWidth;
+            this.bufferHeight = bufferHeight;
+            this.areaInfo = areaInfo;
+            this.renderedItemCounts = renderedItemCounts;
+        }
+
+        boolean matches(final JFreeChart chart, final int version, final int panelWidth, final int panelHeight) {
+            return (this.chart == chart) && (this.version == version)
+                    && (this.panelWidth == panelWidth) && (this.panelHeight == panelHeight);
+        }
+    }
+
+    /**
+     * Copy of the chart and plot areas (ChartRenderingInfo) used by overlays and mouse handlers
+     */
+    private final static class AreaInfo {
+
+        /** chart or plot area */
+        private final Rectangle2D area;
+        /** data area (plot only) */
+        private final Rectangle2D dataArea;
+        /** plot or subplot areas */
+        private final AreaInfo[] subInfos;
+
+        AreaInfo(final ChartRenderingInfo info) {
+            this.area = copy(info.getChartArea());
+            this.dataArea = null;
+            this.subInfos = new AreaInfo[]{new AreaInfo(info.getPlotInfo())};
+        }
+
+        AreaInfo(final PlotRenderingInfo info) {
+            this.area = copy(info.getPlotArea());
+            this.dataArea = copy(info.getDataArea());
+
+            final int len = info.getSubplotCount();
+            this.subInfos = new AreaInfo[len];
+            for (int i = 0; i < len; i++) {
+                this.subInfos[i] = new AreaInfo(info.getSubplotInfo(i));
+            }
+        }
+
+        void restore(final ChartRenderingInfo info) {
+            // reset plot info (and subplots):
+            info.clear();
+            if (this.area != null) {
+                info.setChartArea(copy(this.area));
+            }
+            this.subInfos[0].restore(info.getPlotInfo());
+        }
+
+        private void restore(final PlotRenderingInfo info) {
+            if (this.area != null) {
+                info.setPlotArea(copy(this.area));
+            }
+            if (this.dataArea != null) {
+                info.setDataArea(copy(this.dataArea));
+            }
+
+            for (AreaInfo subInfo : this.subInfos) {
+                final PlotRenderingInfo subplotInfo = new PlotRenderingInfo(info.getOwner());
+                subInfo.restore(subplotInfo);
+                info.addSubplotInfo(subplotInfo);
+            }
+        }
+
+        private static Rectangle2D copy(final Rectangle2D rect) {
+            return (rect != null) ? (Rectangle2D) rect.clone() : null;
+        }
+    }
 }
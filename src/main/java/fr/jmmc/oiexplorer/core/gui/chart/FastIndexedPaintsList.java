@@ -3,15 +3,14 @@
  ******************************************************************************/
 package fr.jmmc.oiexplorer.core.gui.chart;
 
-import java.awt.Shape;
-import org.jfree.chart.util.ShapeUtils;
+import org.jfree.chart.util.ObjectUtils;
 
 /**
- * A table of {@link Shape[]} objects.
+ * A table of {@link IndexedPaints} objects.
  *
  * @author bourgesl
  */
-public final class FastItemShapesList extends FastAbstractObjectList {
+public final class FastIndexedPaintsList extends FastAbstractObjectList {
 
     /** default serial UID for Serializable interface */
     private static final long serialVersionUID = 1;
@@ -19,30 +18,30 @@ public final class FastItemShapesList extends FastAbstractObjectList {
     /**
      * Creates a new list.
      */
-    public FastItemShapesList() {
+    public FastIndexedPaintsList() {
         super();
     }
 
     /**
-     * Returns a {@link Shape[]} object from the list.
+     * Returns a {@link IndexedPaints} object from the list.
      *
      * @param index the index (zero-based).
      *
      * @return The object.
      */
-    public Shape[] getItemShapes(final int index) {
-        return (Shape[]) get(index);
+    public IndexedPaints getItemPaints(final int index) {
+        return (IndexedPaints) get(index);
     }
 
     /**
-     * Sets the {@link Shape[]} for an item in the list.  The list is expanded
+     * Sets the {@link IndexedPaints} for an item in the list.  The list is expanded
      * if necessary.
      *
      * @param index  the index (zero-based).
-     * @param itemShapes  the {@link Shape[]}.
+     * @param itemPaints  the {@link IndexedPaints}.
      */
-    public void setItemShapes(final int index, final Shape[] itemShapes) {
-        set(index, itemShapes);
+    public void setItemPaints(final int index, final IndexedPaints itemPaints) {
+        set(index, itemPaints);
     }
 
     /**
@@ -70,43 +69,19 @@ public final class FastItemShapesList extends FastAbstractObjectList {
         if (obj == this) {
             return true;
         }
-        if (!(obj instanceof FastItemShapesList)) {
+        if (!(obj instanceof FastIndexedPaintsList)) {
             return false;
         }
-        FastItemShapesList that = (FastItemShapesList) obj;
+        FastIndexedPaintsList that = (FastIndexedPaintsList) obj;
         int listSize = size();
         for (int i = 0; i < listSize; i++) {
-            if (!equals((Shape[]) get(i), (Shape[]) that.get(i))) {
+            if (!ObjectUtils.equal(get(i), that.get(i))) {
                 return false;
             }
         }
         return true;
     }
 
-    private static boolean equals(Shape[] a, Shape[] a2) {
-        if (a == a2) {
-            return true;
-        }
-        if (a == null || a2 == null) {
-            return false;
-        }
-
-        int length = a.length;
-        if (a2.length != length) {
-            return false;
-        }
-
-        for (int i = 0; i < length; i++) {
-            Shape o1 = a[i];
-            Shape o2 = a2[i];
-            if (!(o1 == null ? o2 == null : ShapeUtils.equal(o1, o2))) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     /**
      * Returns a hash code value for the object.
      *
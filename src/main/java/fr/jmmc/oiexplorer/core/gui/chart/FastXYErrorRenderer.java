@@ -17,7 +17,6 @@ import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.plot.PlotRenderingInfo;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYItemRendererState;
-import org.jfree.chart.ui.RectangleEdge;
 import org.jfree.chart.util.ObjectUtils;
 import org.jfree.chart.util.PaintUtils;
 import org.jfree.chart.util.SerialUtils;
@@ -34,6 +33,8 @@ public final class FastXYErrorRenderer extends FastXYLineAndShapeRenderer {
 
     /** default serial UID for Serializable interface */
     private static final long serialVersionUID = 1L;
+    /** minimum error bar length (pixels) to draw caps */
+    private static final double MIN_CAP_BAR_LENGTH = 2.0;
 
     /* member */
     /** A flag that controls whether or not the x-error bars are drawn. */
@@ -264,28 +265,33 @@ public final class FastXYErrorRenderer extends FastXYLineAndShapeRenderer {
                          final ValueAxis domainAxis, final ValueAxis rangeAxis, final XYDataset dataset,
                          final int series, final int item, final CrosshairState crosshairState, final int pass) {
 
-        if (isLinePass(pass) && (drawYError || drawXError) && dataset instanceof IntervalXYDataset) {
-            final IntervalXYDataset ixyd = (IntervalXYDataset) dataset;
+        final FastXYLineAndShapeRenderer.State state = (FastXYLineAndShapeRenderer.State) renderState;
 
-            final FastXYLineAndShapeRenderer.State state = (FastXYLineAndShapeRenderer.State) renderState;
+        // do nothing if items are painted as a density image or decimated (level-of-detail):
+        if (!state.isItemVisible(series, item)) {
+            return;
+        }
 
+        if (isLinePass(pass) && (drawYError || drawXError) && dataset instanceof IntervalXYDataset) {
             final PlotOrientation orientation = plot.getOrientation();
 
-            final RectangleEdge xAxisLocation = state.xAxisLocation;
-            final RectangleEdge yAxisLocation = state.yAxisLocation;
+            // screen coordinates (and intervals) computed once per series pass (NaN values give NaN):
+            state.prepareIntervalTransforms(domainAxis, rangeAxis, dataArea, drawXError, drawYError);
 
             final double adj = (this.useCap) ? 0.5d * this.getCapLength() : 0d;
-            
+
+            // opaque error bars are batched per paint if antialiasing is disabled (rendered at the end of the
+            // series pass or before connecting lines), other error bars are drawn one by one:
+            final PathBatches batches = state.errorBatches;
+            boolean full = false;
+
             if (drawXError) {
                 // draw the error bar for the x-interval
-                final double x0 = ixyd.getStartXValue(series, item);
-                final double x1 = ixyd.getEndXValue(series, item);
-                final double y = ixyd.getYValue(series, item);
+                double xx0 = state.transXStart[item];
+                double xx1 = state.transXEnd[item];
+                final double yy = state.transY[item];
 
-                if (!Double.isNaN(x0) && !Double.isNaN(x1) && !Double.isNaN(y)) {
-                    double xx0 = domainAxis.valueToJava2D(x0, dataArea, xAxisLocation);
-                    double xx1 = domainAxis.valueToJava2D(x1, dataArea, xAxisLocation);
-                    double yy = rangeAxis.valueToJava2D(y, dataArea, yAxisLocation);
+                if (!Double.isNaN(xx0) && !Double.isNaN(xx1) && !Double.isNaN(yy)) {
 
                     if (orientation == PlotOrientation.VERTICAL) {
                         // clipping checks:
@@ -296,16 +302,13 @@ public final class FastXYErrorRenderer extends FastXYLineAndShapeRenderer {
                             xx0 = crop(xx0, minX, maxX);
                             xx1 = crop(xx1, minX, maxX);
 
-                            setPaintAndStroke(g2, series, item);
+                            final Paint paint = prepareErrorBatch(batches, series, item);
 
-                            state.workingLine.setLine(xx0, yy, xx1, yy);
-                            g2.draw(state.workingLine);
+                            full |= batches.appendLine(paint, xx0, yy, xx1, yy);
 
-                            if (this.useCap) {
-                                state.workingLine.setLine(xx0, yy - adj, xx0, yy + adj);
-                                g2.draw(state.workingLine);
-                                state.workingLine.setLine(xx1, yy - adj, xx1, yy + adj);
-                                g2.draw(state.workingLine);
+                            if (this.useCap && isCapVisible(xx0, xx1)) {
+                                batches.appendLine(paint, xx0, yy - adj, xx0, yy + adj);
+                                full |= batches.appendLine(paint, xx1, yy - adj, xx1, yy + adj);
                             }
                         }
                     } else {
@@ -318,32 +321,26 @@ public final class FastXYErrorRenderer extends FastXYLineAndShapeRenderer {
                             xx0 = crop(xx0, minX, maxX);
                             xx1 = crop(xx1, minX, maxX);
 
-                            setPaintAndStroke(g2, series, item);
+                            final Paint paint = prepareErrorBatch(batches, series, item);
 
-                            state.workingLine.setLine(yy, xx0, yy, xx1);
-                            g2.draw(state.workingLine);
+                            full |= batches.appendLine(paint, yy, xx0, yy, xx1);
 
-                            if (this.useCap) {
-                                state.workingLine.setLine(yy - adj, xx0, yy + adj, xx0);
-                                g2.draw(state.workingLine);
-                                state.workingLine.setLine(yy - adj, xx1, yy + adj, xx1);
-                                g2.draw(state.workingLine);
+                            if (this.useCap && isCapVisible(xx0, xx1)) {
+                                batches.appendLine(paint, yy - adj, xx0, yy + adj, xx0);
+                                full |= batches.appendLine(paint, yy - adj, xx1, yy + adj, xx1);
                             }
                         }
                     }
                 }
             }
-            
+
             if (drawYError) {
                 // draw the error bar for the y-interval
-                final double y0 = ixyd.getStartYValue(series, item);
-                final double y1 = ixyd.getEndYValue(series, item);
-                final double x = ixyd.getXValue(series, item);
+                double yy0 = state.transYStart[item];
+                double yy1 = state.transYEnd[item];
+                final double xx = state.transX[item];
 
-                if (!Double.isNaN(y0) && !Double.isNaN(y1) && !Double.isNaN(x)) {
-                    double yy0 = rangeAxis.valueToJava2D(y0, dataArea, yAxisLocation);
-                    double yy1 = rangeAxis.valueToJava2D(y1, dataArea, yAxisLocation);
-                    double xx = domainAxis.valueToJava2D(x, dataArea, xAxisLocation);
+                if (!Double.isNaN(yy0) && !Double.isNaN(yy1) && !Double.isNaN(xx)) {
 
                     if (orientation == PlotOrientation.VERTICAL) {
                         // clipping:
@@ -354,16 +351,13 @@ public final class FastXYErrorRenderer extends FastXYLineAndShapeRenderer {
                             yy0 = crop(yy0, minY, maxY);
                             yy1 = crop(yy1, minY, maxY);
 
-                            setPaintAndStroke(g2, series, item);
+                            final Paint paint = prepareErrorBatch(batches, series, item);
 
-                            state.workingLine.setLine(xx, yy0, xx, yy1);
-                            g2.draw(state.workingLine);
+                            full |= batches.appendLine(paint, xx, yy0, xx, yy1);
 
-                            if (this.useCap) {
-                                state.workingLine.setLine(xx - adj, yy0, xx + adj, yy0);
-                                g2.draw(state.workingLine);
-                                state.workingLine.setLine(xx - adj, yy1, xx + adj, yy1);
-                                g2.draw(state.workingLine);
+                            if (this.useCap && isCapVisible(yy0, yy1)) {
+                                batches.appendLine(paint, xx - adj, yy0, xx + adj, yy0);
+                                full |= batches.appendLine(paint, xx - adj, yy1, xx + adj, yy1);
                             }
                         }
                     } else {
@@ -376,39 +370,47 @@ public final class FastXYErrorRenderer extends FastXYLineAndShapeRenderer {
                             yy0 = crop(yy0, minY, maxY);
                             yy1 = crop(yy1, minY, maxY);
 
-                            setPaintAndStroke(g2, series, item);
+                            final Paint paint = prepareErrorBatch(batches, series, item);
 
-                            state.workingLine.setLine(yy0, xx, yy1, xx);
-                            g2.draw(state.workingLine);
+                            full |= batches.appendLine(paint, yy0, xx, yy1, xx);
 
-                            if (this.useCap) {
-                                state.workingLine.setLine(yy0, xx - adj, yy0, xx + adj);
-                                g2.draw(state.workingLine);
-                                state.workingLine.setLine(yy1, xx - adj, yy1, xx + adj);
-                                g2.draw(state.workingLine);
+                            if (this.useCap && isCapVisible(yy0, yy1)) {
+                                batches.appendLine(paint, yy0, xx - adj, yy0, xx + adj);
+                                full |= batches.appendLine(paint, yy1, xx - adj, yy1, xx + adj);
                             }
                         }
                     }
                 }
             }
+            // render pending error bars before the connecting line (drawn over error bars):
+            if (full || isLinesVisible()) {
+                state.flushBatches();
+            }
         }
         super.drawItem(g2, renderState, dataArea, info, plot, domainAxis, rangeAxis, dataset, series, item, crosshairState, pass);
     }
 
-    private void setPaintAndStroke(final Graphics2D g2, final int series, final int item) {
-        final Paint paint = this.errorPaint;
-        final Stroke stroke = this.errorStroke;
+    /**
+     * Prepare the error bar batches (stroke) and return the paint of the given item
+     * @param batches error bar batches
+     * @param series the series index
+     * @param item the item index
+     * @return error paint or item paint
+     */
+    private Paint prepareErrorBatch(final PathBatches batches, final int series, final int item) {
+        batches.setStroke((this.errorStroke != null) ? this.errorStroke : getItemStroke(series, item));
 
-        if (paint != null) {
-            g2.setPaint(paint);
-        } else {
-            g2.setPaint(getItemPaint(series, item));
-        }
-        if (stroke != null) {
-            g2.setStroke(stroke);
-        } else {
-            g2.setStroke(getItemStroke(series, item));
-        }
+        return (this.errorPaint != null) ? this.errorPaint : getItemPaint(series, item);
+    }
+
+    /**
+     * Return true if caps should be drawn for the given error bar (too short bars look like blobs)
+     * @param v0 starting coordinate (Java2D)
+     * @param v1 ending coordinate (Java2D)
+     * @return true if the error bar is long enough
+     */
+    private static boolean isCapVisible(final double v0, final double v1) {
+        return Math.abs(v1 - v0) >= MIN_CAP_BAR_LENGTH;
     }
 
     private double crop(final double value, final double min, final double max) {
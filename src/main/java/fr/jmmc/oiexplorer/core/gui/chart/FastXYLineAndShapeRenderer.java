@@ -3,6 +3,10 @@
  ******************************************************************************/
 package fr.jmmc.oiexplorer.core.gui.chart;
 
+import fr.jmmc.jmal.image.ColorModels;
+import fr.jmmc.oiexplorer.core.gui.chart.dataset.DatasetDensityView;
+import fr.jmmc.oiexplorer.core.gui.chart.dataset.DatasetLODView;
+import fr.jmmc.oiexplorer.core.gui.chart.dataset.FastIntervalXYDataset;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Paint;
@@ -14,6 +18,8 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.Line2D;
 import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -32,6 +38,7 @@ import org.jfree.chart.renderer.xy.XYItemRendererState;
 import org.jfree.chart.ui.RectangleEdge;
 import org.jfree.chart.util.LineUtils;
 import org.jfree.chart.util.ObjectUtils;
+import org.jfree.data.xy.IntervalXYDataset;
 import org.jfree.data.xy.XYDataset;
 import org.jfree.chart.util.PublicCloneable;
 import org.jfree.chart.util.SerialUtils;
@@ -58,6 +65,10 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
     private static final boolean useShapeIntersection = false;
     /** flag to show entity area (i.e. stroked line area) */
     private static final boolean debugEntityArea = false;
+    /** default number of items above which the density mode is used */
+    public static final int DEFAULT_DENSITY_THRESHOLD = 1000000;
+    /** number of items above which the density mode is used (0 to disable) */
+    private static volatile int densityThreshold = DEFAULT_DENSITY_THRESHOLD;
     /**
      * A flag that controls whether or not lines are visible for ALL series.
      */
@@ -89,16 +100,26 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
      * path.
      */
     private boolean drawSeriesLineAsPath;
-    /** item shapes list */
-    private final FastItemShapesList itemShapesList;
     /** The paint list. */
     private final FastPaintList paintList;
-    /** item paints list */
-    private final FastItemPaintsList itemPaintsList;
+    /** item paints list (color indexes and palette per series) */
+    private final FastIndexedPaintsList itemPaintsList;
     /** number of visible items */
     private transient int renderedItemCount = 0;
     /** flag indicating to use a step line instead of straight line */
     private boolean useStepLine;
+    /** flag indicating to decimate items of long series (level-of-detail: line, shape and error envelopes per pixel column) */
+    private boolean useDecimation = false;
+    /** level-of-detail view of the last rendered dataset */
+    private transient DatasetLODView lodView = null;
+    /** flag indicating to paint a density image (2D histogram) instead of items when the dataset is too large */
+    private boolean useDensity = false;
+    /** color model used to paint the density image */
+    private transient IndexColorModel densityColorModel = ColorModels.getColorModel(ColorModels.COLOR_MODEL_ASPRO_ISOPHOT);
+    /** density view of the last rendered dataset */
+    private transient DatasetDensityView densityView = null;
+    /** shape used to represent invalid items (flagged or invalid error) given by the dataset item flags (null to use the default shape) */
+    private transient Shape invalidItemShape = null;
 
     /**
      * Creates a new renderer with both lines and shapes visible.
@@ -131,12 +152,11 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
 
         // paint and shape lists:
         paintList = new FastPaintList();
-        itemShapesList = new FastItemShapesList();
-        itemPaintsList = new FastItemPaintsList();
+        itemPaintsList = new FastIndexedPaintsList();
     }
 
     /**
-     * Increases the capacity of the paint and item shapes lists, if
+     * Increases the capacity of the paint and item paints lists, if
      * necessary, to ensure that it can hold at least the number of elements
      * specified by the minimum capacity argument.
      *
@@ -144,7 +164,6 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
      */
     public void ensureCapacity(final int minCapacity) {
         paintList.ensureCapacity(minCapacity);
-        itemShapesList.ensureCapacity(minCapacity);
         itemPaintsList.ensureCapacity(minCapacity);
     }
 
@@ -427,6 +446,92 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
         fireChangeEvent();
     }
 
+    /**
+     * Return the flag indicating to decimate items of long series (level-of-detail)
+     * @return true to decimate items of long series
+     */
+    public boolean isUseDecimation() {
+        return useDecimation;
+    }
+
+    /**
+     * Define the flag indicating to decimate items of long series (level-of-detail): lines, shapes and error bars
+     * are only drawn for the first, last, min and max items (and the items with the widest error bounds)
+     * per pixel column and sends a {@link RendererChangeEvent} to all registered listeners.
+     * @see DatasetLODView
+     * @param useDecimation true to decimate items of long series
+     */
+    public void setUseDecimation(final boolean useDecimation) {
+        this.useDecimation = useDecimation;
+        this.lodView = null;
+        fireChangeEvent();
+    }
+
+    /**
+     * Return the flag indicating to paint a density image instead of items when the dataset is too large
+     * @return true to use the density mode
+     */
+    public boolean isUseDensity() {
+        return useDensity;
+    }
+
+    /**
+     * Define the flag indicating to paint a density image (2D histogram at screen resolution) instead of items
+     * when the dataset has more items than the density threshold
+     * and sends a {@link RendererChangeEvent} to all registered listeners.
+     * @param useDensity true to use the density mode
+     */
+    public void setUseDensity(final boolean useDensity) {
+        this.useDensity = useDensity;
+        this.densityView = null;
+        fireChangeEvent();
+    }
+
+    /**
+     * Return the shape used to represent invalid items (flagged or invalid error)
+     * @return shape or null to use the default shape
+     */
+    public Shape getInvalidItemShape() {
+        return invalidItemShape;
+    }
+
+    /**
+     * Define the shape used to represent invalid items (flagged or invalid error) given by the
+     * {@link FastIntervalXYDataset} item flags
+     * and sends a {@link RendererChangeEvent} to all registered listeners.
+     * @param shape shape or null to use the default shape
+     */
+    public void setInvalidItemShape(final Shape shape) {
+        this.invalidItemShape = shape;
+        fireChangeEvent();
+    }
+
+    /**
+     * Define the color model used to paint the density image
+     * and sends a {@link RendererChangeEvent} to all registered listeners.
+     * @param colorModel color model
+     */
+    public void setDensityColorModel(final IndexColorModel colorModel) {
+        this.densityColorModel = colorModel;
+        fireChangeEvent();
+    }
+
+    /**
+     * Return the number of items above which the density mode is used
+     * @return number of items (0 means disabled)
+     */
+    public static int getDensityThreshold() {
+        return densityThreshold;
+    }
+
+    /**
+     * Define the number of items above which the density mode is used (all renderers)
+     * @param threshold number of items (0 to disable)
+     */
+    public static void setDensityThreshold(final int threshold) {
+        densityThreshold = threshold;
+    }
+
     /**
      * Records the state for the renderer.  This is used to preserve state
      * information between calls to the drawItem() method for a single chart
@@ -469,6 +574,13 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
                 this.seriesPath.reset();
             }
             this.lastPointGood = false;
+            // screen coordinates are computed lazily:
+            this.passDataset = dataset;
+            this.passSeries = series;
+            this.passFirstItem = firstItem;
+            this.passLastItem = lastItem;
+            this.transformed = false;
+            this.intervalsTransformed = false;
             super.startSeriesPass(dataset, series, firstItem, lastItem, pass, passCount);
         }
         /** cached Translate Graphics2D AffineTransform */
@@ -477,6 +589,165 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
         transient RectangleEdge xAxisLocation;
         /** cached yAxis location */
         transient RectangleEdge yAxisLocation;
+        /** optional level-of-detail view (decimated series) */
+        transient DatasetLODView lodView;
+        /** flag indicating that items are painted as a density image (no item drawn) */
+        transient boolean densityMode;
+        /** domain axis transform (lazy) */
+        transient AxisTransform xTransform;
+        /** range axis transform (lazy) */
+        transient AxisTransform yTransform;
+        /** dataset of the current series pass */
+        transient XYDataset passDataset;
+        /** series of the current series pass */
+        transient int passSeries;
+        /** first item of the current series pass */
+        transient int passFirstItem;
+        /** last item of the current series pass */
+        transient int passLastItem;
+        /** flag indicating that item coordinates are computed for the current series pass */
+        transient boolean transformed;
+        /** flag indicating that item interval coordinates are computed for the current series pass */
+        transient boolean intervalsTransformed;
+        /** item x coordinates (Java2D) of the current series pass */
+        transient double[] transX;
+        /** item y coordinates (Java2D) of the current series pass */
+        transient double[] transY;
+        /** item start x coordinates (Java2D) of the current series pass */
+        transient double[] transXStart;
+        /** item end x coordinates (Java2D) of the current series pass */
+        transient double[] transXEnd;
+        /** item start y coordinates (Java2D) of the current series pass */
+        transient double[] transYStart;
+        /** item end y coordinates (Java2D) of the current series pass */
+        transient double[] transYEnd;
+        /** error bars (opaque error bars are batched per paint if antialiasing is disabled) */
+        transient PathBatches errorBatches;
+
+        /**
+         * This method is called by the {@link XYPlot} at the end of each
+         * series pass: render the batched error bars.
+         *
+         * @param dataset  the dataset.
+         * @param series  the series index.
+         * @param firstItem  the first item index for this pass.
+         * @param lastItem  the last item index for this pass.
+         * @param pass  the current pass index.
+         * @param passCount  the number of passes.
+         */
+        @Override
+        public void endSeriesPass(XYDataset dataset, int series,
+                                  int firstItem, int lastItem, int pass, int passCount) {
+            flushBatches();
+            super.endSeriesPass(dataset, series, firstItem, lastItem, pass, passCount);
+        }
+
+        /**
+         * Compute once the screen coordinates (transX, transY) of all items of the current series pass
+         * @param domainAxis the domain axis
+         * @param rangeAxis the range axis
+         * @param dataArea the area within which the data is being drawn
+         */
+        final void prepareTransforms(final ValueAxis domainAxis, final ValueAxis rangeAxis, final Rectangle2D dataArea) {
+            if (!this.transformed) {
+                this.transformed = true;
+
+                if (this.xTransform == null) {
+                    this.xTransform = new AxisTransform(domainAxis, dataArea, this.xAxisLocation);
+                    this.yTransform = new AxisTransform(rangeAxis, dataArea, this.yAxisLocation);
+                }
+                final int len = this.passLastItem + 1;
+                if ((this.transX == null) || (this.transX.length < len)) {
+                    this.transX = new double[len];
+                    this.transY = new double[len];
+                }
+                final XYDataset dataset = this.passDataset;
+                final int series = this.passSeries;
+                final AxisTransform xt = this.xTransform;
+                final AxisTransform yt = this.yTransform;
+                final double[] tx = this.transX;
+                final double[] ty = this.transY;
+
+                for (int item = this.passFirstItem; item < len; item++) {
+                    tx[item] = xt.toJava2D(dataset.getXValue(series, item));
+                    ty[item] = yt.toJava2D(dataset.getYValue(series, item));
+                }
+            }
+        }
+
+        /**
+         * Compute once the screen coordinates (transX, transY and intervals) of all items of the current series pass
+         * @param domainAxis the domain axis
+         * @param rangeAxis the range axis
+         * @param dataArea the area within which the data is being drawn
+         * @param useX true to compute x intervals (transXStart, transXEnd)
+         * @param useY true to compute y intervals (transYStart, transYEnd)
+         */
+        final void prepareIntervalTransforms(final ValueAxis domainAxis, final ValueAxis rangeAxis, final Rectangle2D dataArea,
+                                             final boolean useX, final boolean useY) {
+            prepareTransforms(domainAxis, rangeAxis, dataArea);
+
+            if (!this.intervalsTransformed) {
+                this.intervalsTransformed = true;
+
+                final int len = this.passLastItem + 1;
+                final IntervalXYDataset dataset = (IntervalXYDataset) this.passDataset;
+                final int series = this.passSeries;
+
+                if (useX) {
+                    if ((this.transXStart == null) || (this.transXStart.length < len)) {
+                        this.transXStart = new double[len];
+                        this.transXEnd = new double[len];
+                    }
+                    final AxisTransform xt = this.xTransform;
+                    for (int item = this.passFirstItem; item < len; item++) {
+                        this.transXStart[item] = xt.toJava2D(dataset.getStartXValue(series, item));
+                        this.transXEnd[item] = xt.toJava2D(dataset.getEndXValue(series, item));
+                    }
+                }
+                if (useY) {
+                    if ((this.transYStart == null) || (this.transYStart.length < len)) {
+                        this.transYStart = new double[len];
+                        this.transYEnd = new double[len];
+                    }
+                    final AxisTransform yt = this.yTransform;
+                    for (int item = this.passFirstItem; item < len; item++) {
+                        this.transYStart[item] = yt.toJava2D(dataset.getStartYValue(series, item));
+                        this.transYEnd[item] = yt.toJava2D(dataset.getEndYValue(series, item));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Render all batched error bars
+         */
+        final void flushBatches() {
+            if (this.errorBatches != null) {
+                this.errorBatches.flush();
+            }
+        }
+
+        /**
+         * Return true if the given item is drawn (not in density mode and not decimated by the level-of-detail view):
+         * line segment ending at the given item, shape and error bars
+         * @param series the series index (zero-based)
+         * @param item the item index (zero-based)
+         * @return true if the given item is drawn
+         */
+        final boolean isItemVisible(final int series, final int item) {
+            return !this.densityMode && ((this.lodView == null) || this.lodView.isItemVisible(series, item));
+        }
+
+        /**
+         * Return the previous line item (level-of-detail) to draw line segments
+         * @param series the series index (zero-based)
+         * @param item the item index (zero-based)
+         * @return previous visible item or -1 if none
+         */
+        final int getPreviousVisibleItem(final int series, final int item) {
+            return (this.lodView == null) ? item - 1 : this.lodView.getPreviousVisibleItem(series, item);
+        }
     }
 
     /**
@@ -509,12 +780,61 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
         state.setProcessVisibleItemsOnly(false);
 
         state.g2AT = g2.getTransform();
+        // translucent error bars are drawn one by one (alpha accumulation as overlapping items, faster than a single
+        // filled path per paint) and opaque error bars are only batched without antialiasing (see PathBatches):
+        state.errorBatches = new PathBatches(g2, true);
         state.xAxisLocation = plot.getDomainAxisEdge();
         state.yAxisLocation = plot.getRangeAxisEdge();
 
         // TODO: move it into state but no way to get it from ChartRenderingInfo ...
         this.renderedItemCount = 0;
 
+        // density mode (too many items):
+        state.densityMode = false;
+        if (this.useDensity && (densityThreshold > 0) && (data instanceof FastIntervalXYDataset)) {
+            if ((this.densityView == null) || !this.densityView.isViewOf(data)) {
+                this.densityView = new DatasetDensityView((FastIntervalXYDataset<?, ?>) data);
+            }
+            if (this.densityView.getTotalItemCount() > densityThreshold) {
+                final int index = plot.indexOf(data);
+                final ValueAxis domainAxis = plot.getDomainAxisForDataset(index);
+                final ValueAxis rangeAxis = plot.getRangeAxisForDataset(index);
+
+                if ((domainAxis != null) && (rangeAxis != null)) {
+                    state.densityMode = true;
+
+                    final BufferedImage image = this.densityView.getImage(domainAxis, rangeAxis, dataArea,
+                            state.xAxisLocation, state.yAxisLocation, plot.getOrientation(), this.densityColorModel);
+
+                    if (image != null) {
+                        g2.drawImage(image, (int) dataArea.getMinX(), (int) dataArea.getMinY(), null);
+                    }
+                    this.renderedItemCount = this.densityView.getBinnedCount();
+                }
+            }
+        } else {
+            this.densityView = null;
+        }
+
+        // level-of-detail view of items (recomputed lazily on zoom):
+        state.lodView = null;
+        if (!state.densityMode && this.useDecimation && (data instanceof FastIntervalXYDataset)) {
+            if ((this.lodView == null) || !this.lodView.isViewOf(data)) {
+                this.lodView = new DatasetLODView((FastIntervalXYDataset<?, ?>) data);
+            }
+            final int index = plot.indexOf(data);
+            final ValueAxis domainAxis = plot.getDomainAxisForDataset(index);
+            final ValueAxis rangeAxis = plot.getRangeAxisForDataset(index);
+
+            if ((domainAxis != null) && (rangeAxis != null)
+                    && this.lodView.update(domainAxis, rangeAxis, dataArea, state.xAxisLocation, state.yAxisLocation,
+                            plot.getOrientation())) {
+                state.lodView = this.lodView;
+            }
+        } else {
+            this.lodView = null;
+        }
+
         return state;
     }
 
@@ -554,6 +874,10 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
         if (!getItemVisible(series, item)) {
             return;
         }
+        // do nothing if items are painted as a density image or decimated (level-of-detail):
+        if (!((FastXYLineAndShapeRenderer.State) state).isItemVisible(series, item)) {
+            return;
+        }
 
         // first pass draws the background (lines, for instance)
         if (isLinePass(pass)) {
@@ -639,31 +963,20 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
                                    ValueAxis rangeAxis,
                                    Rectangle2D dataArea,
                                    EntityCollection entities) {
-        if (item == 0) {
-            return;
-        }
-
-        // get the data point...
-        final double x1 = dataset.getXValue(series, item);
-        final double y1 = dataset.getYValue(series, item);
-        if (Double.isNaN(y1) || Double.isNaN(x1)) {
-            return;
-        }
-
-        final double x0 = dataset.getXValue(series, item - 1);
-        final double y0 = dataset.getYValue(series, item - 1);
-        if (Double.isNaN(y0) || Double.isNaN(x0)) {
+        // previous item (decimated items are skipped):
+        final int prevItem = state.getPreviousVisibleItem(series, item);
+        if (prevItem < 0) {
             return;
         }
 
-        final RectangleEdge xAxisLocation = state.xAxisLocation;
-        final RectangleEdge yAxisLocation = state.yAxisLocation;
+        // get the data points (screen coordinates computed once per series pass; NaN values give NaN):
+        state.prepareTransforms(domainAxis, rangeAxis, dataArea);
 
-        final double transX0 = domainAxis.valueToJava2D(x0, dataArea, xAxisLocation);
-        final double transY0 = rangeAxis.valueToJava2D(y0, dataArea, yAxisLocation);
+        final double transX0 = state.transX[prevItem];
+        final double transY0 = state.transY[prevItem];
 
-        final double transX1 = domainAxis.valueToJava2D(x1, dataArea, xAxisLocation);
-        final double transY1 = rangeAxis.valueToJava2D(y1, dataArea, yAxisLocation);
+        final double transX1 = state.transX[item];
+        final double transY1 = state.transY[item];
 
         // only draw if we have good values
         if (Double.isNaN(transX0) || Double.isNaN(transY0)
@@ -691,8 +1004,8 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
                     // calculate the step point
                     final double transXs = transX0 + 0.5 * (transX1 - transX0);
 
-                    g2.setStroke(getItemStroke(series, item - 1));
-                    g2.setPaint(getItemPaint(series, item - 1));
+                    g2.setStroke(getItemStroke(series, prevItem));
+                    g2.setPaint(getItemPaint(series, prevItem));
 
                     drawLine(g2, state.workingLine, transY0, transX0, transY0,
                             transXs, dataArea);
@@ -710,8 +1023,8 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
                     // calculate the step point
                     final double transXs = transX0 + 0.5 * (transX1 - transX0);
 
-                    g2.setStroke(getItemStroke(series, item - 1));
-                    g2.setPaint(getItemPaint(series, item - 1));
+                    g2.setStroke(getItemStroke(series, prevItem));
+                    g2.setPaint(getItemPaint(series, prevItem));
 
                     drawLine(g2, state.workingLine, transX0, transY0, transXs,
                             transY0, dataArea);
@@ -808,16 +1121,13 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
                                          ValueAxis rangeAxis,
                                          Rectangle2D dataArea) {
 
-        RectangleEdge xAxisLocation = plot.getDomainAxisEdge();
-        RectangleEdge yAxisLocation = plot.getRangeAxisEdge();
+        FastXYLineAndShapeRenderer.State s = (FastXYLineAndShapeRenderer.State) state;
 
-        // get the data point...
-        double x1 = dataset.getXValue(series, item);
-        double y1 = dataset.getYValue(series, item);
-        double transX1 = domainAxis.valueToJava2D(x1, dataArea, xAxisLocation);
-        double transY1 = rangeAxis.valueToJava2D(y1, dataArea, yAxisLocation);
+        // get the data point (screen coordinates computed once per series pass)...
+        s.prepareTransforms(domainAxis, rangeAxis, dataArea);
 
-        FastXYLineAndShapeRenderer.State s = (FastXYLineAndShapeRenderer.State) state;
+        double transX1 = s.transX[item];
+        double transY1 = s.transY[item];
 
         // update path to reflect latest point
         if (!Double.isNaN(transX1) && !Double.isNaN(transY1)) {
@@ -877,19 +1187,16 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
             return;
         }
 
-        // get the data point...
-        final double x1 = dataset.getXValue(series, item);
-        final double y1 = dataset.getYValue(series, item);
-        if (Double.isNaN(y1) || Double.isNaN(x1)) {
+        // get the data point (screen coordinates computed once per series pass; NaN values give NaN):
+        state.prepareTransforms(domainAxis, rangeAxis, dataArea);
+
+        final double transX1 = state.transX[item];
+        final double transY1 = state.transY[item];
+        if (Double.isNaN(transY1) || Double.isNaN(transX1)) {
             return;
         }
 
         final PlotOrientation orientation = plot.getOrientation();
-        final RectangleEdge xAxisLocation = state.xAxisLocation;
-        final RectangleEdge yAxisLocation = state.yAxisLocation;
-
-        final double transX1 = domainAxis.valueToJava2D(x1, dataArea, xAxisLocation);
-        final double transY1 = rangeAxis.valueToJava2D(y1, dataArea, yAxisLocation);
 
         // Fast clipping checks: only test if the data point is inside the data area:
         if (!useShapeIntersection) {
@@ -904,7 +1211,7 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
             }
         }
 
-        final Shape shape = getItemShape(series, item);
+        final Shape shape = getItemShape(dataset, series, item);
         if (shape == null) {
             return;
         }
@@ -925,6 +1232,8 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
         // Item is rendered:
         this.renderedItemCount++;
 
+        // shapes are drawn one by one (not batched into paths): the Java2D fast paths for small shapes are faster
+        // (see ItemDrawingBenchmark) and overlapping translucent shapes keep their alpha accumulation.
         // Perform translation:
         if (orientation == PlotOrientation.HORIZONTAL) {
             g2.translate(transY1, transX1);
@@ -966,7 +1275,7 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
 
             // draw the item label if there is one...
             if (labelVisible) {
-                drawItemLabel(g2, orientation, dataset, series, item, xx, yy, (y1 < 0.0));
+                drawItemLabel(g2, orientation, dataset, series, item, xx, yy, (dataset.getYValue(series, item) < 0.0));
             }
 
             // LBO: disable updateCrosshairValues
@@ -1118,6 +1427,15 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
         if (this.useStepLine != that.useStepLine) {
             return false;
         }
+        if (this.useDecimation != that.useDecimation) {
+            return false;
+        }
+        if (this.useDensity != that.useDensity) {
+            return false;
+        }
+        if (!ShapeUtils.equal(this.invalidItemShape, that.invalidItemShape)) {
+            return false;
+        }
         return true;
     }
 
@@ -1133,6 +1451,8 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
             throws IOException, ClassNotFoundException {
         stream.defaultReadObject();
         this.legendLine = SerialUtils.readShape(stream);
+        this.invalidItemShape = SerialUtils.readShape(stream);
+        this.densityColorModel = ColorModels.getColorModel(ColorModels.COLOR_MODEL_ASPRO_ISOPHOT);
     }
 
     /**
@@ -1145,6 +1465,7 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
     private void writeObject(ObjectOutputStream stream) throws IOException {
         stream.defaultWriteObject();
         SerialUtils.writeShape(this.legendLine, stream);
+        SerialUtils.writeShape(this.invalidItemShape, stream);
     }
 
     // ITEM VISIBLE
@@ -1187,34 +1508,26 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
      */
     @Override
     public final Shape getItemShape(final int series, final int item) {
-        // use shape per [serie, item]
-        final Shape[] itemShapes = this.itemShapesList.getItemShapes(series);
-        if (itemShapes != null) {
-            if (item < itemShapes.length) {
-                final Shape shape = itemShapes[item];
-                if (shape != null) {
-                    return shape;
-                }
-            }
-        }
-        // fallback: use base shape for the complete serie:
+        // use base shape for the complete serie (invalid items are given by the dataset flags):
         return getDefaultShape();
     }
 
     /**
-     * Clears the item shapes settings for this renderer
-     */
-    public final void clearItemShapes() {
-        this.itemShapesList.clear();
-    }
-
-    /**
-     * Define the item shapes settings for this renderer
+     * Returns the shape used to represent a data item:
+     * the invalid item shape if the dataset flags the item as invalid (flagged or invalid error)
+     *
+     * @param dataset  the dataset.
      * @param series  the series index (zero-based).
-     * @param itemShapes  the item shapes as array (<code>null</code> permitted).
+     * @param item  the item index (zero-based).
+     *
+     * @return The shape.
      */
-    public final void setItemShapes(int series, Shape[] itemShapes) {
-        this.itemShapesList.setItemShapes(series, itemShapes);
+    private Shape getItemShape(final XYDataset dataset, final int series, final int item) {
+        if ((this.invalidItemShape != null) && (dataset instanceof FastIntervalXYDataset)
+                && !((FastIntervalXYDataset<?, ?>) dataset).isItemValid(series, item)) {
+            return this.invalidItemShape;
+        }
+        return getDefaultShape();
     }
 
     /**
@@ -1289,14 +1602,12 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
      */
     @Override
     public final Paint getItemPaint(final int series, final int item) {
-        // use paint per [serie, item]
-        final Paint[] itemShapes = this.itemPaintsList.getItemPaints(series);
-        if (itemShapes != null) {
-            if (item < itemShapes.length) {
-                final Paint paint = itemShapes[item];
-                if (paint != null) {
-                    return paint;
-                }
+        // use paint per [serie, item] (palette lookup):
+        final IndexedPaints itemPaints = this.itemPaintsList.getItemPaints(series);
+        if (itemPaints != null) {
+            final Paint paint = itemPaints.getPaint(item);
+            if (paint != null) {
+                return paint;
             }
         }
         // fallback: use paint for the complete serie:
@@ -1316,6 +1627,15 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
      * @param itemPaints  the item paints as array (<code>null</code> permitted).
      */
     public final void setItemPaints(int series, Paint[] itemPaints) {
+        this.itemPaintsList.setItemPaints(series, IndexedPaints.create(itemPaints));
+    }
+
+    /**
+     * Define the item paints settings for this renderer
+     * @param series  the series index (zero-based).
+     * @param itemPaints  the item paints as color indexes and palette (<code>null</code> permitted).
+     */
+    public final void setItemPaints(int series, IndexedPaints itemPaints) {
         this.itemPaintsList.setItemPaints(series, itemPaints);
     }
 
@@ -1327,6 +1647,14 @@ public class FastXYLineAndShapeRenderer extends AbstractXYItemRenderer
         return renderedItemCount;
     }
 
+    /**
+     * Define the number of visible items (restored data layer)
+     * @param renderedItemCount number of visible items
+     */
+    void setRenderedItemCount(final int renderedItemCount) {
+        this.renderedItemCount = renderedItemCount;
+    }
+
     /** line half width to compute stroked line shape used by tooltips */
     private static double lineHalfWidth = 4.0;
     /** temporary line vector */
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.gui.chart;
+
+import java.awt.Paint;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.jfree.chart.util.PaintUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compact item paints of a single series: a small shared palette and one color index (short) per item
+ * instead of one Paint reference per item.
+ * Paints exceeding the maximum palette size are undefined (the series paint is used instead).
+ *
+ * @author bourgesl
+ */
+public final class IndexedPaints {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(IndexedPaints.class.getName());
+    /** undefined color index (use the series paint) */
+    public final static short UNDEFINED = -1;
+    /** maximum palette size */
+    public final static int MAX_PALETTE_SIZE = Short.MAX_VALUE;
+
+    /* members */
+    /** shared palette (read only) */
+    private final Paint[] palette;
+    /** color index per item (palette index or UNDEFINED) */
+    private final short[] indexes;
+
+    /**
+     * Return the compact representation of the given item paints (distinct paint instances define the palette)
+     * @param paints item paints (null permitted)
+     * @return indexed paints or null if paints is null
+     */
+    public static IndexedPaints create(final Paint[] paints) {
+        if (paints == null) {
+            return null;
+        }
+        final Map<Paint, Short> paletteIndexes = new IdentityHashMap<Paint, Short>(16);
+        final short[] indexes = new short[paints.length];
+
+        int nUndefined = 0;
+        Paint paint;
+        Short index;
+        for (int i = 0; i < paints.length; i++) {
+            paint = paints[i];
+            if (paint == null) {
+                indexes[i] = UNDEFINED;
+            } else {
+                index = paletteIndexes.get(paint);
+                if (index == null) {
+                    if (paletteIndexes.size() == MAX_PALETTE_SIZE) {
+                        // palette full: use the series paint:
+                        indexes[i] = UNDEFINED;
+                        nUndefined++;
+                        continue;
+                    }
+                    index = Short.valueOf((short) paletteIndexes.size());
+                    paletteIndexes.put(paint, index);
+                }
+                indexes[i] = index.shortValue();
+            }
+        }
+        if (nUndefined != 0) {
+            logger.warn("Too many colors in palette (max {}): {} items use the series paint instead.",
+                    MAX_PALETTE_SIZE, nUndefined);
+        }
+        final Paint[] palette = new Paint[paletteIndexes.size()];
+        for (Map.Entry<Paint, Short> e : paletteIndexes.entrySet()) {
+            palette[e.getValue().intValue()] = e.getKey();
+        }
+        return new IndexedPaints(palette, indexes);
+    }
+
+    /**
+     * Public constructor
+     * @param palette shared palette (not copied unless too large: truncated to MAX_PALETTE_SIZE colors)
+     * @param indexes color index per item (palette index or UNDEFINED)
+     */
+    public IndexedPaints(final Paint[] palette, final short[] indexes) {
+        if (palette.length > MAX_PALETTE_SIZE) {
+            logger.warn("Too many colors in palette (max {}): {} colors ignored, use the series paint instead.",
+                    MAX_PALETTE_SIZE, palette.length - MAX_PALETTE_SIZE);
+            this.palette = Arrays.copyOf(palette, MAX_PALETTE_SIZE);
+        } else {
+            this.palette = palette;
+        }
+        this.indexes = indexes;
+    }
+
+    /**
+     * Return the paint of the given item
+     * @param item the item index (zero-based)
+     * @return paint or null if undefined
+     */
+    public Paint getPaint(final int item) {
+        if (item < this.indexes.length) {
+            final int index = this.indexes[item];
+            if (index >= 0 && index < this.palette.length) {
+                return this.palette[index];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the number of items
+     * @return number of items
+     */
+    public int getItemCount() {
+        return this.indexes.length;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof IndexedPaints)) {
+            return false;
+        }
+        final IndexedPaints that = (IndexedPaints) obj;
+        if (!Arrays.equals(this.indexes, that.indexes)) {
+            return false;
+        }
+        if (this.palette.length != that.palette.length) {
+            return false;
+        }
+        for (int i = 0; i < this.palette.length; i++) {
+            if (!PaintUtils.equal(this.palette[i], that.palette[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.indexes);
+    }
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.gui.chart;
+
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.Transparency;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Lines batched per paint (identity): many small lines (error bars) sharing the same paint are accumulated
+ * into a single path and rendered by a single Graphics2D draw call.
+ *
+ * Note: overlapping lines of a single path are blended once: translucent paints may be rendered immediately
+ * (no batching) to preserve the alpha accumulation. Immediate lines are drawn directly (no path).
+ *
+ * With antialiasing, stroking large batched paths is slower than drawing lines one by one (Java2D fast path)
+ * so lines are only batched if antialiasing is disabled (see ItemDrawingBenchmark).
+ * Filling the outlines of translucent lines (rectangles) as a single path per paint is also slower
+ * than drawing them one by one (with or without antialiasing, whatever the number of rectangles per path)
+ * so the default chart configuration (antialiasing, translucent error paint) does not batch any line.
+ *
+ * @author bourgesl
+ */
+final class PathBatches {
+
+    /** maximum number of pending lines (all paints) to bound the path memory */
+    final static int MAX_PENDING_LINES = 16 * 1024;
+
+    /* members */
+    /** graphics device */
+    private final Graphics2D g2;
+    /** true to render lines having a translucent paint immediately (no batching) */
+    private final boolean unbatchTranslucent;
+    /** true to batch lines (antialiasing disabled) */
+    private final boolean batching;
+    /** line used to draw immediate lines (reused) */
+    private final Line2D.Double line = new Line2D.Double();
+    /** paint indexes (identity) */
+    private final Map<Paint, Integer> indexes = new IdentityHashMap<Paint, Integer>(16);
+    /** paints */
+    private Paint[] paints = new Paint[8];
+    /** path per paint */
+    private Path2D.Double[] paths = new Path2D.Double[8];
+    /** number of pending lines per paint */
+    private int[] counts = new int[8];
+    /** true if the paint must be rendered immediately (translucent or no batching) */
+    private boolean[] immediates = new boolean[8];
+    /** number of paints */
+    private int size = 0;
+    /** last used paint index */
+    private int last = -1;
+    /** number of pending lines (all paints) */
+    private int pending = 0;
+    /** stroke used to draw paths */
+    private Stroke stroke = null;
+
+    /**
+     * Package-private constructor
+     * @param g2 graphics device
+     * @param unbatchTranslucent true to render lines having a translucent paint immediately (no batching)
+     */
+    PathBatches(final Graphics2D g2, final boolean unbatchTranslucent) {
+        this.g2 = g2;
+        this.unbatchTranslucent = unbatchTranslucent;
+        this.batching = !RenderingHints.VALUE_ANTIALIAS_ON.equals(g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING));
+    }
+
+    /**
+     * Define the stroke used to draw paths (pending paths are rendered if the stroke changes)
+     * @param stroke stroke to use
+     */
+    void setStroke(final Stroke stroke) {
+        if (this.stroke != stroke) {
+            flush();
+            this.stroke = stroke;
+        }
+    }
+
+    /**
+     * Append the given line
+     * @param paint paint to use
+     * @param x0 x of the starting point
+     * @param y0 y of the starting point
+     * @param x1 x of the ending point
+     * @param y1 y of the ending point
+     * @return true if the maximum number of pending lines is reached (flush expected)
+     */
+    boolean appendLine(final Paint paint, final double x0, final double y0, final double x1, final double y1) {
+        final int i = indexOf(paint);
+        if (this.immediates[i]) {
+            // render now without any path (after pending lines to preserve the drawing order):
+            flush();
+            this.line.setLine(x0, y0, x1, y1);
+            // avoid invalidating the graphics state between lines of the same item:
+            if (this.g2.getPaint() != paint) {
+                this.g2.setPaint(paint);
+            }
+            if (this.g2.getStroke() != this.stroke) {
+                this.g2.setStroke(this.stroke);
+            }
+            this.g2.draw(this.line);
+            return false;
+        }
+        final Path2D.Double path = this.paths[i];
+        path.moveTo(x0, y0);
+        path.lineTo(x1, y1);
+        this.counts[i]++;
+        return (++this.pending >= MAX_PENDING_LINES);
+    }
+
+    /**
+     * Render all pending paths
+     */
+    void flush() {
+        if (this.pending != 0) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.counts[i] != 0) {
+                    render(i);
+                }
+            }
+            this.pending = 0;
+        }
+    }
+
+    private void render(final int i) {
+        final Path2D.Double path = this.paths[i];
+        this.g2.setPaint(this.paints[i]);
+        this.g2.setStroke(this.stroke);
+        this.g2.draw(path);
+        path.reset();
+        this.counts[i] = 0;
+    }
+
+    /**
+     * Return the index of the given paint (stable during the chart drawing)
+     * @param paint paint to look up (or register)
+     * @return paint index
+     */
+    private int indexOf(final Paint paint) {
+        // consecutive items often share the same paint:
+        if ((this.last != -1) && (this.paints[this.last] == paint)) {
+            return this.last;
+        }
+        final Integer index = this.indexes.get(paint);
+        if (index != null) {
+            this.last = index.intValue();
+            return this.last;
+        }
+        if (this.size == this.paints.length) {
+            final int len = 2 * this.size;
+            this.paints = Arrays.copyOf(this.paints, len);
+            this.paths = Arrays.copyOf(this.paths, len);
+            this.counts = Arrays.copyOf(this.counts, len);
+            this.immediates = Arrays.copyOf(this.immediates, len);
+        }
+        final int i = this.size++;
+        this.paints[i] = paint;
+        this.paths[i] = new Path2D.Double(Path2D.WIND_NON_ZERO, 256);
+        this.counts[i] = 0;
+        this.immediates[i] = !this.batching || (this.unbatchTranslucent && (paint.getTransparency() != Transparency.OPAQUE));
+        this.indexes.put(paint, Integer.valueOf(i));
+        this.last = i;
+        return i;
+    }
+}
@@ -0,0 +1,907 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.gui.chart.dataset;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class packs the data of many series into contiguous primitive buffers (1 buffer per column)
+ * with an offset table giving the first item of each series:
+ * item [series, item] is stored at index (offsets[series] + item) in every column.
+ *
+ * It avoids allocating 8 small arrays per series (heap fragmentation, GC pressure).
+ * Series are appended (heap arrays grow as needed) then buffers are trimmed once complete.
+ *
+ * Storage options (data footprint):
+ * - float precision: values are stored as floats (plot coordinates come mostly from float32 OIFITS columns)
+ * - symmetric errors: a single error value is stored instead of lower and upper bounds (value +/- error)
+ * - storage: value columns are stored in heap arrays, off-heap direct buffers or memory-mapped temporary files
+ *   (for collections larger than the heap); row and column indices remain in heap arrays.
+ *   Value columns are staged in heap arrays while series are appended and moved once into a single
+ *   direct buffer or temporary file mapping when trimmed (no reallocation outside of the heap).
+ *
+ * @author bourgesl
+ */
+public final class ColumnarSeriesData {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarSeriesData.class.getName());
+    /** default initial capacity (items) */
+    private final static int DEFAULT_CAPACITY = 1024;
+    /** prefix of temporary files (memory-mapped storage) */
+    private final static String TEMP_FILE_PREFIX = "oixp-dataset-";
+    /** flag indicating to store values as floats by default */
+    private static volatile boolean defaultFloatStorage = false;
+    /** default storage of value columns */
+    private static volatile Storage defaultStorage = Storage.HEAP;
+    /** temporary files not deleted yet (still mapped on some platforms like Windows) */
+    private final static List<File> undeletedFiles = new ArrayList<File>();
+
+    /**
+     * Storage of value columns
+     */
+    public enum Storage {
+        /** heap arrays */
+        HEAP,
+        /** off-heap direct buffers */
+        DIRECT,
+        /** memory-mapped temporary files (spilled to disk) */
+        MAPPED;
+    }
+
+    /* members */
+    /** storage of value columns */
+    private final Storage storage;
+    /** true if values are stored as floats */
+    private final boolean floatStorage;
+    /** true if a single symmetric error is stored per value (lower = value - error, upper = value + error) */
+    private final boolean symmetricErrors;
+    /** true if x lower bounds must be strictly positive (log axis) */
+    private boolean xLowerPositive = false;
+    /** true if y lower bounds must be strictly positive (log axis) */
+    private boolean yLowerPositive = false;
+    /** number of series */
+    private int seriesCount = 0;
+    /** offset of the first item per series (seriesCount + 1 entries) */
+    private int[] offsets;
+    /** number of items (all series) */
+    private int size = 0;
+    /** row indices */
+    int[] rows;
+    /** column indices */
+    int[] cols;
+    /** x values */
+    private Column x;
+    /** x lower bounds (or x errors if symmetric errors) */
+    private Column xLow;
+    /** x upper bounds (null if symmetric errors) */
+    private Column xUp;
+    /** y values */
+    private Column y;
+    /** y lower bounds (or y errors if symmetric errors) */
+    private Column yLow;
+    /** y upper bounds (null if symmetric errors) */
+    private Column yUp;
+    /** item flags (FastIntervalXYDataset.FLAG_BITS_PER_ITEM bits per item, packed) or null if all items are valid */
+    BitSet flags = null;
+
+    /**
+     * Return the flag indicating to store values as floats by default
+     * @return true to store values as floats by default
+     */
+    public static boolean isDefaultFloatStorage() {
+        return defaultFloatStorage;
+    }
+
+    /**
+     * Define the flag indicating to store values as floats by default
+     * @param floatStorage true to store values as floats by default
+     */
+    public static void setDefaultFloatStorage(final boolean floatStorage) {
+        defaultFloatStorage = floatStorage;
+    }
+
+    /**
+     * Return the default storage of value columns
+     * @return default storage
+     */
+    public static Storage getDefaultStorage() {
+        return defaultStorage;
+    }
+
+    /**
+     * Define the default storage of value columns
+     * @param storage default storage
+     */
+    public static void setDefaultStorage(final Storage storage) {
+        defaultStorage = storage;
+    }
+
+    /**
+     * Return the estimated heap footprint per item in bytes (row, col and values if stored in the heap)
+     * @param storage storage of value columns
+     * @param floatStorage true if values are stored as floats
+     * @param symmetricErrors true if a single symmetric error is stored per value
+     * @return estimated heap footprint per item in bytes
+     */
+    public static int getBytesPerItem(final Storage storage, final boolean floatStorage, final boolean symmetricErrors) {
+        return 2 * 4 + ((storage != Storage.HEAP) ? 0 : ((symmetricErrors) ? 4 : 6) * ((floatStorage) ? 4 : 8));
+    }
+
+    /**
+     * Return a new instance wrapping the given arrays (single series, no copy)
+     * @param dataInt  the integer data (row and column indices)
+     * @param dataDbl  the double data (x, xLow, xUp, y, yLow, yUp)
+     * @param flags  the item flags or <code>null</code> if all items are valid
+     * @return new instance
+     */
+    static ColumnarSeriesData wrap(final int[][] dataInt, final double[][] dataDbl, final BitSet flags) {
+        final int length = dataDbl[0].length;
+
+        final ColumnarSeriesData data = new ColumnarSeriesData(
+                new DoubleColumn(dataDbl[0]), new DoubleColumn(dataDbl[1]), new DoubleColumn(dataDbl[2]),
+                new DoubleColumn(dataDbl[3]), new DoubleColumn(dataDbl[4]), new DoubleColumn(dataDbl[5])
+        );
+        data.rows = dataInt[0];
+        data.cols = dataInt[1];
+        data.flags = flags;
+        data.seriesCount = 1;
+        data.offsets = new int[]{0, length};
+        data.size = length;
+        return data;
+    }
+
+    /**
+     * Public constructor (double values with lower and upper bounds)
+     */
+    public ColumnarSeriesData() {
+        this(DEFAULT_CAPACITY, Storage.HEAP, false, false);
+    }
+
+    /**
+     * Public constructor
+     * @param capacity initial capacity (items)
+     * @param storage storage of value columns
+     * @param floatStorage true to store values as floats
+     * @param symmetricErrors true to store a single symmetric error per value instead of lower and upper bounds
+     */
+    public ColumnarSeriesData(final int capacity, final Storage storage, final boolean floatStorage, final boolean symmetricErrors) {
+        this.storage = storage;
+        this.floatStorage = floatStorage;
+        this.symmetricErrors = symmetricErrors;
+        this.offsets = new int[16];
+        this.rows = new int[capacity];
+        this.cols = new int[capacity];
+        this.x = createColumn(capacity);
+        this.xLow = createColumn(capacity);
+        this.xUp = (symmetricErrors) ? null : createColumn(capacity);
+        this.y = createColumn(capacity);
+        this.yLow = createColumn(capacity);
+        this.yUp = (symmetricErrors) ? null : createColumn(capacity);
+    }
+
+    /**
+     * Private constructor (double values with lower and upper bounds)
+     * @param x x values
+     * @param xLow x lower bounds
+     * @param xUp x upper bounds
+     * @param y y values
+     * @param yLow y lower bounds
+     * @param yUp y upper bounds
+     */
+    private ColumnarSeriesData(final Column x, final Column xLow, final Column xUp,
+                               final Column y, final Column yLow, final Column yUp) {
+        this.storage = Storage.HEAP;
+        this.floatStorage = false;
+        this.symmetricErrors = false;
+        this.x = x;
+        this.xLow = xLow;
+        this.xUp = xUp;
+        this.y = y;
+        this.yLow = yLow;
+        this.yUp = yUp;
+    }
+
+    private Column createColumn(final int capacity) {
+        // columns are staged in the heap (see trimToSize):
+        return (this.floatStorage) ? new FloatColumn(capacity) : new DoubleColumn(capacity);
+    }
+
+    /**
+     * Return the storage of value columns
+     * @return storage
+     */
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Return true if values are stored as floats
+     * @return true if values are stored as floats
+     */
+    public boolean isFloatStorage() {
+        return floatStorage;
+    }
+
+    /**
+     * Return true if a single symmetric error is stored per value
+     * @return true if a single symmetric error is stored per value
+     */
+    public boolean isSymmetricErrors() {
+        return symmetricErrors;
+    }
+
+    /**
+     * Define the flags indicating that lower bounds must be strictly positive (log axis):
+     * lower bounds &lt;= 0 are given as Double.MIN_VALUE
+     * @param xLowerPositive true if x lower bounds must be strictly positive
+     * @param yLowerPositive true if y lower bounds must be strictly positive
+     */
+    public void setLowerPositive(final boolean xLowerPositive, final boolean yLowerPositive) {
+        this.xLowerPositive = xLowerPositive;
+        this.yLowerPositive = yLowerPositive;
+    }
+
+    /**
+     * Return the number of series
+     * @return number of series
+     */
+    public int getSeriesCount() {
+        return seriesCount;
+    }
+
+    /**
+     * Return the number of items (all series)
+     * @return number of items
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Return the offset of the first item of the given series
+     * @param series the series index (zero-based)
+     * @return offset of the first item
+     */
+    public int getOffset(final int series) {
+        return offsets[series];
+    }
+
+    /**
+     * Return the number of items of the given series
+     * @param series the series index (zero-based)
+     * @return number of items
+     */
+    public int getItemCount(final int series) {
+        return offsets[series + 1] - offsets[series];
+    }
+
+    /**
+     * Return the estimated heap footprint per item in bytes (row, col and values if stored in the heap)
+     * @return estimated heap footprint per item in bytes
+     */
+    public int getBytesPerItem() {
+        return getBytesPerItem(this.storage, this.floatStorage, this.symmetricErrors);
+    }
+
+    /**
+     * Return the heap footprint in bytes (allocated indices, offsets, flags and values if stored in the heap)
+     * @return heap footprint in bytes
+     */
+    public long getHeapFootprint() {
+        long bytes = 4L * (this.rows.length + this.cols.length + this.offsets.length);
+        if (this.flags != null) {
+            bytes += this.flags.size() >> 3;
+        }
+        bytes += this.x.getHeapBytes() + this.xLow.getHeapBytes() + this.y.getHeapBytes() + this.yLow.getHeapBytes();
+        if (!this.symmetricErrors) {
+            bytes += this.xUp.getHeapBytes() + this.yUp.getHeapBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Return the footprint outside of the heap in bytes (direct or memory-mapped values)
+     * @return footprint outside of the heap in bytes
+     */
+    public long getOffHeapFootprint() {
+        long bytes = this.x.getOffHeapBytes() + this.xLow.getOffHeapBytes() + this.y.getOffHeapBytes() + this.yLow.getOffHeapBytes();
+        if (!this.symmetricErrors) {
+            bytes += this.xUp.getOffHeapBytes() + this.yUp.getOffHeapBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Return the x value at the given position
+     * @param pos item position (offset + item)
+     * @return x value
+     */
+    double getX(final int pos) {
+        return this.x.get(pos);
+    }
+
+    /**
+     * Return the x lower bound at the given position
+     * @param pos item position (offset + item)
+     * @return x lower bound
+     */
+    double getXLow(final int pos) {
+        final double v = (this.symmetricErrors) ? this.x.get(pos) - this.xLow.get(pos) : this.xLow.get(pos);
+        return (this.xLowerPositive && (v <= 0.0)) ? Double.MIN_VALUE : v;
+    }
+
+    /**
+     * Return the x upper bound at the given position
+     * @param pos item position (offset + item)
+     * @return x upper bound
+     */
+    double getXUp(final int pos) {
+        return (this.symmetricErrors) ? this.x.get(pos) + this.xLow.get(pos) : this.xUp.get(pos);
+    }
+
+    /**
+     * Return the y value at the given position
+     * @param pos item position (offset + item)
+     * @return y value
+     */
+    double getY(final int pos) {
+        return this.y.get(pos);
+    }
+
+    /**
+     * Return the y lower bound at the given position
+     * @param pos item position (offset + item)
+     * @return y lower bound
+     */
+    double getYLow(final int pos) {
+        final double v = (this.symmetricErrors) ? this.y.get(pos) - this.yLow.get(pos) : this.yLow.get(pos);
+        return (this.yLowerPositive && (v <= 0.0)) ? Double.MIN_VALUE : v;
+    }
+
+    /**
+     * Return the y upper bound at the given position
+     * @param pos item position (offset + item)
+     * @return y upper bound
+     */
+    double getYUp(final int pos) {
+        return (this.symmetricErrors) ? this.y.get(pos) + this.yLow.get(pos) : this.yUp.get(pos);
+    }
+
+    /**
+     * Append a new series (values are copied).
+     * If symmetric errors are used, the error is given by (upper bound - value).
+     * @param iRows row indices
+     * @param iCols column indices
+     * @param xValues x values
+     * @param xLowers x lower bounds
+     * @param xUppers x upper bounds
+     * @param yValues y values
+     * @param yLowers y lower bounds
+     * @param yUppers y upper bounds
+     * @param length number of items to copy
+     * @param itemFlags item flags (relative to the series) or <code>null</code> if all items are valid
+     * @return series index in this instance
+     */
+    public int addSeries(final int[] iRows, final int[] iCols,
+                         final double[] xValues, final double[] xLowers, final double[] xUppers,
+                         final double[] yValues, final double[] yLowers, final double[] yUppers,
+                         final int length, final BitSet itemFlags) {
+
+        final int offset = this.size;
+        ensureCapacity(offset + length);
+
+        System.arraycopy(iRows, 0, this.rows, offset, length);
+        System.arraycopy(iCols, 0, this.cols, offset, length);
+
+        this.x.copy(xValues, offset, length);
+        this.y.copy(yValues, offset, length);
+
+        if (this.symmetricErrors) {
+            this.xLow.copyDiff(xUppers, xValues, offset, length);
+            this.yLow.copyDiff(yUppers, yValues, offset, length);
+        } else {
+            this.xLow.copy(xLowers, offset, length);
+            this.xUp.copy(xUppers, offset, length);
+            this.yLow.copy(yLowers, offset, length);
+            this.yUp.copy(yUppers, offset, length);
+        }
+
+        if (itemFlags != null) {
+            if (this.flags == null) {
+                this.flags = new BitSet();
+            }
+            final int shift = offset * FastIntervalXYDataset.FLAG_BITS_PER_ITEM;
+            for (int i = itemFlags.nextSetBit(0); i >= 0; i = itemFlags.nextSetBit(i + 1)) {
+                this.flags.set(shift + i);
+            }
+        }
+
+        final int series = this.seriesCount;
+        if (series + 2 > this.offsets.length) {
+            this.offsets = Arrays.copyOf(this.offsets, 2 * this.offsets.length);
+        }
+        this.offsets[series] = offset;
+        this.offsets[series + 1] = offset + length;
+
+        this.size = offset + length;
+        this.seriesCount++;
+        return series;
+    }
+
+    /**
+     * Trim buffers to the number of items (once all series are added)
+     * then move value columns outside of the heap if required (no more series can be added then)
+     */
+    public void trimToSize() {
+        final int len = this.size;
+        if (this.rows.length != len) {
+            this.rows = Arrays.copyOf(this.rows, len);
+            this.cols = Arrays.copyOf(this.cols, len);
+            resizeColumns(len);
+        }
+        if (this.offsets.length != this.seriesCount + 1) {
+            this.offsets = Arrays.copyOf(this.offsets, this.seriesCount + 1);
+        }
+        if ((this.storage != Storage.HEAP) && (len != 0) && this.x.isHeap()) {
+            moveColumns(len);
+        }
+    }
+
+    /**
+     * Move value columns into a single direct buffer or memory-mapped temporary file
+     * (columns remain in the heap if the buffer would exceed 2GB)
+     * @param len number of items
+     */
+    private void moveColumns(final int len) {
+        final int nColumns = (this.symmetricErrors) ? 4 : 6;
+        final long columnBytes = ((long) len) * ((this.floatStorage) ? 4L : 8L);
+        final long bytes = nColumns * columnBytes;
+
+        if (bytes > Integer.MAX_VALUE) {
+            logger.warn("Unable to store {} items outside of the heap ({} bytes exceeds the buffer limit), use heap storage instead.",
+                    len, bytes);
+            return;
+        }
+        final ByteBuffer buffer;
+        try {
+            buffer = allocateBuffer(this.storage, (int) bytes);
+        } catch (OutOfMemoryError oome) {
+            logger.warn("Unable to allocate a direct buffer ({} bytes), use heap storage instead:", bytes, oome);
+            return;
+        }
+        final int step = (int) columnBytes;
+
+        this.x = this.x.moveTo(slice(buffer, 0, step));
+        this.xLow = this.xLow.moveTo(slice(buffer, step, step));
+        this.y = this.y.moveTo(slice(buffer, 2 * step, step));
+        this.yLow = this.yLow.moveTo(slice(buffer, 3 * step, step));
+        if (!this.symmetricErrors) {
+            this.xUp = this.xUp.moveTo(slice(buffer, 4 * step, step));
+            this.yUp = this.yUp.moveTo(slice(buffer, 5 * step, step));
+        }
+    }
+
+    /**
+     * Return a native-ordered view of the given buffer region
+     * @param buffer buffer
+     * @param offset offset of the region in bytes
+     * @param bytes region size in bytes
+     * @return native-ordered buffer view
+     */
+    private static ByteBuffer slice(final ByteBuffer buffer, final int offset, final int bytes) {
+        final ByteBuffer view = buffer.duplicate();
+        view.limit(offset + bytes);
+        view.position(offset);
+        return view.slice().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Grow buffers to hold at least the given number of items
+     * @param minCapacity minimum capacity (items)
+     */
+    private void ensureCapacity(final int minCapacity) {
+        final int capacity = this.rows.length;
+        if (minCapacity > capacity) {
+            final int newCapacity = Math.max(minCapacity, capacity + (capacity >> 1));
+
+            this.rows = Arrays.copyOf(this.rows, newCapacity);
+            this.cols = Arrays.copyOf(this.cols, newCapacity);
+            resizeColumns(newCapacity);
+        }
+    }
+
+    private void resizeColumns(final int capacity) {
+        this.x.resize(capacity);
+        this.xLow.resize(capacity);
+        this.y.resize(capacity);
+        this.yLow.resize(capacity);
+        if (!this.symmetricErrors) {
+            this.xUp.resize(capacity);
+            this.yUp.resize(capacity);
+        }
+    }
+
+    /**
+     * Return true if both item ranges have exactly the same values
+     * @param offset offset of the first item in this instance
+     * @param length number of items
+     * @param other other instance
+     * @param otherOffset offset of the first item in the other instance
+     * @return true if both item ranges have exactly the same values
+     */
+    boolean equals(final int offset, final int length, final ColumnarSeriesData other, final int otherOffset) {
+        for (int i = 0; i < length; i++) {
+            final int p1 = offset + i;
+            final int p2 = otherOffset + i;
+            if (!same(getX(p1), other.getX(p2)) || !same(getY(p1), other.getY(p2))
+                    || !same(getXLow(p1), other.getXLow(p2)) || !same(getXUp(p1), other.getXUp(p2))
+                    || !same(getYLow(p1), other.getYLow(p2)) || !same(getYUp(p1), other.getYUp(p2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean same(final double v1, final double v2) {
+        return Double.doubleToLongBits(v1) == Double.doubleToLongBits(v2);
+    }
+
+    /**
+     * Column storage (growable)
+     */
+    private abstract static class Column {
+
+        /**
+         * Return the value at the given position
+         * @param pos position
+         * @return value
+         */
+        abstract double get(final int pos);
+
+        /**
+         * Copy the given values at the given position
+         * @param src values
+         * @param offset position of the first value
+         * @param length number of values
+         */
+        abstract void copy(final double[] src, final int offset, final int length);
+
+        /**
+         * Copy the differences (src1 - src2) at the given position
+         * @param src1 first values
+         * @param src2 second values
+         * @param offset position of the first value
+         * @param length number of values
+         */
+        abstract void copyDiff(final double[] src1, final double[] src2, final int offset, final int length);
+
+        /**
+         * Resize this column
+         * @param capacity new capacity
+         * @throws IllegalStateException if this column is stored outside of the heap
+         */
+        abstract void resize(final int capacity);
+
+        /**
+         * Return true if this column is stored in the heap
+         * @return true if this column is stored in the heap
+         */
+        boolean isHeap() {
+            return true;
+        }
+
+        /**
+         * Return a column copying these values into the given buffer
+         * @param buffer native-ordered buffer (capacity = size in bytes)
+         * @return column storing these values into the given buffer
+         */
+        Column moveTo(final ByteBuffer buffer) {
+            throw new IllegalStateException("column already stored outside of the heap");
+        }
+
+        /**
+         * Return the heap footprint of values in bytes
+         * @return heap footprint in bytes (0 if stored outside of the heap)
+         */
+        abstract long getHeapBytes();
+
+        /**
+         * Return the footprint of values outside of the heap in bytes
+         * @return footprint in bytes (0 if stored in the heap)
+         */
+        long getOffHeapBytes() {
+            return 0L;
+        }
+    }
+
+    /**
+     * Column storing doubles
+     */
+    private final static class DoubleColumn extends Column {
+
+        /** values */
+        private double[] values;
+
+        DoubleColumn(final int capacity) {
+            this(new double[capacity]);
+        }
+
+        DoubleColumn(final double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        double get(final int pos) {
+            return this.values[pos];
+        }
+
+        @Override
+        void copy(final double[] src, final int offset, final int length) {
+            System.arraycopy(src, 0, this.values, offset, length);
+        }
+
+        @Override
+        void copyDiff(final double[] src1, final double[] src2, final int offset, final int length) {
+            final double[] dst = this.values;
+            for (int i = 0; i < length; i++) {
+                dst[offset + i] = src1[i] - src2[i];
+            }
+        }
+
+        @Override
+        void resize(final int capacity) {
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+
+        @Override
+        long getHeapBytes() {
+            return 8L * this.values.length;
+        }
+
+        @Override
+        Column moveTo(final ByteBuffer buffer) {
+            final DoubleBuffer dst = buffer.asDoubleBuffer();
+            dst.put(this.values, 0, dst.capacity());
+            dst.clear();
+            return new DoubleBufferColumn(dst);
+        }
+    }
+
+    /**
+     * Column storing floats (half footprint)
+     */
+    private final static class FloatColumn extends Column {
+
+        /** values */
+        private float[] values;
+
+        FloatColumn(final int capacity) {
+            this.values = new float[capacity];
+        }
+
+        @Override
+        double get(final int pos) {
+            return this.values[pos];
+        }
+
+        @Override
+        void copy(final double[] src, final int offset, final int length) {
+            final float[] dst = this.values;
+            for (int i = 0; i < length; i++) {
+                dst[offset + i] = (float) src[i];
+            }
+        }
+
+        @Override
+        void copyDiff(final double[] src1, final double[] src2, final int offset, final int length) {
+            final float[] dst = this.values;
+            for (int i = 0; i < length; i++) {
+                dst[offset + i] = (float) (src1[i] - src2[i]);
+            }
+        }
+
+        @Override
+        void resize(final int capacity) {
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+
+        @Override
+        long getHeapBytes() {
+            return 4L * this.values.length;
+        }
+
+        @Override
+        Column moveTo(final ByteBuffer buffer) {
+            final FloatBuffer dst = buffer.asFloatBuffer();
+            dst.put(this.values, 0, dst.capacity());
+            dst.clear();
+            return new FloatBufferColumn(dst);
+        }
+    }
+
+    /**
+     * Allocate a native-ordered buffer outside of the heap
+     * @param storage storage (DIRECT or MAPPED)
+     * @param bytes buffer size in bytes
+     * @return direct or memory-mapped buffer
+     */
+    private static ByteBuffer allocateBuffer(final Storage storage, final int bytes) {
+        if (storage == Storage.MAPPED) {
+            try {
+                return mapTempFile(bytes);
+            } catch (IOException ioe) {
+                logger.warn("Unable to map a temporary file ({} bytes), use a direct buffer instead:", bytes, ioe);
+            }
+        }
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Map a new temporary file in memory (read / write); the file is deleted once mapped
+     * (or later when no more mapped i.e. on the next mapping or when the JVM exits)
+     * @param bytes file size in bytes
+     * @return memory-mapped buffer
+     * @throws IOException if the temporary file can not be created or mapped
+     */
+    private static ByteBuffer mapTempFile(final int bytes) throws IOException {
+        deleteUndeletedFiles();
+
+        final File file = File.createTempFile(TEMP_FILE_PREFIX, ".bin");
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            // the mapping remains valid after closing the channel:
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, bytes).order(ByteOrder.nativeOrder());
+        } finally {
+            raf.close();
+            if (!file.delete()) {
+                // file still mapped (Windows):
+                file.deleteOnExit();
+                synchronized (undeletedFiles) {
+                    undeletedFiles.add(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Try deleting temporary files once their mappings were released (garbage collected)
+     */
+    private static void deleteUndeletedFiles() {
+        synchronized (undeletedFiles) {
+            for (final Iterator<File> it = undeletedFiles.iterator(); it.hasNext();) {
+                final File file = it.next();
+                if (file.delete() || !file.exists()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Column storing doubles in a direct or memory-mapped buffer (fixed size)
+     */
+    private final static class DoubleBufferColumn extends Column {
+
+        /** values */
+        private final DoubleBuffer values;
+
+        DoubleBufferColumn(final DoubleBuffer values) {
+            this.values = values;
+        }
+
+        @Override
+        double get(final int pos) {
+            return this.values.get(pos);
+        }
+
+        @Override
+        void copy(final double[] src, final int offset, final int length) {
+            final DoubleBuffer dst = this.values;
+            for (int i = 0; i < length; i++) {
+                dst.put(offset + i, src[i]);
+            }
+        }
+
+        @Override
+        void copyDiff(final double[] src1, final double[] src2, final int offset, final int length) {
+            final DoubleBuffer dst = this.values;
+            for (int i = 0; i < length; i++) {
+                dst.put(offset + i, src1[i] - src2[i]);
+            }
+        }
+
+        @Override
+        void resize(final int capacity) {
+            if (capacity != this.values.capacity()) {
+                throw new IllegalStateException("column stored outside of the heap can not be resized");
+            }
+        }
+
+        @Override
+        boolean isHeap() {
+            return false;
+        }
+
+        @Override
+        long getHeapBytes() {
+            return 0L;
+        }
+
+        @Override
+        long getOffHeapBytes() {
+            return 8L * this.values.capacity();
+        }
+    }
+
+    /**
+     * Column storing floats in a direct or memory-mapped buffer (fixed size)
+     */
+    private final static class FloatBufferColumn extends Column {
+
+        /** values */
+        private final FloatBuffer values;
+
+        FloatBufferColumn(final FloatBuffer values) {
+            this.values = values;
+        }
+
+        @Override
+        double get(final int pos) {
+            return this.values.get(pos);
+        }
+
+        @Override
+        void copy(final double[] src, final int offset, final int length) {
+            final FloatBuffer dst = this.values;
+            for (int i = 0; i < length; i++) {
+                dst.put(offset + i, (float) src[i]);
+            }
+        }
+
+        @Override
+        void copyDiff(final double[] src1, final double[] src2, final int offset, final int length) {
+            final FloatBuffer dst = this.values;
+            for (int i = 0; i < length; i++) {
+                dst.put(offset + i, (float) (src1[i] - src2[i]));
+            }
+        }
+
+        @Override
+        void resize(final int capacity) {
+            if (capacity != this.values.capacity()) {
+                throw new IllegalStateException("column stored outside of the heap can not be resized");
+            }
+        }
+
+        @Override
+        boolean isHeap() {
+            return false;
+        }
+
+        @Override
+        long getHeapBytes() {
+            return 0L;
+        }
+
+        @Override
+        long getOffHeapBytes() {
+            return 4L * this.values.capacity();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.gui.chart.dataset;
+
+import fr.jmmc.jmal.image.ColorScale;
+import fr.jmmc.oiexplorer.core.gui.chart.AxisTransform;
+import fr.jmmc.oiexplorer.core.gui.chart.ColorModelPaintScale;
+import java.awt.Color;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.ui.RectangleEdge;
+import org.jfree.data.Range;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is a density view over a FastIntervalXYDataset:
+ * all items are binned into a 2D histogram at screen resolution (1 bin per pixel)
+ * and painted as a single image using a color model (logarithmic color scale).
+ *
+ * The histogram and image are recomputed lazily when the axis ranges or the data area change (zoom).
+ *
+ * @author bourgesl
+ */
+public final class DatasetDensityView {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(DatasetDensityView.class.getName());
+    /** number of cached colors (low counts) */
+    private final static int CACHED_COLORS = 256;
+
+    /* members */
+    /** source dataset */
+    private final FastIntervalXYDataset<?, ?> dataset;
+    /** series count used to compute the view */
+    private int seriesCount = -1;
+    /** domain range used to compute the view */
+    private Range domainRange = null;
+    /** range used to compute the view */
+    private Range range = null;
+    /** image width */
+    private int width = -1;
+    /** image height */
+    private int height = -1;
+    /** color model used to compute the image */
+    private IndexColorModel colorModel = null;
+    /** number of binned items */
+    private int binnedCount = 0;
+    /** density image */
+    private BufferedImage image = null;
+
+    /**
+     * Public constructor
+     * @param dataset source dataset
+     */
+    public DatasetDensityView(final FastIntervalXYDataset<?, ?> dataset) {
+        this.dataset = dataset;
+    }
+
+    /**
+     * Return true if this view corresponds to the given dataset
+     * @param data dataset to test
+     * @return true if this view corresponds to the given dataset
+     */
+    public boolean isViewOf(final Object data) {
+        return (this.dataset == data);
+    }
+
+    /**
+     * Return the total number of items (all series)
+     * @return total number of items
+     */
+    public int getTotalItemCount() {
+        int total = 0;
+        for (int series = 0, nSeries = this.dataset.getSeriesCount(); series < nSeries; series++) {
+            total += this.dataset.getItemCount(series);
+        }
+        return total;
+    }
+
+    /**
+     * Return the number of binned items (visible)
+     * @return number of binned items
+     */
+    public int getBinnedCount() {
+        return this.binnedCount;
+    }
+
+    /**
+     * Return the density image for the given axes and data area (recomputed only if they changed)
+     * @param domainAxis domain axis
+     * @param rangeAxis range axis
+     * @param dataArea data area
+     * @param domainEdge domain axis edge
+     * @param rangeEdge range axis edge
+     * @param orientation plot orientation
+     * @param colorModel color model
+     * @return density image or null if the data area is empty
+     */
+    public BufferedImage getImage(final ValueAxis domainAxis, final ValueAxis rangeAxis, final Rectangle2D dataArea,
+                                  final RectangleEdge domainEdge, final RectangleEdge rangeEdge,
+                                  final PlotOrientation orientation, final IndexColorModel colorModel) {
+
+        final int w = (int) Math.ceil(dataArea.getWidth());
+        final int h = (int) Math.ceil(dataArea.getHeight());
+        final int nSeries = this.dataset.getSeriesCount();
+
+        if ((w == this.width) && (h == this.height) && (nSeries == this.seriesCount) && (colorModel == this.colorModel)
+                && domainAxis.getRange().equals(this.domainRange) && rangeAxis.getRange().equals(this.range)) {
+            // unchanged:
+            return this.image;
+        }
+
+        this.width = w;
+        this.height = h;
+        this.seriesCount = nSeries;
+        this.colorModel = colorModel;
+        this.domainRange = domainAxis.getRange();
+        this.range = rangeAxis.getRange();
+        this.binnedCount = 0;
+        this.image = null;
+
+        if ((w <= 0) || (h <= 0)) {
+            return null;
+        }
+
+        final long start = System.nanoTime();
+
+        final boolean vertical = (orientation == PlotOrientation.VERTICAL);
+        final double minX = dataArea.getMinX();
+        final double minY = dataArea.getMinY();
+
+        // derive axis transforms once:
+        final AxisTransform xTransform = new AxisTransform(domainAxis, dataArea, domainEdge);
+        final AxisTransform yTransform = new AxisTransform(rangeAxis, dataArea, rangeEdge);
+
+        // 2D histogram (1 bin per pixel):
+        final int[] counts = new int[w * h];
+        int maxCount = 0;
+        int nBinned = 0;
+
+        double x, y, xx, yy;
+        int px, py, pos;
+
+        for (int series = 0; series < nSeries; series++) {
+            for (int item = 0, nItems = this.dataset.getItemCount(series); item < nItems; item++) {
+                x = this.dataset.getXValue(series, item);
+                y = this.dataset.getYValue(series, item);
+
+                if (Double.isNaN(x) || Double.isNaN(y)) {
+                    continue;
+                }
+                xx = xTransform.toJava2D(x);
+                yy = yTransform.toJava2D(y);
+
+                if (vertical) {
+                    px = (int) (xx - minX);
+                    py = (int) (yy - minY);
+                } else {
+                    px = (int) (yy - minX);
+                    py = (int) (xx - minY);
+                }
+                if (px < 0 || px >= w || py < 0 || py >= h) {
+                    continue;
+                }
+                pos = py * w + px;
+                if (++counts[pos] > maxCount) {
+                    maxCount = counts[pos];
+                }
+                nBinned++;
+            }
+        }
+        this.binnedCount = nBinned;
+
+        // paint the histogram (logarithmic color scale):
+        final ColorModelPaintScale paintScale = new ColorModelPaintScale(1.0, Math.max(2.0, maxCount), colorModel, ColorScale.LOGARITHMIC);
+
+        final int[] cachedColors = new int[CACHED_COLORS];
+        final int[] pixels = new int[counts.length];
+        int count, rgb;
+
+        for (pos = 0; pos < counts.length; pos++) {
+            count = counts[pos];
+            if (count != 0) {
+                if (count < CACHED_COLORS) {
+                    rgb = cachedColors[count];
+                    if (rgb == 0) {
+                        rgb = ((Color) paintScale.getPaint(count)).getRGB();
+                        cachedColors[count] = rgb;
+                    }
+                } else {
+                    rgb = ((Color) paintScale.getPaint(count)).getRGB();
+                }
+                pixels[pos] = rgb;
+            }
+        }
+
+        final BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        img.setRGB(0, 0, w, h, pixels, 0, w);
+        this.image = img;
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("DatasetDensityView.getImage: {} binned items (max = {}) in [{} x {}] pixels: duration = {} ms.",
+                    nBinned, maxCount, w, h, 1e-6d * (System.nanoTime() - start));
+        }
+        return img;
+    }
+}
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.gui.chart.dataset;
+
+import fr.jmmc.oiexplorer.core.gui.chart.AxisTransform;
+import java.awt.geom.Rectangle2D;
+import java.util.BitSet;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.ui.RectangleEdge;
+import org.jfree.data.Range;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is a level-of-detail view of the items over a FastIntervalXYDataset at the current axis ranges:
+ * long series are decimated to their first, last, min and max items per pixel column
+ * (for every run of consecutive items falling in the same pixel column) so that the drawn lines keep their envelope
+ * (undefined items break runs and are kept to preserve line gaps).
+ * The items having the lowest error start and highest error end of every run are also kept
+ * so that the drawn error bars keep their envelope too.
+ *
+ * The view applies to line segments, shapes and error bars (source item indexes).
+ * Selected and highlighted data points are painted by overlays from the dataset itself so they are never decimated.
+ * It is recomputed lazily when the axis ranges or the data area change (zoom).
+ *
+ * @author bourgesl
+ */
+public final class DatasetLODView {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(DatasetLODView.class.getName());
+    /** minimum number of items per pixel column to decimate a series */
+    public final static int MIN_ITEMS_PER_PIXEL = 4;
+
+    /* members */
+    /** source dataset */
+    private final FastIntervalXYDataset<?, ?> dataset;
+    /** series count used to compute the view */
+    private int seriesCount = -1;
+    /** domain range used to compute the view */
+    private Range domainRange = null;
+    /** range used to compute the view */
+    private Range range = null;
+    /** pixel columns used to compute the view */
+    private int nPixels = -1;
+    /** visible items per series (null means all items are visible) */
+    private BitSet[] visibleItems = null;
+    /** true if at least one series is decimated */
+    private boolean decimated = false;
+
+    /**
+     * Public constructor
+     * @param dataset source dataset
+     */
+    public DatasetLODView(final FastIntervalXYDataset<?, ?> dataset) {
+        this.dataset = dataset;
+    }
+
+    /**
+     * Return true if this view corresponds to the given dataset
+     * @param data dataset to test
+     * @return true if this view corresponds to the given dataset
+     */
+    public boolean isViewOf(final Object data) {
+        return (this.dataset == data);
+    }
+
+    /**
+     * Update this view for the given axes and data area (only if they changed)
+     * @param domainAxis domain axis
+     * @param rangeAxis range axis
+     * @param dataArea data area
+     * @param domainEdge domain axis edge
+     * @param rangeEdge range axis edge
+     * @param orientation plot orientation
+     * @return true if at least one series is decimated
+     */
+    public boolean update(final ValueAxis domainAxis, final ValueAxis rangeAxis, final Rectangle2D dataArea,
+                          final RectangleEdge domainEdge, final RectangleEdge rangeEdge,
+                          final PlotOrientation orientation) {
+
+        final int nPix = (int) Math.ceil((orientation == PlotOrientation.VERTICAL) ? dataArea.getWidth() : dataArea.getHeight());
+        final int nSeries = this.dataset.getSeriesCount();
+
+        if ((nPix == this.nPixels) && (nSeries == this.seriesCount)
+                && domainAxis.getRange().equals(this.domainRange) && rangeAxis.getRange().equals(this.range)) {
+            // unchanged:
+            return this.decimated;
+        }
+
+        final long start = System.nanoTime();
+
+        this.nPixels = nPix;
+        this.seriesCount = nSeries;
+        this.domainRange = domainAxis.getRange();
+        this.range = rangeAxis.getRange();
+        this.visibleItems = new BitSet[nSeries];
+        this.decimated = false;
+
+        if (nPix <= 0) {
+            return false;
+        }
+
+        final double minPix = (orientation == PlotOrientation.VERTICAL) ? dataArea.getMinX() : dataArea.getMinY();
+
+        // derive axis transforms once:
+        final AxisTransform xTransform = new AxisTransform(domainAxis, dataArea, domainEdge);
+        final AxisTransform yTransform = new AxisTransform(rangeAxis, dataArea, rangeEdge);
+
+        int nVisible = 0, nTotal = 0;
+
+        for (int series = 0; series < nSeries; series++) {
+            final int nItems = this.dataset.getItemCount(series);
+            nTotal += nItems;
+
+            if (nItems <= MIN_ITEMS_PER_PIXEL * nPix) {
+                // all items are visible:
+                nVisible += nItems;
+                continue;
+            }
+
+            final BitSet visible = new BitSet(nItems);
+
+            decimate(series, nItems, visible, xTransform, yTransform, minPix, nPix);
+            nVisible += visible.cardinality();
+
+            this.visibleItems[series] = visible;
+            this.decimated = true;
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("DatasetLODView.update: {} / {} items ({} pixels): duration = {} ms.",
+                    nVisible, nTotal, nPix, 1e-6d * (System.nanoTime() - start));
+        }
+        return this.decimated;
+    }
+
+    /**
+     * Decimate the given series to the first, last, min and max items of every run of consecutive items
+     * falling in the same pixel column and to the items having the lowest y error start and highest y error end
+     * (items outside of the data area are gathered in 2 virtual columns)
+     * @param series the series index (zero-based)
+     * @param nItems number of items
+     * @param visible visible items to fill
+     * @param xTransform domain axis transform
+     * @param yTransform range axis transform
+     * @param minPix first pixel column
+     * @param nPix number of pixel columns
+     */
+    private void decimate(final int series, final int nItems, final BitSet visible,
+                          final AxisTransform xTransform, final AxisTransform yTransform,
+                          final double minPix, final int nPix) {
+        // current run:
+        int runPix = Integer.MIN_VALUE;
+        int first = -1, last = -1, minItem = -1, maxItem = -1, minErrItem = -1, maxErrItem = -1;
+        double minY = 0.0, maxY = 0.0, minErr = 0.0, maxErr = 0.0;
+
+        double x, y, yStart, yEnd, px;
+        int p;
+        for (int item = 0; item < nItems; item++) {
+            x = this.dataset.getXValue(series, item);
+            y = this.dataset.getYValue(series, item);
+
+            px = xTransform.toJava2D(x);
+
+            // undefined points break lines: keep them:
+            if (Double.isNaN(px) || Double.isNaN(yTransform.toJava2D(y))) {
+                keepRun(visible, first, minItem, maxItem, last);
+                keepErrors(visible, minErrItem, maxErrItem);
+                first = minErrItem = maxErrItem = -1;
+                runPix = Integer.MIN_VALUE;
+                visible.set(item);
+                continue;
+            }
+            px -= minPix;
+            p = (px < 0.0) ? -1 : ((px >= nPix) ? nPix : (int) px);
+
+            // y error bounds (NaN if undefined):
+            yStart = this.dataset.getStartYValue(series, item);
+            yEnd = this.dataset.getEndYValue(series, item);
+
+            if (p != runPix) {
+                keepRun(visible, first, minItem, maxItem, last);
+                keepErrors(visible, minErrItem, maxErrItem);
+                runPix = p;
+                first = minItem = maxItem = item;
+                minY = maxY = y;
+                minErrItem = maxErrItem = -1;
+            } else if (y < minY) {
+                minY = y;
+                minItem = item;
+            } else if (y > maxY) {
+                maxY = y;
+                maxItem = item;
+            }
+            if (yStart < minErr || ((minErrItem == -1) && !Double.isNaN(yStart))) {
+                minErr = yStart;
+                minErrItem = item;
+            }
+            if (yEnd > maxErr || ((maxErrItem == -1) && !Double.isNaN(yEnd))) {
+                maxErr = yEnd;
+                maxErrItem = item;
+            }
+            last = item;
+        }
+        keepRun(visible, first, minItem, maxItem, last);
+        keepErrors(visible, minErrItem, maxErrItem);
+    }
+
+    /**
+     * Mark the first, min, max and last items of the given run as visible
+     * @param visible visible items to fill
+     * @param first first item of the run (-1 if undefined)
+     * @param minItem item with the min y value
+     * @param maxItem item with the max y value
+     * @param last last item of the run
+     */
+    private static void keepRun(final BitSet visible, final int first, final int minItem, final int maxItem, final int last) {
+        if (first != -1) {
+            visible.set(first);
+            visible.set(minItem);
+            visible.set(maxItem);
+            visible.set(last);
+        }
+    }
+
+    /**
+     * Mark the items having the lowest y error start and highest y error end of the given run as visible
+     * @param visible visible items to fill
+     * @param minErrItem item with the lowest y error start (-1 if undefined)
+     * @param maxErrItem item with the highest y error end (-1 if undefined)
+     */
+    private static void keepErrors(final BitSet visible, final int minErrItem, final int maxErrItem) {
+        if (minErrItem != -1) {
+            visible.set(minErrItem);
+        }
+        if (maxErrItem != -1) {
+            visible.set(maxErrItem);
+        }
+    }
+
+    /**
+     * Return true if the given item is visible in this view
+     * @param series the series index (zero-based)
+     * @param item the item index (zero-based)
+     * @return true if the given item is visible
+     */
+    public boolean isItemVisible(final int series, final int item) {
+        final BitSet visible = this.visibleItems[series];
+        return (visible == null) || visible.get(item);
+    }
+
+    /**
+     * Return the previous visible item of the given series
+     * @param series the series index (zero-based)
+     * @param item the item index (zero-based)
+     * @return previous visible item or -1 if none
+     */
+    public int getPreviousVisibleItem(final int series, final int item) {
+        final BitSet visible = this.visibleItems[series];
+        return (visible == null) ? item - 1 : visible.previousSetBit(item - 1);
+    }
+}
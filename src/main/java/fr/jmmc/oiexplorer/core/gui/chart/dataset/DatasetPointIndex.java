@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.gui.chart.dataset;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is a reverse index over the real series of a FastIntervalXYDataset:
+ * it maps (table, row, col) to the first (series, item) giving that data point
+ * to resolve data pointers (selection from other views) in constant time.
+ *
+ * The table is the OIData of OITableSerieKey series keys (or the series key itself).
+ * Virtual symmetric series are not indexed: use FastIntervalXYDataset.getSymmetricSeriesIndex().
+ *
+ * @author bourgesl
+ */
+public final class DatasetPointIndex {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(DatasetPointIndex.class.getName());
+    /** missing data point */
+    public final static long NOT_FOUND = -1L;
+
+    /* members */
+    /** row / col maps per table (identity) */
+    private final Map<Object, RowColMap> tables = new IdentityHashMap<Object, RowColMap>();
+
+    /**
+     * Create the reverse index of the given dataset (real series only)
+     * @param dataset dataset to index
+     * @return new reverse index
+     */
+    public static DatasetPointIndex create(final FastIntervalXYDataset<?, ?> dataset) {
+        final long start = System.nanoTime();
+
+        final DatasetPointIndex index = new DatasetPointIndex();
+
+        final int nSeries = (dataset.isSymmetric()) ? dataset.getSeriesCount() / 2 : dataset.getSeriesCount();
+        int n = 0;
+
+        Object table = null;
+        RowColMap map = null;
+
+        for (int series = 0; series < nSeries; series++) {
+            final Object t = getTable(dataset.getSeriesKey(series));
+            if (t != table) {
+                table = t;
+                map = index.tables.get(t);
+                if (map == null) {
+                    map = new RowColMap(256);
+                    index.tables.put(t, map);
+                }
+            }
+            for (int item = 0, nItems = dataset.getItemCount(series); item < nItems; item++) {
+                // skip cut-off points (NaN):
+                if (!Double.isNaN(dataset.getYValue(series, item))) {
+                    map.putIfAbsent(dataset.getDataRow(series, item), dataset.getDataCol(series, item), series, item);
+                    n++;
+                }
+            }
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("DatasetPointIndex.create: {} items in {} tables: duration = {} ms.",
+                    n, index.tables.size(), 1e-6d * (System.nanoTime() - start));
+        }
+        return index;
+    }
+
+    /**
+     * Return the table of the given series key
+     * @param seriesKey series key
+     * @return OIData if the series key is an OITableSerieKey or the series key itself
+     */
+    private static Object getTable(final Object seriesKey) {
+        if (seriesKey instanceof OITableSerieKey) {
+            return ((OITableSerieKey) seriesKey).getDataPointer().getOiData();
+        }
+        return seriesKey;
+    }
+
+    /**
+     * Private constructor
+     */
+    private DatasetPointIndex() {
+        super();
+    }
+
+    /**
+     * Find the first (series, item) corresponding to the given data point
+     * @param table table (OIData)
+     * @param row row index
+     * @param col column index
+     * @return packed (series, item) or NOT_FOUND
+     */
+    public long find(final Object table, final int row, final int col) {
+        final RowColMap map = this.tables.get(table);
+        return (map != null) ? map.get(row, col) : NOT_FOUND;
+    }
+
+    /**
+     * Return the series index of the given packed (series, item)
+     * @param match packed (series, item)
+     * @return series index
+     */
+    public static int getSeries(final long match) {
+        return (int) (match >>> 32);
+    }
+
+    /**
+     * Return the item index of the given packed (series, item)
+     * @param match packed (series, item)
+     * @return item index
+     */
+    public static int getItem(final long match) {
+        return (int) match;
+    }
+
+    /**
+     * Open-addressing hash map (linear probing) from (row, col) to packed (series, item)
+     */
+    private final static class RowColMap {
+
+        /** empty slot (row and col are positive) */
+        private final static long EMPTY = -1L;
+
+        /** packed (row, col) keys */
+        private long[] keys;
+        /** packed (series, item) values */
+        private long[] values;
+        /** number of keys */
+        private int size = 0;
+
+        RowColMap(final int capacity) {
+            allocate(capacity);
+        }
+
+        long get(final int row, final int col) {
+            final long key = pack(row, col);
+            final long[] k = this.keys;
+            final int mask = k.length - 1;
+            for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+                final long cur = k[i];
+                if (cur == key) {
+                    return this.values[i];
+                }
+                if (cur == EMPTY) {
+                    return NOT_FOUND;
+                }
+            }
+        }
+
+        void putIfAbsent(final int row, final int col, final int series, final int item) {
+            if (2 * (this.size + 1) > this.keys.length) {
+                rehash();
+            }
+            final long key = pack(row, col);
+            final long[] k = this.keys;
+            final int mask = k.length - 1;
+            for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+                final long cur = k[i];
+                if (cur == key) {
+                    // keep first:
+                    return;
+                }
+                if (cur == EMPTY) {
+                    k[i] = key;
+                    this.values[i] = pack(series, item);
+                    this.size++;
+                    return;
+                }
+            }
+        }
+
+        private void rehash() {
+            final long[] oldKeys = this.keys;
+            final long[] oldValues = this.values;
+
+            allocate(oldKeys.length);
+            final long[] k = this.keys;
+            final int mask = k.length - 1;
+
+            for (int j = 0; j < oldKeys.length; j++) {
+                final long key = oldKeys[j];
+                if (key != EMPTY) {
+                    int i = hash(key) & mask;
+                    while (k[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    k[i] = key;
+                    this.values[i] = oldValues[j];
+                }
+            }
+        }
+
+        private void allocate(final int capacity) {
+            // load factor = 0.5 (power of 2):
+            int len = 16;
+            while (len < 2 * capacity) {
+                len <<= 1;
+            }
+            this.keys = new long[len];
+            this.values = new long[len];
+            Arrays.fill(this.keys, EMPTY);
+        }
+
+        private static long pack(final int hi, final int lo) {
+            return (((long) hi) << 32) | (lo & 0xFFFFFFFFL);
+        }
+
+        private static int hash(final long key) {
+            final long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
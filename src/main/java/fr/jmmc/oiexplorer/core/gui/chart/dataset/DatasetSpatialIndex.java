@@ -0,0 +1,438 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.gui.chart.dataset;
+
+import fr.jmmc.jmcs.util.NumberUtils;
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is a spatial index (uniform grid in axis coordinates) over all items of a FastIntervalXYDataset
+ * (including virtual symmetric series) to find the nearest item without scanning the whole dataset.
+ *
+ * The grid is built in axis coordinates: data values on linear axes and log10(data values) on logarithmic axes
+ * so that grid cells keep a uniform pixel size whatever the axis scale (items not displayable on a logarithmic axis
+ * ie non positive values are not indexed).
+ *
+ * Items are sorted by grid cell (compact arrays: cell start offsets, series and item indexes).
+ * Nearest item queries visit grid cells ring by ring around the anchor until no closer item can exist
+ * (pixel-ratio aware distance); region queries only visit grid cells overlapping the region bounding box.
+ *
+ * @author bourgesl
+ */
+public final class DatasetSpatialIndex {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(DatasetSpatialIndex.class.getName());
+    /** average number of items per grid cell */
+    private final static int ITEMS_PER_CELL = 8;
+    /** maximum number of grid cells per axis */
+    private final static int MAX_CELLS_PER_AXIS = 1024;
+    /** empty result */
+    private final static int[] EMPTY = new int[0];
+    /** ln(10) */
+    private final static double LN_10 = Math.log(10.0);
+
+    /* members */
+    /** number of indexed items */
+    private final int size;
+    /** true if the x axis is logarithmic (grid in log10(x)) */
+    private final boolean xLog;
+    /** true if the y axis is logarithmic (grid in log10(y)) */
+    private final boolean yLog;
+    /** grid origin along x (axis coordinates) */
+    private final double minX;
+    /** grid origin along y (axis coordinates) */
+    private final double minY;
+    /** cell width (axis coordinates) */
+    private final double cellWidth;
+    /** cell height (axis coordinates) */
+    private final double cellHeight;
+    /** number of cells along x */
+    private final int nx;
+    /** number of cells along y */
+    private final int ny;
+    /** offset of the first item per cell (nx * ny + 1 entries) */
+    private final int[] cellStart;
+    /** series index per sorted item */
+    private final int[] seriesIndexes;
+    /** item index per sorted item */
+    private final int[] itemIndexes;
+
+    /**
+     * Create the spatial index of the given dataset
+     * @param dataset dataset to index
+     * @param xLog true if the x axis is logarithmic
+     * @param yLog true if the y axis is logarithmic
+     * @return new spatial index
+     */
+    public static DatasetSpatialIndex create(final FastIntervalXYDataset<?, ?> dataset, final boolean xLog, final boolean yLog) {
+        final long start = System.nanoTime();
+
+        final int nSeries = dataset.getSeriesCount();
+
+        // grid bounds (valid items in axis coordinates):
+        double xMin = Double.POSITIVE_INFINITY;
+        double xMax = Double.NEGATIVE_INFINITY;
+        double yMin = Double.POSITIVE_INFINITY;
+        double yMax = Double.NEGATIVE_INFINITY;
+        int n = 0;
+
+        double x, y;
+        for (int series = 0; series < nSeries; series++) {
+            for (int item = 0, nItems = dataset.getItemCount(series); item < nItems; item++) {
+                x = toAxis(dataset.getXValue(series, item), xLog);
+                y = toAxis(dataset.getYValue(series, item), yLog);
+
+                if (NumberUtils.isFinite(x) && NumberUtils.isFinite(y)) {
+                    if (x < xMin) {
+                        xMin = x;
+                    }
+                    if (x > xMax) {
+                        xMax = x;
+                    }
+                    if (y < yMin) {
+                        yMin = y;
+                    }
+                    if (y > yMax) {
+                        yMax = y;
+                    }
+                    n++;
+                }
+            }
+        }
+
+        final DatasetSpatialIndex index = new DatasetSpatialIndex(n, xLog, yLog, xMin, xMax, yMin, yMax);
+
+        if (n != 0) {
+            // counting sort by cell:
+            final int[] cellStart = index.cellStart;
+            final int nCells = cellStart.length - 1;
+
+            for (int series = 0; series < nSeries; series++) {
+                for (int item = 0, nItems = dataset.getItemCount(series); item < nItems; item++) {
+                    x = toAxis(dataset.getXValue(series, item), xLog);
+                    y = toAxis(dataset.getYValue(series, item), yLog);
+
+                    if (NumberUtils.isFinite(x) && NumberUtils.isFinite(y)) {
+                        cellStart[index.getCell(x, y) + 1]++;
+                    }
+                }
+            }
+            for (int c = 0; c < nCells; c++) {
+                cellStart[c + 1] += cellStart[c];
+            }
+
+            final int[] fill = new int[nCells];
+            System.arraycopy(cellStart, 0, fill, 0, nCells);
+
+            int cell, pos;
+            for (int series = 0; series < nSeries; series++) {
+                for (int item = 0, nItems = dataset.getItemCount(series); item < nItems; item++) {
+                    x = toAxis(dataset.getXValue(series, item), xLog);
+                    y = toAxis(dataset.getYValue(series, item), yLog);
+
+                    if (NumberUtils.isFinite(x) && NumberUtils.isFinite(y)) {
+                        cell = index.getCell(x, y);
+                        pos = fill[cell]++;
+                        index.seriesIndexes[pos] = series;
+                        index.itemIndexes[pos] = item;
+                    }
+                }
+            }
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("DatasetSpatialIndex.create: {} items in [{} x {}] cells (log: {} / {}): duration = {} ms.",
+                    n, index.nx, index.ny, xLog, yLog, 1e-6d * (System.nanoTime() - start));
+        }
+        return index;
+    }
+
+    /**
+     * Private constructor
+     * @param size number of items
+     * @param xLog true if the x axis is logarithmic
+     * @param yLog true if the y axis is logarithmic
+     * @param xMin minimum x value (axis coordinates)
+     * @param xMax maximum x value (axis coordinates)
+     * @param yMin minimum y value (axis coordinates)
+     * @param yMax maximum y value (axis coordinates)
+     */
+    private DatasetSpatialIndex(final int size, final boolean xLog, final boolean yLog,
+                                final double xMin, final double xMax, final double yMin, final double yMax) {
+        this.size = size;
+        this.xLog = xLog;
+        this.yLog = yLog;
+        if (size == 0) {
+            this.minX = 0.0;
+            this.minY = 0.0;
+            this.nx = 1;
+            this.ny = 1;
+        } else {
+            this.minX = xMin;
+            this.minY = yMin;
+            // square-ish grid (cells in index space):
+            final int nPerAxis = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, (int) Math.sqrt(size / ITEMS_PER_CELL)));
+            this.nx = (xMax > xMin) ? nPerAxis : 1;
+            this.ny = (yMax > yMin) ? nPerAxis : 1;
+        }
+        this.cellWidth = (this.nx > 1) ? (xMax - xMin) / this.nx : 1.0;
+        this.cellHeight = (this.ny > 1) ? (yMax - yMin) / this.ny : 1.0;
+        this.cellStart = new int[this.nx * this.ny + 1];
+        this.seriesIndexes = new int[size];
+        this.itemIndexes = new int[size];
+    }
+
+    /**
+     * Return the number of indexed items
+     * @return number of indexed items
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Return the series index of the given indexed item
+     * @param pos indexed item position
+     * @return series index
+     */
+    public int getSeries(final int pos) {
+        return seriesIndexes[pos];
+    }
+
+    /**
+     * Return the item index of the given indexed item
+     * @param pos indexed item position
+     * @return item index
+     */
+    public int getItem(final int pos) {
+        return itemIndexes[pos];
+    }
+
+    /**
+     * Find the nearest item to the given anchor (data coordinates) using pixel distances
+     * @param dataset indexed dataset (values)
+     * @param anchorX domain axis coordinate
+     * @param anchorY range axis coordinate
+     * @param xRatio pixels per data on domain axis (local ratio at the anchor)
+     * @param yRatio pixels per data on range axis (local ratio at the anchor)
+     * @return indexed item position or -1 if no item
+     */
+    public int findNearest(final FastIntervalXYDataset<?, ?> dataset,
+                           final double anchorX, final double anchorY,
+                           final double xRatio, final double yRatio) {
+        if (this.size == 0) {
+            return -1;
+        }
+        // anchor in axis coordinates:
+        final double ax = toAxis(anchorX, this.xLog);
+        final double ay = toAxis(anchorY, this.yLog);
+
+        if (!NumberUtils.isFinite(ax) || !NumberUtils.isFinite(ay)) {
+            return -1;
+        }
+        // pixels per axis unit (constant along logarithmic axes: d(log10(x)) = dx / (x ln(10))):
+        final double rx = (this.xLog) ? Math.abs(xRatio * anchorX) * LN_10 : Math.abs(xRatio);
+        final double ry = (this.yLog) ? Math.abs(yRatio * anchorY) * LN_10 : Math.abs(yRatio);
+
+        final int cx = getCellX(ax);
+        final int cy = getCellY(ay);
+        final int maxRing = Math.max(Math.max(cx, this.nx - 1 - cx), Math.max(cy, this.ny - 1 - cy));
+
+        double minDistance = Double.POSITIVE_INFINITY;
+        int match = -1;
+
+        double dx, dy, distance;
+        int series, item;
+
+        for (int r = 0; r <= maxRing; r++) {
+            final int x0 = cx - r;
+            final int x1 = cx + r;
+            final int y0 = cy - r;
+            final int y1 = cy + r;
+
+            for (int j = Math.max(0, y0), jmax = Math.min(this.ny - 1, y1); j <= jmax; j++) {
+                // only cells on the ring border:
+                final boolean border = (j == y0) || (j == y1);
+                final int step = (border || r == 0) ? 1 : (x1 - x0);
+
+                for (int i = x0; i <= x1; i += step) {
+                    if (i < 0 || i >= this.nx) {
+                        continue;
+                    }
+                    final int cell = j * this.nx + i;
+
+                    for (int p = this.cellStart[cell], end = this.cellStart[cell + 1]; p < end; p++) {
+                        series = this.seriesIndexes[p];
+                        item = this.itemIndexes[p];
+
+                        // converted in pixels:
+                        dx = (toAxis(dataset.getXValue(series, item), this.xLog) - ax) * rx;
+                        dy = (toAxis(dataset.getYValue(series, item), this.yLog) - ay) * ry;
+
+                        distance = dx * dx + dy * dy;
+
+                        if (distance < minDistance) {
+                            minDistance = distance;
+                            match = p;
+                        }
+                    }
+                }
+            }
+
+            if (match != -1) {
+                // stop if items outside the visited rings can not be closer
+                // (pixel distance to the nearest side having unvisited cells):
+                double gap = Double.POSITIVE_INFINITY;
+                if (x0 > 0) {
+                    gap = Math.min(gap, rx * (ax - (this.minX + x0 * this.cellWidth)));
+                }
+                if (x1 < this.nx - 1) {
+                    gap = Math.min(gap, rx * ((this.minX + (x1 + 1) * this.cellWidth) - ax));
+                }
+                if (y0 > 0) {
+                    gap = Math.min(gap, ry * (ay - (this.minY + y0 * this.cellHeight)));
+                }
+                if (y1 < this.ny - 1) {
+                    gap = Math.min(gap, ry * ((this.minY + (y1 + 1) * this.cellHeight) - ay));
+                }
+                if (gap * gap >= minDistance) {
+                    break;
+                }
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Find all items inside the given shape (data coordinates).
+     * Only grid cells overlapping the shape bounding box are visited; items of inner cells fully
+     * contained in the shape are accepted without testing their coordinates.
+     * @param dataset indexed dataset (values)
+     * @param shape shape to use (data coordinates)
+     * @return indexed item positions (sorted by grid cell) or empty array
+     */
+    public int[] findInside(final FastIntervalXYDataset<?, ?> dataset, final Shape shape) {
+        if (this.size == 0) {
+            return EMPTY;
+        }
+        final Rectangle2D bounds = shape.getBounds2D();
+        if (bounds.isEmpty()) {
+            return EMPTY;
+        }
+        final double bMinX = bounds.getMinX();
+        final double bMaxX = bounds.getMaxX();
+        final double bMinY = bounds.getMinY();
+        final double bMaxY = bounds.getMaxY();
+
+        // non positive bounds on logarithmic axes give the first cell (clamped):
+        final int cx0 = getCellX(toAxis(bMinX, this.xLog));
+        final int cx1 = getCellX(toAxis(bMaxX, this.xLog));
+        final int cy0 = getCellY(toAxis(bMinY, this.yLog));
+        final int cy1 = getCellY(toAxis(bMaxY, this.yLog));
+
+        // cell bounds in data coordinates:
+        final Rectangle2D.Double cellRect = new Rectangle2D.Double();
+        double cellMinX, cellMinY, cellMaxY;
+
+        int[] matches = new int[64];
+        int n = 0;
+
+        double x, y;
+        int series, item;
+
+        for (int j = cy0; j <= cy1; j++) {
+            cellMinY = fromAxis(this.minY + j * this.cellHeight, this.yLog);
+            cellMaxY = fromAxis(this.minY + (j + 1) * this.cellHeight, this.yLog);
+
+            for (int i = cx0; i <= cx1; i++) {
+                final int cell = j * this.nx + i;
+                final int begin = this.cellStart[cell];
+                final int end = this.cellStart[cell + 1];
+
+                if (begin == end) {
+                    continue;
+                }
+                if (n + (end - begin) > matches.length) {
+                    matches = Arrays.copyOf(matches, Math.max(2 * matches.length, n + (end - begin)));
+                }
+
+                // grid border cells may hold clamped items (rounding) so always test them:
+                final boolean inner = (i > 0) && (i < this.nx - 1) && (j > 0) && (j < this.ny - 1);
+
+                if (inner) {
+                    cellMinX = fromAxis(this.minX + i * this.cellWidth, this.xLog);
+                    cellRect.setRect(cellMinX, cellMinY,
+                            fromAxis(this.minX + (i + 1) * this.cellWidth, this.xLog) - cellMinX, cellMaxY - cellMinY);
+                }
+
+                if (inner && shape.contains(cellRect)) {
+                    for (int p = begin; p < end; p++) {
+                        matches[n++] = p;
+                    }
+                } else {
+                    for (int p = begin; p < end; p++) {
+                        series = this.seriesIndexes[p];
+                        item = this.itemIndexes[p];
+
+                        x = dataset.getXValue(series, item);
+                        y = dataset.getYValue(series, item);
+
+                        // bounding box prefilter (cheap) before the exact shape test:
+                        if (x >= bMinX && x <= bMaxX && y >= bMinY && y <= bMaxY && shape.contains(x, y)) {
+                            matches[n++] = p;
+                        }
+                    }
+                }
+            }
+        }
+        return (n == matches.length) ? matches : Arrays.copyOf(matches, n);
+    }
+
+    /**
+     * Return the given value in axis coordinates
+     * @param value data value
+     * @param log true if the axis is logarithmic
+     * @return log10(value) if the axis is logarithmic (NaN or -Infinity if value is not positive); value otherwise
+     */
+    private static double toAxis(final double value, final boolean log) {
+        return (log) ? Math.log10(value) : value;
+    }
+
+    /**
+     * Return the given axis coordinate as a data value
+     * @param value axis coordinate
+     * @param log true if the axis is logarithmic
+     * @return 10^value if the axis is logarithmic; value otherwise
+     */
+    private static double fromAxis(final double value, final boolean log) {
+        return (log) ? Math.pow(10.0, value) : value;
+    }
+
+    /**
+     * Return the cell index of the given point (clamped to the grid)
+     * @param x x value (axis coordinates)
+     * @param y y value (axis coordinates)
+     * @return cell index
+     */
+    private int getCell(final double x, final double y) {
+        return getCellY(y) * this.nx + getCellX(x);
+    }
+
+    private int getCellX(final double x) {
+        return clamp((int) Math.floor((x - this.minX) / this.cellWidth), this.nx);
+    }
+
+    private int getCellY(final double y) {
+        return clamp((int) Math.floor((y - this.minY) / this.cellHeight), this.ny);
+    }
+
+    private static int clamp(final int i, final int n) {
+        return (i < 0) ? 0 : ((i >= n) ? n - 1 : i);
+    }
+}
@@ -3,16 +3,18 @@
  ******************************************************************************/
 package fr.jmmc.oiexplorer.core.gui.chart.dataset;
 
-import fr.jmmc.jmcs.util.NumberUtils;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.BitSet;
 import org.jfree.data.general.DatasetChangeEvent;
 import org.jfree.data.xy.AbstractIntervalXYDataset;
 import org.jfree.chart.util.PublicCloneable;
 
 /**
  * An efficient implementation of jFreeChart's DefaultIntervalXYDataset
+ *
+ * Series data are stored in columnar buffers (ColumnarSeriesData) shared by many series
+ * and located by an offset table; series keys are resolved using a primitive key-to-index map.
  * @author bourgesl
  * @param <K> key type
  * @param <V> comparable type
@@ -23,35 +25,49 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
     private static final long serialVersionUID = 1;
     /** initial capacity for internal collections */
     private final static int INITIAL_CAPACITY = 256;
+    /** number of flag bits per item */
+    public final static int FLAG_BITS_PER_ITEM = 2;
+    /** flag bit: flagged item */
+    public final static int FLAG_FLAGGED = 0;
+    /** flag bit: invalid error */
+    public final static int FLAG_INVALID_ERROR = 1;
     /* members */
-    /** number of series */
+    /** number of (real) series */
     private int seriesCount = 0;
-    /** Storage for the series keys */
-    private final HashMap<K, Integer> seriesKeys;
-    /** Storage for the indexes of series keys */
-    private final HashMap<Integer, K> keysIndexes;
+    /** flag indicating to provide virtual symmetric series (-x, -y) after the real series */
+    private boolean symmetric = false;
+    /** true if the domain axis is logarithmic (spatial index) */
+    private boolean xLogScale = false;
+    /** true if the range axis is logarithmic (spatial index) */
+    private boolean yLogScale = false;
+    /** Storage for the series keys (series index to key) */
+    private final ArrayList<K> keys;
+    /** Storage for the indexes of series keys (key to series index) */
+    private final KeyIndexMap<K> seriesKeys;
     /**
-     * Storage for the series's double values in the dataset.  We use a list because the
-     * order of the series is significant.  This list must be kept in sync
-     * with the seriesKeys list.
+     * Storage for the columnar data holding the series's values (shared by many series).
+     * These arrays must be kept in sync with the keys list.
      */
-    private final ArrayList<int[][]> seriesIntDataList;
-    /**
-     * Storage for the series's double values in the dataset.  We use a list because the
-     * order of the series is significant.  This list must be kept in sync
-     * with the seriesKeys list.
-     */
-    private final ArrayList<double[][]> seriesDblDataList;
+    private ColumnarSeriesData[] seriesData;
+    /** offset of the first item of each series in its columnar data */
+    private int[] seriesOffsets;
+    /** number of items of each series */
+    private int[] seriesItemCounts;
+    /** spatial index (lazily built, reset when series change) */
+    private transient DatasetSpatialIndex spatialIndex = null;
+    /** reverse index of data points (lazily built, reset when series change) */
+    private transient DatasetPointIndex pointIndex = null;
 
     /**
      * Creates a new <code>FastIntervalXYDataset</code> instance, initially
      * containing no data.
      */
     public FastIntervalXYDataset() {
-        this.seriesKeys = new HashMap<K, Integer>(INITIAL_CAPACITY);
-        this.keysIndexes = new HashMap<Integer, K>(INITIAL_CAPACITY);
-        this.seriesIntDataList = new ArrayList<int[][]>(INITIAL_CAPACITY);
-        this.seriesDblDataList = new ArrayList<double[][]>(INITIAL_CAPACITY);
+        this.keys = new ArrayList<K>(INITIAL_CAPACITY);
+        this.seriesKeys = new KeyIndexMap<K>(INITIAL_CAPACITY);
+        this.seriesData = new ColumnarSeriesData[INITIAL_CAPACITY];
+        this.seriesOffsets = new int[INITIAL_CAPACITY];
+        this.seriesItemCounts = new int[INITIAL_CAPACITY];
     }
 
     /**
@@ -62,9 +78,14 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
      * @param   minCapacity   the desired minimum capacity
      */
     public void ensureCapacity(final int minCapacity) {
-        // no way to ensure capacity in map (see HashMap.resize package visible)
-        this.seriesIntDataList.ensureCapacity(minCapacity);
-        this.seriesDblDataList.ensureCapacity(minCapacity);
+        this.keys.ensureCapacity(minCapacity);
+        this.seriesKeys.ensureCapacity(minCapacity);
+        if (minCapacity > this.seriesData.length) {
+            final int capacity = Math.max(minCapacity, 2 * this.seriesData.length);
+            this.seriesData = Arrays.copyOf(this.seriesData, capacity);
+            this.seriesOffsets = Arrays.copyOf(this.seriesOffsets, capacity);
+            this.seriesItemCounts = Arrays.copyOf(this.seriesItemCounts, capacity);
+        }
     }
 
     /**
@@ -75,15 +96,80 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
     @Override
     public int getSeriesCount() {
         // Optimized code (use int):
-        return seriesCount;
+        return (symmetric) ? (seriesCount << 1) : seriesCount;
     }
 
     private void checkIndex(final int series) {
-        if (series < 0 || series >= seriesCount) {
+        if (series < 0 || series >= getSeriesCount()) {
             throw new IllegalArgumentException("Series index out of bounds");
         }
     }
 
+    /**
+     * Return true if this dataset provides virtual symmetric series
+     * @return true if this dataset provides virtual symmetric series
+     */
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    /**
+     * Define the flag indicating to provide virtual symmetric series:
+     * series [n; 2n[ give the reflected points (-x, -y) of the real series [0; n[
+     * computed on the fly from the same data arrays (no copy)
+     * then sends a {@link DatasetChangeEvent} to all registered listeners.
+     *
+     * @param symmetric true to provide virtual symmetric series
+     */
+    public void setSymmetric(final boolean symmetric) {
+        if (this.symmetric != symmetric) {
+            this.symmetric = symmetric;
+            resetIndexes();
+            notifyListeners(new DatasetChangeEvent(this, this));
+        }
+    }
+
+    /**
+     * Define the axis scales used to build the spatial index (grid in log10 coordinates along logarithmic axes)
+     *
+     * @param xLogScale true if the domain axis is logarithmic
+     * @param yLogScale true if the range axis is logarithmic
+     */
+    public void setLogScale(final boolean xLogScale, final boolean yLogScale) {
+        if ((this.xLogScale != xLogScale) || (this.yLogScale != yLogScale)) {
+            this.xLogScale = xLogScale;
+            this.yLogScale = yLogScale;
+            resetIndexes();
+        }
+    }
+
+    /**
+     * Return true if the given series index corresponds to a virtual symmetric series
+     * @param series the series index (zero-based)
+     * @return true if the given series index corresponds to a virtual symmetric series
+     */
+    public boolean isSymmetricSeries(final int series) {
+        return (series >= seriesCount);
+    }
+
+    /**
+     * Return the index of the virtual symmetric series of the given real series
+     * @param series the real series index (zero-based)
+     * @return virtual symmetric series index
+     */
+    public int getSymmetricSeriesIndex(final int series) {
+        return series + seriesCount;
+    }
+
+    /**
+     * Return the index of the real series holding data for the given series index
+     * @param series the series index (zero-based)
+     * @return real series index
+     */
+    public int getSourceSeriesIndex(final int series) {
+        return (series >= seriesCount) ? (series - seriesCount) : series;
+    }
+
     /**
      * Returns the key for a series.
      *
@@ -98,7 +184,8 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
     @Override
     public Comparable<V> getSeriesKey(final int series) {
         checkIndex(series);
-        return this.keysIndexes.get(NumberUtils.valueOf(series));
+        // virtual symmetric series share the key of their real series:
+        return this.keys.get(getSourceSeriesIndex(series));
     }
 
     /**
@@ -115,8 +202,7 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
     @Override
     public int getItemCount(final int series) {
         checkIndex(series);
-        final double[][] seriesData = this.seriesDblDataList.get(series);
-        return seriesData[0].length;
+        return this.seriesItemCounts[getSourceSeriesIndex(series)];
     }
 
     /**
@@ -128,10 +214,8 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
      */
     @Override
     public int indexOf(final Comparable seriesKey) {
-        // Optimized code (use key map):
-        final Integer seriesIndex = this.seriesKeys.get(seriesKey);
-
-        return (seriesIndex != null) ? seriesIndex.intValue() : -1;
+        // Optimized code (use primitive key map):
+        return this.seriesKeys.get(seriesKey);
     }
 
     /**
@@ -150,8 +234,12 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
      */
     @Override
     public double getXValue(final int series, final int item) {
-        final double[][] seriesData = this.seriesDblDataList.get(series);
-        return seriesData[0][item];
+        if (series >= seriesCount) {
+            // virtual symmetric series:
+            final int s = series - seriesCount;
+            return -this.seriesData[s].getX(this.seriesOffsets[s] + item);
+        }
+        return this.seriesData[series].getX(this.seriesOffsets[series] + item);
     }
 
     /**
@@ -170,8 +258,12 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
      */
     @Override
     public double getStartXValue(final int series, final int item) {
-        final double[][] seriesData = this.seriesDblDataList.get(series);
-        return seriesData[1][item];
+        if (series >= seriesCount) {
+            // virtual symmetric series:
+            final int s = series - seriesCount;
+            return -this.seriesData[s].getXUp(this.seriesOffsets[s] + item);
+        }
+        return this.seriesData[series].getXLow(this.seriesOffsets[series] + item);
     }
 
     /**
@@ -190,8 +282,12 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
      */
     @Override
     public double getEndXValue(final int series, final int item) {
-        final double[][] seriesData = this.seriesDblDataList.get(series);
-        return seriesData[2][item];
+        if (series >= seriesCount) {
+            // virtual symmetric series:
+            final int s = series - seriesCount;
+            return -this.seriesData[s].getXLow(this.seriesOffsets[s] + item);
+        }
+        return this.seriesData[series].getXUp(this.seriesOffsets[series] + item);
     }
 
     /**
@@ -210,8 +306,12 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
      */
     @Override
     public double getYValue(final int series, final int item) {
-        final double[][] seriesData = this.seriesDblDataList.get(series);
-        return seriesData[3][item];
+        if (series >= seriesCount) {
+            // virtual symmetric series:
+            final int s = series - seriesCount;
+            return -this.seriesData[s].getY(this.seriesOffsets[s] + item);
+        }
+        return this.seriesData[series].getY(this.seriesOffsets[series] + item);
     }
 
     /**
@@ -230,8 +330,12 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
      */
     @Override
     public double getStartYValue(final int series, final int item) {
-        final double[][] seriesData = this.seriesDblDataList.get(series);
-        return seriesData[4][item];
+        if (series >= seriesCount) {
+            // virtual symmetric series:
+            final int s = series - seriesCount;
+            return -this.seriesData[s].getYUp(this.seriesOffsets[s] + item);
+        }
+        return this.seriesData[series].getYLow(this.seriesOffsets[series] + item);
     }
 
     /**
@@ -250,8 +354,12 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
      */
     @Override
     public double getEndYValue(final int series, final int item) {
-        final double[][] seriesData = this.seriesDblDataList.get(series);
-        return seriesData[5][item];
+        if (series >= seriesCount) {
+            // virtual symmetric series:
+            final int s = series - seriesCount;
+            return -this.seriesData[s].getYLow(this.seriesOffsets[s] + item);
+        }
+        return this.seriesData[series].getYUp(this.seriesOffsets[series] + item);
     }
 
     /**
@@ -375,13 +483,44 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
     }
 
     public int getDataRow(final int series, final int item) {
-        final int[][] seriesData = this.seriesIntDataList.get(series);
-        return seriesData[0][item];
+        final int s = getSourceSeriesIndex(series);
+        return this.seriesData[s].rows[this.seriesOffsets[s] + item];
     }
 
     public int getDataCol(final int series, final int item) {
-        final int[][] seriesData = this.seriesIntDataList.get(series);
-        return seriesData[1][item];
+        final int s = getSourceSeriesIndex(series);
+        return this.seriesData[s].cols[this.seriesOffsets[s] + item];
+    }
+
+    /**
+     * Return true if the given flag bit is set for the given item
+     * @param series the series index (zero-based)
+     * @param item the item index (zero-based)
+     * @param flag flag bit (FLAG_FLAGGED or FLAG_INVALID_ERROR)
+     * @return true if the given flag bit is set
+     */
+    public boolean isItemFlag(final int series, final int item, final int flag) {
+        final int s = getSourceSeriesIndex(series);
+        final BitSet flags = this.seriesData[s].flags;
+        return (flags != null) && flags.get((this.seriesOffsets[s] + item) * FLAG_BITS_PER_ITEM + flag);
+    }
+
+    /**
+     * Return true if the given item is valid (not flagged and valid errors)
+     * @param series the series index (zero-based)
+     * @param item the item index (zero-based)
+     * @return true if the given item is valid
+     */
+    public boolean isItemValid(final int series, final int item) {
+        final int s = getSourceSeriesIndex(series);
+        final BitSet flags = this.seriesData[s].flags;
+        if (flags == null) {
+            return true;
+        }
+        // no flag bit set:
+        final int pos = this.seriesOffsets[s] + item;
+        final int bit = flags.nextSetBit(pos * FLAG_BITS_PER_ITEM);
+        return (bit == -1) || (bit >= (pos + 1) * FLAG_BITS_PER_ITEM);
     }
 
     /**
@@ -396,6 +535,22 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
      *     arrays of equal length, containing x, xLow, xUp, y, yLow, yUp
      */
     public void addSeries(final K seriesKey, final int[][] dataInt, final double[][] dataDbl) {
+        addSeries(seriesKey, dataInt, dataDbl, null);
+    }
+
+    /**
+     * Adds a series or if a series with the same key already exists replaces
+     * the data for that series, then sends a {@link DatasetChangeEvent} to
+     * all registered listeners.
+     *
+     * @param seriesKey  the series key (<code>null</code> not permitted).
+     * @param dataInt  the integer data (must be an array with length 2, containing two
+     *     arrays of equal length, containing the row and column indices
+     * @param dataDbl  the double data (must be an array with length 6, containing six
+     *     arrays of equal length, containing x, xLow, xUp, y, yLow, yUp
+     * @param flags  the item flags (FLAG_BITS_PER_ITEM bits per item, packed) or <code>null</code> if all items are valid
+     */
+    public void addSeries(final K seriesKey, final int[][] dataInt, final double[][] dataDbl, final BitSet flags) {
         if (seriesKey == null) {
             throw new IllegalArgumentException("The 'seriesKey' cannot be null.");
         }
@@ -424,23 +579,135 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
             throw new IllegalArgumentException("The 'dataInt' and 'dataDbl' arrays must have equal length.");
         }
 
-        final int seriesIndex = indexOf(seriesKey);
+        // wrap arrays (no copy):
+        setSeries(seriesKey, ColumnarSeriesData.wrap(dataInt, dataDbl, flags), 0, length);
+        notifyListeners(new DatasetChangeEvent(this, this));
+    }
+
+    /**
+     * Adds a series stored in the given columnar data or if a series with the same key already exists replaces
+     * the data for that series, then sends a {@link DatasetChangeEvent} to all registered listeners.
+     * Note: columnar data are shared (not copied)
+     *
+     * @param seriesKey  the series key (<code>null</code> not permitted).
+     * @param data  the columnar data (<code>null</code> not permitted).
+     * @param dataSeries  the series index in the columnar data
+     */
+    public void addSeries(final K seriesKey, final ColumnarSeriesData data, final int dataSeries) {
+        if (seriesKey == null) {
+            throw new IllegalArgumentException("The 'seriesKey' cannot be null.");
+        }
+        if (data == null) {
+            throw new IllegalArgumentException("The 'data' is null.");
+        }
+        if (dataSeries < 0 || dataSeries >= data.getSeriesCount()) {
+            throw new IllegalArgumentException("The 'dataSeries' index is out of bounds.");
+        }
+        setSeries(seriesKey, data, data.getOffset(dataSeries), data.getItemCount(dataSeries));
+        notifyListeners(new DatasetChangeEvent(this, this));
+    }
+
+    /**
+     * Adds or replaces the series given by its key (no event)
+     * @param seriesKey the series key
+     * @param data the columnar data
+     * @param offset offset of the first item in the columnar data
+     * @param itemCount number of items
+     */
+    private void setSeries(final K seriesKey, final ColumnarSeriesData data, final int offset, final int itemCount) {
+        int seriesIndex = indexOf(seriesKey);
         if (seriesIndex == -1) {
             // add a new series:
-            this.seriesIntDataList.add(dataInt);
-            this.seriesDblDataList.add(dataDbl);
+            seriesIndex = this.seriesCount;
+            ensureCapacity(seriesIndex + 1);
 
             // cache serie index into maps:
-            final Integer seriesIdx = NumberUtils.valueOf(this.seriesCount);
-            this.seriesKeys.put(seriesKey, seriesIdx);
-            this.keysIndexes.put(seriesIdx, seriesKey);
+            this.keys.add(seriesKey);
+            this.seriesKeys.put(seriesKey, seriesIndex);
 
             // update series count:
             this.seriesCount++;
-        } else {
-            // replace an existing series:
-            this.seriesIntDataList.set(seriesIndex, dataInt);
-            this.seriesDblDataList.set(seriesIndex, dataDbl);
+        }
+        // add or replace the series:
+        this.seriesData[seriesIndex] = data;
+        this.seriesOffsets[seriesIndex] = offset;
+        this.seriesItemCounts[seriesIndex] = itemCount;
+
+        resetIndexes();
+    }
+
+    /**
+     * Return the footprint of the columnar series data in bytes (heap and direct or memory-mapped buffers;
+     * shared data are counted once)
+     * @return footprint in bytes
+     */
+    public long getDataFootprint() {
+        long bytes = 0L;
+        for (int i = 0; i < this.seriesCount; i++) {
+            final ColumnarSeriesData data = this.seriesData[i];
+            boolean shared = false;
+            for (int j = 0; j < i; j++) {
+                if (this.seriesData[j] == data) {
+                    shared = true;
+                    break;
+                }
+            }
+            if (!shared) {
+                bytes += data.getHeapFootprint() + data.getOffHeapFootprint();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Return the spatial index of all items (built lazily)
+     * @return spatial index
+     */
+    public synchronized DatasetSpatialIndex getSpatialIndex() {
+        if (this.spatialIndex == null) {
+            this.spatialIndex = DatasetSpatialIndex.create(this, this.xLogScale, this.yLogScale);
+        }
+        return this.spatialIndex;
+    }
+
+    /**
+     * Return the reverse index of data points (table, row, col) to (series, item) (built lazily)
+     * @return reverse index of data points
+     */
+    public synchronized DatasetPointIndex getPointIndex() {
+        if (this.pointIndex == null) {
+            this.pointIndex = DatasetPointIndex.create(this);
+        }
+        return this.pointIndex;
+    }
+
+    /**
+     * Reset indexes (series changed)
+     */
+    private synchronized void resetIndexes() {
+        this.spatialIndex = null;
+        this.pointIndex = null;
+    }
+
+    /**
+     * Adds all series of the given dataset (same ordering) then sends a
+     * {@link DatasetChangeEvent} to all registered listeners.
+     * Note: columnar series data are shared (not copied)
+     *
+     * @param source the dataset to get series from (<code>null</code> not permitted).
+     */
+    public void addSeries(final FastIntervalXYDataset<K, V> source) {
+        if (source == null) {
+            throw new IllegalArgumentException("The 'source' cannot be null.");
+        }
+        final int len = source.seriesCount;
+        if (len == 0) {
+            return;
+        }
+        ensureCapacity(this.seriesCount + len);
+
+        for (int i = 0; i < len; i++) {
+            setSeries(source.keys.get(i), source.seriesData[i], source.seriesOffsets[i], source.seriesItemCounts[i]);
         }
         notifyListeners(new DatasetChangeEvent(this, this));
     }
@@ -470,41 +737,22 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
             return false;
         }
         final FastIntervalXYDataset that = (FastIntervalXYDataset) obj;
+        if (this.symmetric != that.symmetric) {
+            return false;
+        }
         if (!this.seriesKeys.equals(that.seriesKeys)) {
             return false;
         }
-        // TODO: compare int[][]
+        if (this.seriesCount != that.seriesCount) {
+            return false;
+        }
+        // TODO: compare int data (rows, cols)
         for (int i = 0, len = this.seriesCount; i < len; i++) {
-            double[][] d1 = this.seriesDblDataList.get(i);
-            double[][] d2 = (double[][]) that.seriesDblDataList.get(i);
-            double[] d1x = d1[0];
-            double[] d2x = d2[0];
-            if (!Arrays.equals(d1x, d2x)) {
-                return false;
-            }
-            double[] d1xs = d1[1];
-            double[] d2xs = d2[1];
-            if (!Arrays.equals(d1xs, d2xs)) {
-                return false;
-            }
-            double[] d1xe = d1[2];
-            double[] d2xe = d2[2];
-            if (!Arrays.equals(d1xe, d2xe)) {
-                return false;
-            }
-            double[] d1y = d1[3];
-            double[] d2y = d2[3];
-            if (!Arrays.equals(d1y, d2y)) {
-                return false;
-            }
-            double[] d1ys = d1[4];
-            double[] d2ys = d2[4];
-            if (!Arrays.equals(d1ys, d2ys)) {
+            if (this.seriesItemCounts[i] != that.seriesItemCounts[i]) {
                 return false;
             }
-            double[] d1ye = d1[5];
-            double[] d2ye = d2[5];
-            if (!Arrays.equals(d1ye, d2ye)) {
+            if (!this.seriesData[i].equals(this.seriesOffsets[i], this.seriesItemCounts[i],
+                    that.seriesData[i], that.seriesOffsets[i])) {
                 return false;
             }
         }
@@ -520,8 +768,7 @@ public final class FastIntervalXYDataset<K extends Comparable<V>, V> extends Abs
     public int hashCode() {
         int result;
         result = this.seriesKeys.hashCode();
-        result = 13 * result + this.seriesIntDataList.hashCode();
-        result = 29 * result + this.seriesDblDataList.hashCode();
+        result = 29 * result + this.seriesCount;
         return result;
     }
 
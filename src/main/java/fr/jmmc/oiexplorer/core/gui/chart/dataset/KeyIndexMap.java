@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.gui.chart.dataset;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map (linear probing) from keys to primitive int indexes (no Integer boxing, no entry objects)
+ * @param <K> key type
+ *
+ * @author bourgesl
+ */
+final class KeyIndexMap<K> {
+
+    /** missing key index */
+    final static int NOT_FOUND = -1;
+
+    /* members */
+    /** keys (null means empty slot) */
+    private Object[] keys;
+    /** indexes */
+    private int[] indexes;
+    /** number of keys */
+    private int size = 0;
+
+    /**
+     * Protected constructor
+     * @param capacity initial capacity (keys)
+     */
+    KeyIndexMap(final int capacity) {
+        allocate(tableSize(capacity));
+    }
+
+    /**
+     * Return the index associated to the given key
+     * @param key key (null permitted)
+     * @return index or NOT_FOUND
+     */
+    int get(final Object key) {
+        if (key == null) {
+            return NOT_FOUND;
+        }
+        final Object[] k = this.keys;
+        final int mask = k.length - 1;
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            final Object cur = k[i];
+            if (cur == null) {
+                return NOT_FOUND;
+            }
+            if (cur == key || cur.equals(key)) {
+                return this.indexes[i];
+            }
+        }
+    }
+
+    /**
+     * Associate the given index to the given key
+     * @param key key (not null)
+     * @param index index
+     */
+    void put(final K key, final int index) {
+        if (2 * (this.size + 1) > this.keys.length) {
+            rehash(2 * this.keys.length);
+        }
+        final Object[] k = this.keys;
+        final int mask = k.length - 1;
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            final Object cur = k[i];
+            if (cur == null) {
+                k[i] = key;
+                this.indexes[i] = index;
+                this.size++;
+                return;
+            }
+            if (cur == key || cur.equals(key)) {
+                this.indexes[i] = index;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ensure this map can hold the given number of keys without rehashing
+     * @param capacity capacity (keys)
+     */
+    void ensureCapacity(final int capacity) {
+        final int len = tableSize(capacity);
+        if (len > this.keys.length) {
+            rehash(len);
+        }
+    }
+
+    /**
+     * Return the number of keys
+     * @return number of keys
+     */
+    int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof KeyIndexMap)) {
+            return false;
+        }
+        final KeyIndexMap<?> that = (KeyIndexMap<?>) obj;
+        if (this.size != that.size) {
+            return false;
+        }
+        for (int i = 0; i < this.keys.length; i++) {
+            final Object key = this.keys[i];
+            if (key != null && that.get(key) != this.indexes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int i = 0; i < this.keys.length; i++) {
+            final Object key = this.keys[i];
+            if (key != null) {
+                result += key.hashCode() ^ this.indexes[i];
+            }
+        }
+        return result;
+    }
+
+    private void rehash(final int len) {
+        final Object[] oldKeys = this.keys;
+        final int[] oldIndexes = this.indexes;
+
+        allocate(len);
+        this.size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                @SuppressWarnings("unchecked")
+                final K key = (K) oldKeys[i];
+                put(key, oldIndexes[i]);
+            }
+        }
+    }
+
+    private void allocate(final int len) {
+        this.keys = new Object[len];
+        this.indexes = new int[len];
+        Arrays.fill(this.indexes, NOT_FOUND);
+    }
+
+    private static int tableSize(final int capacity) {
+        // load factor = 0.5 (power of 2):
+        int len = 16;
+        while (len < 2 * capacity) {
+            len <<= 1;
+        }
+        return len;
+    }
+
+    private static int hash(final Object key) {
+        final int h = key.hashCode();
+        // spread bits (see HashMap):
+        return h ^ (h >>> 16);
+    }
+}
@@ -80,6 +80,14 @@ public final class IdentifiableVersion implements ToStringable {
         return true;
     }
 
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 31 * hash + ((this.id != null) ? this.id.hashCode() : 0);
+        hash = 31 * hash + this.version;
+        return hash;
+    }
+
     /**
      * toString() implementation wrapper to get complete information
      * Note: prefer using @see #toString(java.lang.StringBuilder) instead
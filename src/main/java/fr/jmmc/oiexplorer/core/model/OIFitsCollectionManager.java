@@ -28,6 +28,7 @@ import fr.jmmc.oiexplorer.core.model.oi.SubsetDefinition;
 import fr.jmmc.oiexplorer.core.model.oi.SubsetFilter;
 import fr.jmmc.oiexplorer.core.model.oi.TableUID;
 import fr.jmmc.oiexplorer.core.model.plot.PlotDefinition;
+import fr.jmmc.oiexplorer.core.util.OIDataColumnCache;
 import fr.jmmc.oitools.meta.OIFitsStandard;
 import fr.jmmc.oitools.model.OIData;
 import fr.jmmc.oitools.model.OIFitsChecker;
@@ -91,6 +92,8 @@ public final class OIFitsCollectionManager implements OIFitsCollectionManagerEve
     private DataPointer selectedDataPointer = null;
     /** plot Infos */
     private PlotInfosData plotInfosData = null;
+    /** column data version (incremented when expression columns are modified) */
+    private volatile int columnVersion = 0;
     /* event dispatchers */
     /** OIFitsCollectionManagerEventType event notifier map */
     private final EnumMap<OIFitsCollectionManagerEventType, EventNotifier<OIFitsCollectionManagerEvent, OIFitsCollectionManagerEventType, Object>> oiFitsCollectionManagerEventNotifierMap;
@@ -609,6 +612,15 @@ public final class OIFitsCollectionManager implements OIFitsCollectionManagerEve
     }
 
     /* --- Expression interpretation on the OIFitsCollection ----------- */
+    /**
+     * Return the column data version (incremented when expression columns are modified)
+     * so that computed datasets using modified columns are not reused
+     * @return column data version
+     */
+    public int getColumnVersion() {
+        return this.columnVersion;
+    }
+
     /**
      * Make the creation or modification of a column given its name and expression
      * @param name name of the column
@@ -806,6 +818,10 @@ public final class OIFitsCollectionManager implements OIFitsCollectionManagerEve
             }
         }
 
+        // cached column values and computed datasets are obsolete:
+        OIDataColumnCache.clear();
+        this.columnVersion++;
+
         if (!remove) {
             logger.info("updateExprColumnInOIFitsCollection[{}] computation time = {} ms.",
                     expression, 1e-6d * (System.nanoTime() - startTime));
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.util;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is a bounded LRU cache (thread-safe) limited by its number of entries and
+ * by the total weight (estimated memory footprint in bytes) of its values.
+ *
+ * Values are kept using soft references so that the garbage collector can reclaim them under memory pressure.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ *
+ * @author bourgesl
+ */
+public final class LRUCache<K, V> {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(LRUCache.class.getName());
+
+    /* members */
+    /** cache name (logs) */
+    private final String name;
+    /** maximum number of entries */
+    private final int maxEntries;
+    /** maximum total weight */
+    private final long maxWeight;
+    /** cache entries in access order (least recently used first) */
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+    /** current total weight */
+    private long weight = 0l;
+
+    /**
+     * Public constructor
+     * @param name cache name (logs)
+     * @param maxEntries maximum number of entries
+     * @param maxWeight maximum total weight (estimated memory footprint in bytes)
+     */
+    public LRUCache(final String name, final int maxEntries, final long maxWeight) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.entries = new LinkedHashMap<K, CacheEntry<V>>(2 * maxEntries, 0.75f, true);
+    }
+
+    /**
+     * Return the cached value associated to the given key
+     * @param key key
+     * @return cached value or null if missing (or reclaimed by the garbage collector)
+     */
+    public synchronized V get(final K key) {
+        final CacheEntry<V> entry = this.entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        final V value = entry.ref.get();
+        if (value == null) {
+            // reclaimed by the garbage collector:
+            remove(key);
+        }
+        return value;
+    }
+
+    /**
+     * Put the given value associated to the given key in this cache
+     * and evict least recently used values if the cache is full
+     * @param key key
+     * @param value value
+     * @param valueWeight value weight (estimated memory footprint in bytes)
+     */
+    public synchronized void put(final K key, final V value, final long valueWeight) {
+        remove(key);
+
+        if (valueWeight > this.maxWeight) {
+            // too large value:
+            if (logger.isDebugEnabled()) {
+                logger.debug("LRUCache[{}]: skip too large value ({} bytes)", this.name, valueWeight);
+            }
+            return;
+        }
+
+        this.entries.put(key, new CacheEntry<V>(value, valueWeight));
+        this.weight += valueWeight;
+
+        // evict least recently used entries:
+        for (final Iterator<CacheEntry<V>> it = this.entries.values().iterator(); it.hasNext();) {
+            final CacheEntry<V> entry = it.next();
+
+            if ((this.entries.size() > this.maxEntries) || (this.weight > this.maxWeight) || (entry.ref.get() == null)) {
+                it.remove();
+                this.weight -= entry.weight;
+            } else {
+                break;
+            }
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("LRUCache[{}]: {} entries - {} bytes", this.name, this.entries.size(), this.weight);
+        }
+    }
+
+    /**
+     * Remove the value associated to the given key
+     * @param key key
+     */
+    public synchronized void remove(final K key) {
+        final CacheEntry<V> entry = this.entries.remove(key);
+        if (entry != null) {
+            this.weight -= entry.weight;
+        }
+    }
+
+    /**
+     * Remove the values whose key is accepted by the given filter
+     * @param filter key filter
+     */
+    public synchronized void removeAll(final KeyFilter<K> filter) {
+        for (final Iterator<Map.Entry<K, CacheEntry<V>>> it = this.entries.entrySet().iterator(); it.hasNext();) {
+            final Map.Entry<K, CacheEntry<V>> e = it.next();
+            if (filter.accept(e.getKey())) {
+                it.remove();
+                this.weight -= e.getValue().weight;
+            }
+        }
+    }
+
+    /**
+     * Remove all values
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.weight = 0l;
+    }
+
+    /**
+     * Return the number of entries
+     * @return number of entries
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Return the default maximum weight ie the given fraction of the maximum heap size
+     * @param fraction fraction of the maximum heap size
+     * @return maximum weight in bytes
+     */
+    public static long getMaxWeight(final double fraction) {
+        return (long) (fraction * Runtime.getRuntime().maxMemory());
+    }
+
+    /**
+     * Key filter used to remove a subset of the cached values
+     * @param <K> key type
+     */
+    public interface KeyFilter<K> {
+
+        /**
+         * Return true if the given key is accepted
+         * @param key key
+         * @return true if the given key is accepted
+         */
+        boolean accept(final K key);
+    }
+
+    /**
+     * Cache entry: soft reference to the value and its weight
+     * @param <V> value type
+     */
+    private final static class CacheEntry<V> {
+
+        /** soft reference to the value */
+        final SoftReference<V> ref;
+        /** value weight */
+        final long weight;
+
+        /**
+         * Protected constructor
+         * @param value value
+         * @param weight value weight
+         */
+        CacheEntry(final V value, final long weight) {
+            this.ref = new SoftReference<V>(value);
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.util;
+
+import fr.jmmc.oitools.meta.ColumnMeta;
+import fr.jmmc.oitools.model.OIData;
+import java.lang.ref.WeakReference;
+
+/**
+ * This class caches the raw column values (double[] or double[][]) per OIData table and column name
+ * so that extracting a table again (log scale, converter changes ...) does not read or compute columns again from the OIFits model.
+ *
+ * The cache is bounded (LRU, number of entries and memory footprint) and its values are softly referenced;
+ * cache keys do not retain OIData tables (weak references).
+ * A cached column is only returned if the table still has the same column descriptor (identity)
+ * and the cache must be cleared when expression columns are modified.
+ *
+ * Cached arrays are shared (never copied) and must not be modified.
+ *
+ * @author bourgesl
+ */
+public final class OIDataColumnCache {
+
+    /** maximum number of cached columns */
+    private final static int MAX_CACHED_COLUMNS = 256;
+    /** maximum weight of cached columns as a fraction of the heap */
+    private final static double MAX_CACHED_COLUMNS_WEIGHT = 0.1;
+    /** bytes per array (header) */
+    private final static int BYTES_PER_ARRAY = 16;
+    /** LRU cache of column values per OIData table and column name */
+    private final static LRUCache<ColumnKey, ColumnEntry> CACHE = new LRUCache<ColumnKey, ColumnEntry>("OIDataColumns",
+            MAX_CACHED_COLUMNS, LRUCache.getMaxWeight(MAX_CACHED_COLUMNS_WEIGHT));
+
+    /**
+     * Forbidden constructor
+     */
+    private OIDataColumnCache() {
+        super();
+    }
+
+    /**
+     * Return the 1D column values for the given OIData table and column name (cached)
+     * @param oiData OIData table
+     * @param name column name (null permitted)
+     * @return column values or null if undefined
+     */
+    public static double[] getColumnAsDouble(final OIData oiData, final String name) {
+        if (name == null) {
+            return null;
+        }
+        final ColumnKey key = new ColumnKey(oiData, name);
+
+        // compute atomically per table (OIData column getters are not thread-safe):
+        synchronized (oiData) {
+            final ColumnMeta meta = oiData.getColumnMeta(name);
+
+            ColumnEntry entry = CACHE.get(key);
+            if ((entry == null) || (entry.meta != meta)) {
+                final double[] values = oiData.getColumnAsDouble(name);
+                entry = new ColumnEntry(meta, values);
+                CACHE.put(key, entry, (values != null) ? getWeight(values) : 0l);
+            }
+            return (double[]) entry.values;
+        }
+    }
+
+    /**
+     * Return the 2D column values for the given OIData table and column name (cached)
+     * @param oiData OIData table
+     * @param name column name (null permitted)
+     * @return column values or null if undefined
+     */
+    public static double[][] getColumnAsDoubles(final OIData oiData, final String name) {
+        if (name == null) {
+            return null;
+        }
+        final ColumnKey key = new ColumnKey(oiData, name);
+
+        // compute atomically per table (OIData column getters are not thread-safe):
+        synchronized (oiData) {
+            final ColumnMeta meta = oiData.getColumnMeta(name);
+
+            ColumnEntry entry = CACHE.get(key);
+            if ((entry == null) || (entry.meta != meta)) {
+                final double[][] values = oiData.getColumnAsDoubles(name);
+                entry = new ColumnEntry(meta, values);
+                CACHE.put(key, entry, (values != null) ? getWeight(values) : 0l);
+            }
+            return (double[][]) entry.values;
+        }
+    }
+
+    /**
+     * Remove all cached columns (expression columns modified)
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    /**
+     * Return the estimated memory footprint of the given 1D array
+     * @param values 1D array
+     * @return memory footprint in bytes
+     */
+    public static long getWeight(final double[] values) {
+        return BYTES_PER_ARRAY + 8l * values.length;
+    }
+
+    /**
+     * Return the estimated memory footprint of the given 2D array
+     * @param values 2D array
+     * @return memory footprint in bytes
+     */
+    public static long getWeight(final double[][] values) {
+        long weight = BYTES_PER_ARRAY + 8l * values.length;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                weight += getWeight(values[i]);
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Cache key: OIData table (weak reference, identity) and column name
+     */
+    private final static class ColumnKey {
+
+        /** OIData table (weak reference) */
+        private final WeakReference<OIData> oiDataRef;
+        /** column name */
+        private final String name;
+        /** cached hash code */
+        private final int hash;
+
+        /**
+         * Protected constructor
+         * @param oiData OIData table
+         * @param name column name
+         */
+        ColumnKey(final OIData oiData, final String name) {
+            this.oiDataRef = new WeakReference<OIData>(oiData);
+            this.name = name;
+            this.hash = 31 * System.identityHashCode(oiData) + name.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final ColumnKey other = (ColumnKey) obj;
+            final OIData oiData = this.oiDataRef.get();
+            // released tables never match:
+            return (this.hash == other.hash) && (oiData != null) && (oiData == other.oiDataRef.get())
+                    && this.name.equals(other.name);
+        }
+    }
+
+    /**
+     * Cache entry: column descriptor (identity) and values
+     */
+    private final static class ColumnEntry {
+
+        /** column descriptor */
+        final ColumnMeta meta;
+        /** column values (double[] or double[][]) or null if undefined */
+        final Object values;
+
+        /**
+         * Protected constructor
+         * @param meta column descriptor
+         * @param values column values
+         */
+        ColumnEntry(final ColumnMeta meta, final Object values) {
+            this.meta = meta;
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core.util;
+
+import fr.jmmc.oitools.model.OIData;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class groups the row indexes of an OIData table by distinct STA_INDEX (baseline or triplet)
+ * so that each serie only iterates on its own rows.
+ * Rows are not grouped by STA_CONF (configuration): series are built per baseline only
+ * and the configuration is a label read from the rows of the baseline.
+ *
+ * Row indexes are computed once per OIData table and cached (weak references)
+ *
+ * @author bourgesl
+ */
+public final class OIDataRowIndex {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(OIDataRowIndex.class.getName());
+    /** cached row indexes per OIData table (weak keys) */
+    private final static Map<OIData, OIDataRowIndex> CACHE = Collections.synchronizedMap(new WeakHashMap<OIData, OIDataRowIndex>(64));
+
+    /* members */
+    /** STA_INDEX column used to build this index (reference) */
+    private final short[][] staIndexes;
+    /** row indexes per distinct STA_INDEX (same ordering as OIData.getDistinctStaIndexes()) */
+    private final int[][] rowsByStaIndex;
+    /** maximum number of rows per distinct STA_INDEX */
+    private final int maxRowsByStaIndex;
+
+    /**
+     * Return the row index associated to the given OIData table (cached)
+     * @param oiData OIData table
+     * @return row index
+     */
+    public static OIDataRowIndex getInstance(final OIData oiData) {
+        // compute atomically (concurrent extractions):
+        synchronized (CACHE) {
+            OIDataRowIndex rowIndex = CACHE.get(oiData);
+
+            // check the cached index is still consistent with the table columns:
+            if (rowIndex == null || rowIndex.staIndexes != oiData.getStaIndex()) {
+
+                rowIndex = new OIDataRowIndex(oiData);
+                CACHE.put(oiData, rowIndex);
+            }
+            return rowIndex;
+        }
+    }
+
+    /**
+     * Private constructor
+     * @param oiData OIData table
+     */
+    private OIDataRowIndex(final OIData oiData) {
+        final long start = System.nanoTime();
+
+        final int nRows = oiData.getNbRows();
+
+        this.staIndexes = oiData.getStaIndex();
+
+        // STA_INDEX:
+        // note: sta indexes are compared using pointer comparison:
+        final short[][] distinctStaIndexes = oiData.getDistinctStaIndexes();
+        final int nStaIndexes = distinctStaIndexes.length;
+
+        final Map<short[], Integer> staIndexPos = new IdentityHashMap<short[], Integer>(nStaIndexes);
+        for (int k = 0; k < nStaIndexes; k++) {
+            staIndexPos.put(distinctStaIndexes[k], Integer.valueOf(k));
+        }
+
+        final int[] staIndexRow = new int[nRows];
+        final int[] staIndexCounts = new int[nStaIndexes];
+
+        Integer pos;
+        for (int i = 0; i < nRows; i++) {
+            pos = (nStaIndexes == 1) ? Integer.valueOf(0) : staIndexPos.get(this.staIndexes[i]);
+            if (pos == null) {
+                // should not happen (distinct values are shared instances):
+                staIndexRow[i] = -1;
+            } else {
+                staIndexRow[i] = pos.intValue();
+                staIndexCounts[staIndexRow[i]]++;
+            }
+        }
+        this.rowsByStaIndex = fillBuckets(staIndexRow, staIndexCounts);
+
+        int max = 0;
+        for (int k = 0; k < nStaIndexes; k++) {
+            max = Math.max(max, staIndexCounts[k]);
+        }
+        this.maxRowsByStaIndex = max;
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("OIDataRowIndex[{}]: {} baselines: duration = {} ms.",
+                    oiData, nStaIndexes, 1e-6d * (System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Group the row indexes into buckets (ascending row order)
+     * @param bucketPerRow bucket index per row (-1 means ignored)
+     * @param bucketCounts number of rows per bucket
+     * @return row indexes per bucket
+     */
+    private static int[][] fillBuckets(final int[] bucketPerRow, final int[] bucketCounts) {
+        final int nBuckets = bucketCounts.length;
+        final int[][] buckets = new int[nBuckets][];
+        for (int k = 0; k < nBuckets; k++) {
+            buckets[k] = new int[bucketCounts[k]];
+        }
+        final int[] fill = new int[nBuckets];
+
+        for (int i = 0, k, len = bucketPerRow.length; i < len; i++) {
+            k = bucketPerRow[i];
+            if (k != -1) {
+                buckets[k][fill[k]++] = i;
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Return the number of distinct STA_INDEX values
+     * @return number of distinct STA_INDEX values
+     */
+    public int getStaIndexCount() {
+        return this.rowsByStaIndex.length;
+    }
+
+    /**
+     * Return the row indexes (ascending order) for the given distinct STA_INDEX position
+     * @param k position in OIData.getDistinctStaIndexes()
+     * @return row indexes (shared array, do not modify)
+     */
+    public int[] getStaIndexRows(final int k) {
+        return this.rowsByStaIndex[k];
+    }
+
+    /**
+     * Return the maximum number of rows per distinct STA_INDEX
+     * @return maximum number of rows per distinct STA_INDEX
+     */
+    public int getMaxStaIndexRows() {
+        return this.maxRowsByStaIndex;
+    }
+}
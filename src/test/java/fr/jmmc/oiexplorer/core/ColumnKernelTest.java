@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.core;
+
+import fr.jmmc.oiexplorer.core.function.ColumnKernel;
+import fr.jmmc.oiexplorer.core.function.Converter;
+import fr.jmmc.oiexplorer.core.function.ConverterFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Check the column kernels (values and errors) against fixed expected values given by the former
+ * PlotChartPanel.updatePlot point loop (before the column kernels):
+ * - values: orientation flip, log filter (strictly positive values), skipped if not finite, then converted,
+ * - errors: NaN if undefined (NaN or infinite), POSITIVE_INFINITY if invalid (negative) or converted.
+ * @author bourgesl
+ */
+public class ColumnKernelTest {
+
+    /** skipped point (any non finite value) */
+    private final static double SKIP = Double.NaN;
+    /** undefined error */
+    private final static double UNDEF = Double.NaN;
+    /** invalid error */
+    private final static double INVALID = Double.POSITIVE_INFINITY;
+    /** number of channels filled for 1D columns (same value for all channels) */
+    private final static int N_1D = 2;
+
+    /** scaling converter (1e-6) */
+    private final static Converter SCALE = ConverterFactory.CONVERTER_MEGA_LAMBDA;
+
+    /** 1D values (odd rows have the other orientation) */
+    private final static double[] DATA_1D = new double[]{2.5, -4.0, 0.0, Double.NaN, Double.POSITIVE_INFINITY, 3.0e6};
+    /** 2D values (odd rows have the other orientation) */
+    private final static double[][] DATA_2D = new double[][]{
+        {1.0, -0.5, Double.NaN, Double.NEGATIVE_INFINITY},
+        {-2.0, 0.25, 4.0e6, 0.0}
+    };
+    /** 1D errors */
+    private final static double[] ERR_1D = new double[]{0.5, -1.0, Double.NaN, Double.POSITIVE_INFINITY, 2.0e6, 0.0};
+    /** 2D errors */
+    private final static double[][] ERR_2D = new double[][]{
+        {0.1, -0.2, Double.NaN, Double.POSITIVE_INFINITY},
+        {0.0, 3.0e6, Double.NEGATIVE_INFINITY, 1.0}
+    };
+
+    @Test
+    public void testValues1D() {
+        checkValues1D(false, null, new double[]{2.5, 4.0, 0.0, SKIP, SKIP, -3.0e6});
+        checkValues1D(true, null, new double[]{2.5, 4.0, SKIP, SKIP, SKIP, SKIP});
+        checkValues1D(false, SCALE, new double[]{2.4999999999999998E-6, 4.0E-6, 0.0, SKIP, SKIP, -3.0});
+        checkValues1D(true, SCALE, new double[]{2.4999999999999998E-6, 4.0E-6, SKIP, SKIP, SKIP, SKIP});
+    }
+
+    @Test
+    public void testValues2D() {
+        checkValues2D(false, null, new double[][]{
+            {1.0, -0.5, SKIP, SKIP},
+            {2.0, -0.25, -4.0e6, -0.0}
+        });
+        checkValues2D(true, null, new double[][]{
+            {1.0, SKIP, SKIP, SKIP},
+            {2.0, SKIP, SKIP, SKIP}
+        });
+        checkValues2D(false, SCALE, new double[][]{
+            {1.0E-6, -5.0E-7, SKIP, SKIP},
+            {2.0E-6, -2.5E-7, -4.0, -0.0}
+        });
+        checkValues2D(true, SCALE, new double[][]{
+            {1.0E-6, SKIP, SKIP, SKIP},
+            {2.0E-6, SKIP, SKIP, SKIP}
+        });
+    }
+
+    @Test
+    public void testErrors1D() {
+        checkErrors1D(null, new double[]{0.5, INVALID, UNDEF, UNDEF, 2.0e6, 0.0});
+        checkErrors1D(SCALE, new double[]{5.0E-7, INVALID, UNDEF, UNDEF, 2.0, 0.0});
+    }
+
+    @Test
+    public void testErrors2D() {
+        checkErrors2D(null, new double[][]{
+            {0.1, INVALID, UNDEF, UNDEF},
+            {0.0, 3.0e6, UNDEF, 1.0}
+        });
+        checkErrors2D(SCALE, new double[][]{
+            {1.0E-7, INVALID, UNDEF, UNDEF},
+            {0.0, 3.0, UNDEF, 1.0E-6}
+        });
+    }
+
+    private static void checkValues1D(final boolean useLog, final Converter scaling, final double[] expected) {
+        final ColumnKernel kernel = ColumnKernel.create(DATA_1D, null, null, null, useLog, scaling);
+
+        final double[] row = new double[N_1D];
+
+        for (int i = 0; i < DATA_1D.length; i++) {
+            kernel.fill(i, isOtherOrientation(i), row, N_1D);
+
+            for (int l = 0; l < N_1D; l++) {
+                assertValue("1D log=" + useLog + " scaling=" + scaling + " [" + i + "]", expected[i], row[l]);
+            }
+        }
+    }
+
+    private static void checkValues2D(final boolean useLog, final Converter scaling, final double[][] expected) {
+        final ColumnKernel kernel = ColumnKernel.create(null, DATA_2D, null, null, useLog, scaling);
+
+        for (int i = 0; i < DATA_2D.length; i++) {
+            final int len = DATA_2D[i].length;
+            final double[] row = new double[len];
+
+            kernel.fill(i, isOtherOrientation(i), row, len);
+
+            for (int l = 0; l < len; l++) {
+                assertValue("2D log=" + useLog + " scaling=" + scaling + " [" + i + "][" + l + "]", expected[i][l], row[l]);
+            }
+        }
+    }
+
+    private static void checkErrors1D(final Converter scaling, final double[] expected) {
+        final ColumnKernel kernel = ColumnKernel.create(DATA_1D, null, ERR_1D, null, false, scaling);
+
+        final double[] row = new double[N_1D];
+
+        for (int i = 0; i < ERR_1D.length; i++) {
+            kernel.fillError(i, row, N_1D);
+
+            for (int l = 0; l < N_1D; l++) {
+                assertError("1D scaling=" + scaling + " [" + i + "]", expected[i], row[l]);
+            }
+        }
+    }
+
+    private static void checkErrors2D(final Converter scaling, final double[][] expected) {
+        final ColumnKernel kernel = ColumnKernel.create(null, DATA_2D, null, ERR_2D, false, scaling);
+
+        for (int i = 0; i < ERR_2D.length; i++) {
+            final int len = ERR_2D[i].length;
+            final double[] row = new double[len];
+
+            kernel.fillError(i, row, len);
+
+            for (int l = 0; l < len; l++) {
+                assertError("2D scaling=" + scaling + " [" + i + "][" + l + "]", expected[i][l], row[l]);
+            }
+        }
+    }
+
+    private static boolean isOtherOrientation(final int row) {
+        return (row & 1) != 0;
+    }
+
+    private static void assertValue(final String message, final double expected, final double actual) {
+        if (Double.isNaN(expected)) {
+            // skipped point:
+            Assert.assertFalse(message + ": skipped point must not be finite", isFinite(actual));
+        } else {
+            Assert.assertEquals(message, expected, actual, 0.0);
+        }
+    }
+
+    private static void assertError(final String message, final double expected, final double actual) {
+        if (Double.isNaN(expected)) {
+            Assert.assertTrue(message + ": undefined error must be NaN", Double.isNaN(actual));
+        } else {
+            Assert.assertEquals(message, expected, actual, 0.0);
+        }
+    }
+
+    private static boolean isFinite(final double value) {
+        return !(Double.isNaN(value) || Double.isInfinite(value));
+    }
+
+    @Test
+    public void testMissingErrors() {
+        final ColumnKernel kernel = ColumnKernel.create(null, DATA_2D, null, null, false, null);
+
+        for (int i = 0; i < DATA_2D.length; i++) {
+            final int len = DATA_2D[i].length;
+            final double[] row = new double[len];
+
+            kernel.fillError(i, row, len);
+
+            for (int l = 0; l < len; l++) {
+                Assert.assertTrue("missing error must be NaN", Double.isNaN(row[l]));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUndefinedColumn() {
+        ColumnKernel.create(null, null, null, null, false, null);
+    }
+}